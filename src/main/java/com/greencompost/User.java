@@ -1,18 +1,22 @@
 package com.greencompost;
 
 import com.greencompost.controller.FoodItem;
+import com.greencompost.model.ChangeTracked;
 import com.greencompost.model.DatabaseManager;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
 import java.util.regex.Pattern;
 
 /**
  * Represents a user of the GreenCompost system
  */
-public class User
+public class User implements ChangeTracked
 {
     private UUID id;
     private String username;
@@ -25,9 +29,19 @@ public class User
     private double longitude; // Legacy field - keeping for compatibility
     private List<FoodItem> foodItems;
     private boolean rememberMe;
-    
-    // Static collection to store all users
-    public static final List<User> allUsers = new ArrayList<>();
+
+    // Persisted fields, as bits in the dirty mask (see ChangeTracked)
+    public static final int FIELD_PASSWORD = 1;
+    public static final int FIELD_NAME = 1 << 1;
+    public static final int FIELD_EMAIL = 1 << 2;
+    public static final int FIELD_LOCATION = 1 << 3;
+    public static final int FIELD_LATITUDE = 1 << 4;
+    public static final int FIELD_LONGITUDE = 1 << 5;
+    public static final int FIELD_REMEMBER_ME = 1 << 6;
+    public static final int FIELD_USERNAME = 1 << 7;
+    private int dirtyFields;
+    // The username the stored row had at the last load or save; the row key
+    private String storedUsername;
     
     // Email validation pattern
     private static final Pattern EMAIL_PATTERN = Pattern.compile(
@@ -38,9 +52,25 @@ public class User
      * Constructor for creating a new user
      */
     public User() {
+        this(true);
+    }
+
+    private User(boolean register) {
         this.id = UUID.randomUUID();
         this.foodItems = new ArrayList<>();
-        allUsers.add(this);
+        if (register) {
+            UserRegistry.getInstance().add(this);
+        }
+    }
+
+    /**
+     * Create a user that is not added to the UserRegistry. Users loaded from the
+     * database are tracked by the DatabaseManager's user cache instead.
+     *
+     * @return A new empty user
+     */
+    public static User createDetached() {
+        return new User(false);
     }
 
     /**
@@ -61,10 +91,10 @@ public class User
         this.location = location;
         this.city = city;
         this.foodItems = new ArrayList<>();
-        allUsers.add(this);
+        UserRegistry.getInstance().add(this);
         
-        // Save to database
-        DatabaseManager.getInstance().saveUser(this);
+        // Save to database in the background
+        DatabaseManager.getInstance().getWriteBehindQueue().enqueueUser(this);
     }
     
     /**
@@ -97,10 +127,10 @@ public class User
         this.longitude = longitude;
         
         this.foodItems = new ArrayList<>();
-        allUsers.add(this);
+        UserRegistry.getInstance().add(this);
         
-        // Save to database
-        DatabaseManager.getInstance().saveUser(this);
+        // Save to database in the background
+        DatabaseManager.getInstance().getWriteBehindQueue().enqueueUser(this);
     }
 
     /**
@@ -127,7 +157,20 @@ public class User
      * @param username The new username
      */
     public void setUsername(String username) {
-        this.username = username;
+        if (!Objects.equals(this.username, username)) {
+            dirtyFields |= FIELD_USERNAME;
+        }
+        UserRegistry.getInstance().update(this, () -> this.username = username);
+    }
+
+    /**
+     * Get the username the user's database row is keyed by. Differs from
+     * getUsername() after a rename that has not been flushed yet.
+     *
+     * @return The stored username, or the current one if the user was never loaded or saved
+     */
+    public String getStoredUsername() {
+        return storedUsername != null ? storedUsername : username;
     }
     
     /**
@@ -140,15 +183,15 @@ public class User
     }
 
     /**
-     * Update the password of this user
+     * Update the password of this user. Persist it with DatabaseManager.flushChanges.
      *
      * @param password The new password
      */
     public void setPassword(String password) {
+        if (!Objects.equals(this.password, password)) {
+            dirtyFields |= FIELD_PASSWORD;
+        }
         this.password = password;
-        
-        // Update password in database
-        DatabaseManager.getInstance().updateUserPassword(this);
     }
     
     /**
@@ -165,6 +208,7 @@ public class User
         if (user != null) {
             // Update the password
             user.setPassword(newPassword);
+            DatabaseManager.getInstance().flushChanges(user);
             return true;
         }
         
@@ -179,10 +223,9 @@ public class User
      */
     public static User findByEmail(String email) {
         // First check in-memory
-        for (User user : allUsers) {
-            if (user.getEmail() != null && user.getEmail().equalsIgnoreCase(email)) {
-                return user;
-            }
+        User user = UserRegistry.getInstance().findByEmail(email);
+        if (user != null) {
+            return user;
         }
         
         // Then check database
@@ -204,6 +247,9 @@ public class User
      * @param name The new name
      */
     public void setName(String name) {
+        if (!Objects.equals(this.name, name)) {
+            dirtyFields |= FIELD_NAME;
+        }
         this.name = name;
     }
 
@@ -226,7 +272,14 @@ public class User
         if (email != null && !email.isEmpty() && !EMAIL_PATTERN.matcher(email).matches()) {
             throw new IllegalArgumentException("Invalid email format: " + email);
         }
-        this.email = email;
+        if (Objects.equals(this.email, email)) {
+            return;
+        }
+        // The registry indexes by email, so it applies the change
+        UserRegistry.getInstance().update(this, () -> {
+            dirtyFields |= FIELD_EMAIL;
+            this.email = email;
+        });
     }
 
     /**
@@ -244,14 +297,19 @@ public class User
      * @param location The new location
      */
     public void setLocation(String location) {
-        this.location = location;
-        
-        // Try to extract city from location
-        if (location != null && location.contains(",")) {
-            this.city = location.split(",")[0].trim();
-        } else {
-            this.city = location;
-        }
+        UserRegistry.getInstance().update(this, () -> {
+            if (!Objects.equals(this.location, location)) {
+                dirtyFields |= FIELD_LOCATION;
+            }
+            this.location = location;
+
+            // Try to extract city from location
+            if (location != null && location.contains(",")) {
+                this.city = location.split(",")[0].trim();
+            } else {
+                this.city = location;
+            }
+        });
     }
     
     /**
@@ -295,6 +353,9 @@ public class User
         if (latitude < -90 || latitude > 90) {
             throw new IllegalArgumentException("Invalid latitude: " + latitude + ". Must be between -90 and 90.");
         }
+        if (Double.compare(this.latitude, latitude) != 0) {
+            dirtyFields |= FIELD_LATITUDE;
+        }
         this.latitude = latitude;
     }
 
@@ -317,6 +378,9 @@ public class User
         if (longitude < -180 || longitude > 180) {
             throw new IllegalArgumentException("Invalid longitude: " + longitude + ". Must be between -180 and 180.");
         }
+        if (Double.compare(this.longitude, longitude) != 0) {
+            dirtyFields |= FIELD_LONGITUDE;
+        }
         this.longitude = longitude;
     }
     
@@ -335,6 +399,9 @@ public class User
      * @param rememberMe True to enable remember me, false to disable
      */
     public void setRememberMe(boolean rememberMe) {
+        if (this.rememberMe != rememberMe) {
+            dirtyFields |= FIELD_REMEMBER_ME;
+        }
         this.rememberMe = rememberMe;
     }
 
@@ -348,12 +415,16 @@ public class User
     }
 
     /**
-     * Add a food item to this user's list
+     * Add a food item to this user's list and make this user its owner, so
+     * the item is saved under this user
      *
      * @param item The food item to add
      */
     public void addFoodItem(FoodItem item) {
-        foodItems.add(item);
+        item.setOwner(this);
+        if (!foodItems.contains(item)) {
+            foodItems.add(item);
+        }
     }
 
     /**
@@ -386,10 +457,15 @@ public class User
         // Get users from database
         List<User> dbUsers = DatabaseManager.getInstance().getAllUsers();
         
-        // Combine with in-memory users
-        List<User> allUsersCombined = new ArrayList<>(allUsers);
+        // Combine with in-memory users; a stored user is skipped when an
+        // in-memory user has the same username
+        List<User> allUsersCombined = UserRegistry.getInstance().getAll();
+        Set<String> usernames = new HashSet<>();
+        for (User user : allUsersCombined) {
+            usernames.add(user.getUsername());
+        }
         for (User dbUser : dbUsers) {
-            if (!allUsersCombined.contains(dbUser)) {
+            if (dbUser.getUsername() == null || usernames.add(dbUser.getUsername())) {
                 allUsersCombined.add(dbUser);
             }
         }
@@ -405,10 +481,9 @@ public class User
      */
     public static User findByUsername(String username) {
         // First check in-memory
-        for (User user : allUsers) {
-            if (user.getUsername() != null && user.getUsername().equals(username)) {
-                return user;
-            }
+        User user = UserRegistry.getInstance().findByUsername(username);
+        if (user != null) {
+            return user;
         }
         
         // Then check database
@@ -419,21 +494,10 @@ public class User
      * Find users by location
      * 
      * @param locationKeyword The location keyword to search for
-     * @return List of users in that location
+     * @return List of users whose location contains the keyword, ignoring case
      */
     public static List<User> findByLocation(String locationKeyword) {
-        List<User> result = new ArrayList<>();
-        if (locationKeyword == null || locationKeyword.isEmpty()) {
-            return result;
-        }
-        
-        for (User user : allUsers) {
-            if (user.getLocation() != null && 
-                user.getLocation().toLowerCase().contains(locationKeyword.toLowerCase())) {
-                result.add(user);
-            }
-        }
-        return result;
+        return UserRegistry.getInstance().findByLocation(locationKeyword);
     }
     
     /**
@@ -459,7 +523,7 @@ public class User
     public static List<User> findNearbyByCity(String city, double radiusKm) {
         List<User> result = new ArrayList<>();
         
-        for (User user : allUsers) {
+        for (User user : UserRegistry.getInstance().getAll()) {
             // Simplified distance calculation based on city matching
             double distance = calculateSimpleDistance(city, user.getCity());
             if (distance <= radiusKm) {
@@ -593,4 +657,15 @@ public class User
     public static List<FoodItem> findNearbyFoodItemsForUser(User user, double radiusKm) {
         return findNearbyFoodItems(user.getLatitude(), user.getLongitude(), radiusKm);
     }
+
+    @Override
+    public int getDirtyFields() {
+        return dirtyFields;
+    }
+
+    @Override
+    public void clearDirtyFields() {
+        dirtyFields = 0;
+        storedUsername = username;
+    }
 }
@@ -0,0 +1,223 @@
+package com.greencompost;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Registry of the users created in this session, with hash indexes on
+ * username and lower-cased email and a trigram index on location text.
+ * Username and email lookups cost one hash probe however many users are
+ * registered, and location lookups of three or more characters only check
+ * the users indexed under one of the keyword's trigrams. User routes
+ * changes to indexed fields through update(), so the indexes always match
+ * the users' current values.
+ */
+public class UserRegistry {
+    private static final UserRegistry instance = new UserRegistry();
+    private static final int GRAM_LENGTH = 3;
+
+    private final Set<User> users = new LinkedHashSet<>();
+    // Registration sequence, so lookups through the trigram index still
+    // return users in registration order after a re-index
+    private final Map<User, Long> registrationOrder = new HashMap<>();
+    private long nextRegistration;
+    private final Map<String, User> byUsername = new HashMap<>();
+    private final Map<String, User> byEmail = new HashMap<>();
+    private final Map<String, Set<User>> byLocationTrigram = new HashMap<>();
+    private int lastLocationCandidates;
+
+    /**
+     * Get the application-wide registry
+     *
+     * @return The registry instance
+     */
+    public static UserRegistry getInstance() {
+        return instance;
+    }
+
+    /**
+     * Register a user. A later user with the same username or email takes
+     * over that index entry.
+     *
+     * @param user The user to register
+     */
+    public synchronized void add(User user) {
+        if (users.add(user)) {
+            registrationOrder.put(user, nextRegistration++);
+            index(user);
+        }
+    }
+
+    /**
+     * Remove a user
+     *
+     * @param user The user to remove
+     * @return true if the user was registered
+     */
+    public synchronized boolean remove(User user) {
+        if (!users.remove(user)) {
+            return false;
+        }
+        registrationOrder.remove(user);
+        unindex(user);
+        return true;
+    }
+
+    /**
+     * Apply a change to a user's fields, re-indexing the user if it is
+     * registered. Called by User's setters for indexed fields.
+     *
+     * @param user The user being changed
+     * @param change Assigns the new field values
+     */
+    synchronized void update(User user, Runnable change) {
+        boolean registered = users.contains(user);
+        if (registered) {
+            unindex(user);
+        }
+        change.run();
+        if (registered) {
+            index(user);
+        }
+    }
+
+    private void index(User user) {
+        if (user.getUsername() != null) {
+            byUsername.put(user.getUsername(), user);
+        }
+        String emailKey = emailKey(user.getEmail());
+        if (emailKey != null) {
+            byEmail.put(emailKey, user);
+        }
+        for (String gram : trigrams(locationKey(user.getLocation()))) {
+            byLocationTrigram.computeIfAbsent(gram, g -> new HashSet<>()).add(user);
+        }
+    }
+
+    private void unindex(User user) {
+        if (user.getUsername() != null) {
+            byUsername.remove(user.getUsername(), user);
+        }
+        String emailKey = emailKey(user.getEmail());
+        if (emailKey != null) {
+            byEmail.remove(emailKey, user);
+        }
+        for (String gram : trigrams(locationKey(user.getLocation()))) {
+            Set<User> bucket = byLocationTrigram.get(gram);
+            if (bucket != null && bucket.remove(user) && bucket.isEmpty()) {
+                byLocationTrigram.remove(gram);
+            }
+        }
+    }
+
+    private static String emailKey(String email) {
+        return email != null && !email.isEmpty() ? email.toLowerCase(Locale.ROOT) : null;
+    }
+
+    private static String locationKey(String location) {
+        return location != null ? location.toLowerCase(Locale.ROOT) : null;
+    }
+
+    /**
+     * Get every run of three consecutive characters in the text
+     */
+    private static Set<String> trigrams(String text) {
+        Set<String> grams = new HashSet<>();
+        if (text == null) {
+            return grams;
+        }
+        for (int i = 0; i + GRAM_LENGTH <= text.length(); i++) {
+            grams.add(text.substring(i, i + GRAM_LENGTH));
+        }
+        return grams;
+    }
+
+    /**
+     * Look up a user by username
+     *
+     * @param username The username
+     * @return The user, or null if none is registered
+     */
+    public synchronized User findByUsername(String username) {
+        return username != null ? byUsername.get(username) : null;
+    }
+
+    /**
+     * Look up a user by email, ignoring case
+     *
+     * @param email The email address
+     * @return The user, or null if none is registered
+     */
+    public synchronized User findByEmail(String email) {
+        String emailKey = emailKey(email);
+        return emailKey != null ? byEmail.get(emailKey) : null;
+    }
+
+    /**
+     * Find users whose location contains the keyword, ignoring case. Every
+     * such location contains all of the keyword's trigrams, so only the
+     * users under its rarest trigram are checked. Keywords shorter than
+     * three characters scan every user.
+     *
+     * @param locationKeyword Text to look for, e.g. "Dublin", "Main St" or "ubl"
+     * @return The matching users, in registration order
+     */
+    public synchronized List<User> findByLocation(String locationKeyword) {
+        List<User> result = new ArrayList<>();
+        if (locationKeyword == null || locationKeyword.isEmpty()) {
+            return result;
+        }
+        String keyword = locationKey(locationKeyword);
+
+        Collection<User> candidates = users;
+        for (String gram : trigrams(keyword)) {
+            Set<User> bucket = byLocationTrigram.getOrDefault(gram, Set.of());
+            if (bucket.size() < candidates.size()) {
+                candidates = bucket;
+            }
+        }
+        lastLocationCandidates = candidates.size();
+        for (User user : candidates) {
+            String location = locationKey(user.getLocation());
+            if (location != null && location.contains(keyword)) {
+                result.add(user);
+            }
+        }
+        if (candidates != users) {
+            result.sort(Comparator.comparing(registrationOrder::get));
+        }
+        return result;
+    }
+
+    /**
+     * Get the number of users the most recent findByLocation call checked.
+     * With the trigram index this is the size of the keyword's rarest
+     * trigram bucket, not the number of registered users.
+     *
+     * @return The candidate count of the last location lookup
+     */
+    synchronized int getLastLocationCandidateCount() {
+        return lastLocationCandidates;
+    }
+
+    /**
+     * Get every registered user
+     *
+     * @return A copy of the users, in registration order
+     */
+    public synchronized List<User> getAll() {
+        return new ArrayList<>(users);
+    }
+
+    public synchronized int size() {
+        return users.size();
+    }
+}
@@ -1,20 +1,22 @@
 package com.greencompost.controller;
 
 import com.greencompost.User;
+import com.greencompost.model.ChangeTracked;
+import com.greencompost.model.DatabaseManager;
+import com.greencompost.model.WriteBehindQueue;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.UUID;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Objects;
 
 /**
  * Represents a food item logged by a user for composting or donation
  * Also serves as a controller for food item operations
  */
-public class FoodItem {
-    // Static collection to store all food items
-    public static final List<FoodItem> allFoodItems = new ArrayList<>();
-    
+public class FoodItem implements ChangeTracked {
     /**
      * Add a new food item for a user
      * 
@@ -29,11 +31,42 @@ public class FoodItem {
     public FoodItem addFoodItem(User user, String name, double quantity, String quantityUnit,
                           LocalDateTime expiryDate, FoodCategory category) {
         FoodItem item = new FoodItem(name, quantity, quantityUnit, expiryDate, category);
+        item.setOwner(user);
         user.addFoodItem(item);
-        allFoodItems.add(item);
+        FoodItemRepository.getInstance().add(item);
+        
+        // Persist in the background so logging never waits on the disk
+        DatabaseManager.getInstance().getWriteBehindQueue().enqueueFoodItem(item);
         return item;
     }
 
+    /**
+     * Give a user's items a new status, e.g. when a compost or donation plan
+     * is confirmed. Items created for the plan are first added to the user
+     * and queued for a full save; the others get a narrow status update.
+     *
+     * @param user The user confirming the plan
+     * @param items The items changing status
+     * @param newItems Those of the items that were created for the plan and never saved
+     * @param status The new status
+     */
+    public static void updateStatus(User user, Collection<FoodItem> items, Collection<FoodItem> newItems,
+                                    ItemStatus status) {
+        WriteBehindQueue queue = DatabaseManager.getInstance().getWriteBehindQueue();
+        List<FoodItem> changed = new ArrayList<>();
+        for (FoodItem item : items) {
+            item.setStatus(status);
+            if (newItems.contains(item)) {
+                user.addFoodItem(item);
+                FoodItemRepository.getInstance().add(item);
+                queue.enqueueFoodItem(item);
+            } else {
+                changed.add(item);
+            }
+        }
+        queue.enqueueChanges(changed);
+    }
+
     /**
      * Find food items by category
      *
@@ -41,13 +74,7 @@ public class FoodItem {
      * @return List of matching food items
      */
     public static List<FoodItem> findByCategory(FoodCategory category) {
-        List<FoodItem> result = new ArrayList<>();
-        for (FoodItem item : allFoodItems) {
-            if (item.getCategory() == category) {
-                result.add(item);
-            }
-        }
-        return result;
+        return FoodItemRepository.getInstance().findByCategory(category);
     }
 
     /**
@@ -56,13 +83,19 @@ public class FoodItem {
      * @return List of food items expiring soon
      */
     public static List<FoodItem> findExpiringSoon() {
-        List<FoodItem> result = new ArrayList<>();
-        for (FoodItem item : allFoodItems) {
-            if (item.isExpiringSoon()) {
-                result.add(item);
-            }
-        }
-        return result;
+        LocalDateTime now = LocalDateTime.now();
+        return FoodItemRepository.getInstance().findExpiringBetween(now, now.plusHours(48));
+    }
+
+    /**
+     * Find a user's food items that are expiring soon (within 48 hours)
+     *
+     * @param owner The owning user
+     * @return List of the user's food items expiring soon, earliest first
+     */
+    public static List<FoodItem> findExpiringSoon(User owner) {
+        LocalDateTime now = LocalDateTime.now();
+        return FoodItemRepository.getInstance().findExpiringBetween(owner, now, now.plusHours(48));
     }
 
     /**
@@ -72,13 +105,7 @@ public class FoodItem {
      * @return List of matching food items
      */
     public static List<FoodItem> findByStatus(ItemStatus status) {
-        List<FoodItem> result = new ArrayList<>();
-        for (FoodItem item : allFoodItems) {
-            if (item.getStatus() == status) {
-                result.add(item);
-            }
-        }
-        return result;
+        return FoodItemRepository.getInstance().findByStatus(status);
     }
 
     /**
@@ -87,17 +114,19 @@ public class FoodItem {
      * @return List of all food items
      */
     public static List<FoodItem> getAllFoodItems() {
-        return new ArrayList<>(allFoodItems);
+        return FoodItemRepository.getInstance().getAll();
     }
 
     /**
-     * Remove a food item from the system
+     * Remove a food item from the system and queue the delete of its row
      *
      * @param item The food item to remove
      */
     public static void removeFoodItem(FoodItem item) {
-        allFoodItems.remove(item);
+        FoodItemRepository.getInstance().remove(item);
+        DatabaseManager.getInstance().getWriteBehindQueue().enqueueDelete(item);
     }
+
     private UUID id;
     private String name;
     private double quantity;
@@ -109,6 +138,17 @@ public class FoodItem {
     private String description;
     private User owner;
 
+    // Persisted fields, as bits in the dirty mask (see ChangeTracked)
+    public static final int FIELD_NAME = 1;
+    public static final int FIELD_QUANTITY = 1 << 1;
+    public static final int FIELD_QUANTITY_UNIT = 1 << 2;
+    public static final int FIELD_EXPIRY_DATE = 1 << 3;
+    public static final int FIELD_CATEGORY = 1 << 4;
+    public static final int FIELD_STATUS = 1 << 5;
+    public static final int FIELD_DESCRIPTION = 1 << 6;
+    public static final int FIELD_OWNER = 1 << 7;
+    private int dirtyFields;
+
     /**
      * Food categories for classification and sorting
      */
@@ -161,6 +201,15 @@ public class FoodItem {
         return id;
     }
 
+    /**
+     * Set the unique identifier, used when loading stored items
+     *
+     * @param id The item's UUID
+     */
+    public void setId(UUID id) {
+        FoodItemRepository.getInstance().update(this, () -> this.id = id);
+    }
+
     /**
      * Get the name of this food item
      *
@@ -176,6 +225,9 @@ public class FoodItem {
      * @param name The new name
      */
     public void setName(String name) {
+        if (!Objects.equals(this.name, name)) {
+            dirtyFields |= FIELD_NAME;
+        }
         this.name = name;
     }
 
@@ -194,6 +246,9 @@ public class FoodItem {
      * @param quantity The new quantity
      */
     public void setQuantity(double quantity) {
+        if (Double.compare(this.quantity, quantity) != 0) {
+            dirtyFields |= FIELD_QUANTITY;
+        }
         this.quantity = quantity;
     }
 
@@ -212,6 +267,9 @@ public class FoodItem {
      * @param quantityUnit The new quantity unit
      */
     public void setQuantityUnit(String quantityUnit) {
+        if (!Objects.equals(this.quantityUnit, quantityUnit)) {
+            dirtyFields |= FIELD_QUANTITY_UNIT;
+        }
         this.quantityUnit = quantityUnit;
     }
 
@@ -230,7 +288,13 @@ public class FoodItem {
      * @param expiryDate The new expiry date
      */
     public void setExpiryDate(LocalDateTime expiryDate) {
-        this.expiryDate = expiryDate;
+        if (Objects.equals(this.expiryDate, expiryDate)) {
+            return;
+        }
+        FoodItemRepository.getInstance().update(this, () -> {
+            dirtyFields |= FIELD_EXPIRY_DATE;
+            this.expiryDate = expiryDate;
+        });
     }
 
     /**
@@ -248,7 +312,14 @@ public class FoodItem {
      * @param category The new category
      */
     public void setCategory(FoodCategory category) {
-        this.category = category;
+        if (this.category == category) {
+            return;
+        }
+        // The repository indexes by category, so it applies the change
+        FoodItemRepository.getInstance().update(this, () -> {
+            dirtyFields |= FIELD_CATEGORY;
+            this.category = category;
+        });
     }
 
     /**
@@ -266,7 +337,13 @@ public class FoodItem {
      * @param status The new status
      */
     public void setStatus(ItemStatus status) {
-        this.status = status;
+        if (this.status == status) {
+            return;
+        }
+        FoodItemRepository.getInstance().update(this, () -> {
+            dirtyFields |= FIELD_STATUS;
+            this.status = status;
+        });
     }
 
     /**
@@ -278,6 +355,15 @@ public class FoodItem {
         return createdAt;
     }
 
+    /**
+     * Set the creation date and time, used when loading stored items
+     *
+     * @param createdAt The creation date and time
+     */
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
     /**
      * Get the description of this food item
      *
@@ -293,6 +379,9 @@ public class FoodItem {
      * @param description The new description
      */
     public void setDescription(String description) {
+        if (!Objects.equals(this.description, description)) {
+            dirtyFields |= FIELD_DESCRIPTION;
+        }
         this.description = description;
     }
 
@@ -311,8 +400,8 @@ public class FoodItem {
      * @return true if expiring soon, false otherwise
      */
     public boolean isExpiringSoon() {
-        LocalDateTime soonThreshold = LocalDateTime.now().plusHours(48);
-        return expiryDate.isAfter(LocalDateTime.now()) && expiryDate.isBefore(soonThreshold);
+        LocalDateTime now = LocalDateTime.now();
+        return expiryDate.isAfter(now) && expiryDate.isBefore(now.plusHours(48));
     }
 
     /**
@@ -375,7 +464,23 @@ public class FoodItem {
      * @param owner The user who owns this food item
      */
     public void setOwner(User owner) {
-        this.owner = owner;
+        if (this.owner == owner) {
+            return;
+        }
+        FoodItemRepository.getInstance().update(this, () -> {
+            dirtyFields |= FIELD_OWNER;
+            this.owner = owner;
+        });
+    }
+
+    @Override
+    public int getDirtyFields() {
+        return dirtyFields;
+    }
+
+    @Override
+    public void clearDirtyFields() {
+        dirtyFields = 0;
     }
 
     @Override
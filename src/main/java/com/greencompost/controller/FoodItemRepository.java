@@ -0,0 +1,330 @@
+package com.greencompost.controller;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import com.greencompost.User;
+import com.greencompost.controller.FoodItem.FoodCategory;
+import com.greencompost.controller.FoodItem.ItemStatus;
+import com.greencompost.model.Timestamps;
+
+/**
+ * Thread-safe registry of the food items known to the application, keyed
+ * by id with secondary indexes by category, status and owner, and an
+ * expiry index ordered by (expiry time, id) overall and per owner. Lookups
+ * cost O(result), plus O(log n) for expiry range queries, instead of a scan
+ * over every item.
+ *
+ * The primary map is read without locking. The secondary indexes are
+ * guarded by a read-write lock, and FoodItem routes changes to indexed
+ * fields through update(), so an item is never seen in two index buckets
+ * or in none.
+ */
+public class FoodItemRepository {
+    /**
+     * Position of an item in the expiry index; the id breaks ties between
+     * items expiring at the same millisecond
+     */
+    private record ExpiryKey(long expiryMillis, UUID id) {
+    }
+
+    private static final Comparator<ExpiryKey> EXPIRY_ORDER =
+            Comparator.comparingLong(ExpiryKey::expiryMillis).thenComparing(ExpiryKey::id);
+    private static final UUID MIN_ID = new UUID(Long.MIN_VALUE, Long.MIN_VALUE);
+    // Declared after EXPIRY_ORDER, which the instance's index maps need
+    private static final FoodItemRepository instance = new FoodItemRepository();
+
+    private final Map<UUID, FoodItem> items = new ConcurrentHashMap<>();
+    private final Map<FoodCategory, Set<FoodItem>> byCategory = new EnumMap<>(FoodCategory.class);
+    private final Map<ItemStatus, Set<FoodItem>> byStatus = new EnumMap<>(ItemStatus.class);
+    private final Map<User, Set<FoodItem>> byOwner = new HashMap<>();
+    private final NavigableMap<ExpiryKey, FoodItem> byExpiry = new TreeMap<>(EXPIRY_ORDER);
+    private final Map<User, NavigableMap<ExpiryKey, FoodItem>> byOwnerExpiry = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Get the application-wide repository
+     *
+     * @return The repository instance
+     */
+    public static FoodItemRepository getInstance() {
+        return instance;
+    }
+
+    /**
+     * Add an item, replacing any item with the same id. Items without an id
+     * are given a new one.
+     *
+     * @param item The item to add
+     */
+    public void add(FoodItem item) {
+        lock.writeLock().lock();
+        try {
+            if (item.getId() == null) {
+                item.setId(UUID.randomUUID());
+            }
+            FoodItem previous = items.get(item.getId());
+            if (previous == item) {
+                return;
+            }
+            if (previous != null) {
+                unindex(previous);
+            }
+            index(item);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Add several items under one lock acquisition
+     *
+     * @param newItems The items to add
+     */
+    public void addAll(Collection<FoodItem> newItems) {
+        lock.writeLock().lock();
+        try {
+            for (FoodItem item : newItems) {
+                add(item);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remove an item
+     *
+     * @param item The item to remove
+     * @return true if the item was in the repository
+     */
+    public boolean remove(FoodItem item) {
+        lock.writeLock().lock();
+        try {
+            if (item.getId() == null || items.get(item.getId()) != item) {
+                return false;
+            }
+            unindex(item);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Apply a change to an item's fields, moving it between index buckets
+     * if it is in the repository. Called by FoodItem's setters for indexed
+     * fields, so concurrent lookups never see a half-applied change. Items
+     * that are not in the repository, such as rows being mapped or form
+     * items, are changed without taking the lock; an item is only added once
+     * it is built, so it cannot become indexed while its own setter runs.
+     *
+     * @param item The item being changed
+     * @param change Assigns the new field values
+     */
+    void update(FoodItem item, Runnable change) {
+        if (item.getId() == null || items.get(item.getId()) != item) {
+            change.run();
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            boolean indexed = item.getId() != null && items.get(item.getId()) == item;
+            if (indexed) {
+                unindex(item);
+            }
+            change.run();
+            if (indexed) {
+                index(item);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void index(FoodItem item) {
+        items.put(item.getId(), item);
+        if (item.getCategory() != null) {
+            byCategory.computeIfAbsent(item.getCategory(), c -> new LinkedHashSet<>()).add(item);
+        }
+        if (item.getStatus() != null) {
+            byStatus.computeIfAbsent(item.getStatus(), s -> new LinkedHashSet<>()).add(item);
+        }
+        if (item.getOwner() != null) {
+            byOwner.computeIfAbsent(item.getOwner(), u -> new LinkedHashSet<>()).add(item);
+        }
+        ExpiryKey key = expiryKey(item);
+        if (key != null) {
+            byExpiry.put(key, item);
+            if (item.getOwner() != null) {
+                byOwnerExpiry.computeIfAbsent(item.getOwner(), u -> new TreeMap<>(EXPIRY_ORDER)).put(key, item);
+            }
+        }
+    }
+
+    private void unindex(FoodItem item) {
+        items.remove(item.getId(), item);
+        removeFrom(byCategory, item.getCategory(), item);
+        removeFrom(byStatus, item.getStatus(), item);
+        removeFrom(byOwner, item.getOwner(), item);
+        ExpiryKey key = expiryKey(item);
+        if (key != null) {
+            byExpiry.remove(key);
+            NavigableMap<ExpiryKey, FoodItem> ownerExpiry = item.getOwner() != null ? byOwnerExpiry.get(item.getOwner()) : null;
+            if (ownerExpiry != null && ownerExpiry.remove(key) != null && ownerExpiry.isEmpty()) {
+                byOwnerExpiry.remove(item.getOwner());
+            }
+        }
+    }
+
+    private static ExpiryKey expiryKey(FoodItem item) {
+        Long expiry = Timestamps.toEpochMillis(item.getExpiryDate());
+        return expiry != null ? new ExpiryKey(expiry, item.getId()) : null;
+    }
+
+    private static <K> void removeFrom(Map<K, Set<FoodItem>> index, K key, FoodItem item) {
+        if (key == null) {
+            return;
+        }
+        Set<FoodItem> bucket = index.get(key);
+        if (bucket != null && bucket.remove(item) && bucket.isEmpty()) {
+            index.remove(key);
+        }
+    }
+
+    /**
+     * Get an item by id
+     *
+     * @param id The item's UUID
+     * @return The item, or null if there is none
+     */
+    public FoodItem get(UUID id) {
+        return id != null ? items.get(id) : null;
+    }
+
+    /**
+     * Find items by category
+     *
+     * @param category The category to search for
+     * @return The matching items, in insertion order
+     */
+    public List<FoodItem> findByCategory(FoodCategory category) {
+        return snapshot(byCategory, category);
+    }
+
+    /**
+     * Find items by status
+     *
+     * @param status The status to search for
+     * @return The matching items, in insertion order
+     */
+    public List<FoodItem> findByStatus(ItemStatus status) {
+        return snapshot(byStatus, status);
+    }
+
+    /**
+     * Find items by owner
+     *
+     * @param owner The owning user
+     * @return The matching items, in insertion order
+     */
+    public List<FoodItem> findByOwner(User owner) {
+        return snapshot(byOwner, owner);
+    }
+
+    private <K> List<FoodItem> snapshot(Map<K, Set<FoodItem>> index, K key) {
+        lock.readLock().lock();
+        try {
+            Set<FoodItem> bucket = index.get(key);
+            return bucket != null ? new ArrayList<>(bucket) : new ArrayList<>();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Find items expiring in [from, to), earliest first
+     *
+     * @param from Start of the window, inclusive
+     * @param to End of the window, exclusive
+     * @return The matching items
+     */
+    public List<FoodItem> findExpiringBetween(LocalDateTime from, LocalDateTime to) {
+        lock.readLock().lock();
+        try {
+            return range(byExpiry, from, to);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Find one owner's items expiring in [from, to), earliest first
+     *
+     * @param owner The owning user
+     * @param from Start of the window, inclusive
+     * @param to End of the window, exclusive
+     * @return The matching items
+     */
+    public List<FoodItem> findExpiringBetween(User owner, LocalDateTime from, LocalDateTime to) {
+        lock.readLock().lock();
+        try {
+            NavigableMap<ExpiryKey, FoodItem> ownerExpiry = byOwnerExpiry.get(owner);
+            return ownerExpiry != null ? range(ownerExpiry, from, to) : new ArrayList<>();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static List<FoodItem> range(NavigableMap<ExpiryKey, FoodItem> index, LocalDateTime from, LocalDateTime to) {
+        ExpiryKey fromKey = new ExpiryKey(Timestamps.toEpochMillis(from), MIN_ID);
+        ExpiryKey toKey = new ExpiryKey(Timestamps.toEpochMillis(to), MIN_ID);
+        if (EXPIRY_ORDER.compare(fromKey, toKey) >= 0) {
+            return new ArrayList<>();
+        }
+        return new ArrayList<>(index.subMap(fromKey, true, toKey, false).values());
+    }
+
+    /**
+     * Get every item
+     *
+     * @return A copy of all items
+     */
+    public List<FoodItem> getAll() {
+        return new ArrayList<>(items.values());
+    }
+
+    public int size() {
+        return items.size();
+    }
+
+    /**
+     * Remove every item
+     */
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            items.clear();
+            byCategory.clear();
+            byStatus.clear();
+            byOwner.clear();
+            byExpiry.clear();
+            byOwnerExpiry.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+}
@@ -1,8 +1,11 @@
 package com.greencompost.main;
 import com.greencompost.controller.FoodItem;
+import com.greencompost.model.AsyncDatabaseManager;
+import com.greencompost.model.CatalogSnapshot;
 import com.greencompost.model.DatabaseManager;
 import com.greencompost.service.LocalService;
 import com.greencompost.service.OperatingHours;
+import com.greencompost.service.ServiceRegistry;
 import com.greencompost.User;
 
 import javafx.application.Application;
@@ -15,6 +18,7 @@ import java.net.URL;
 import java.time.DayOfWeek;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.util.List;
 import java.util.Scanner;
 
 /**
@@ -29,18 +33,42 @@ public class Main extends Application {
 
     @Override
     public void start(Stage primaryStage) throws Exception {
+        long startNanos = System.nanoTime();
+        
         // Initialize components
         foodItemController = new FoodItem();
         
-        // Initialize SQLite database
-        DatabaseManager dbManager = DatabaseManager.getInstance();
-        
-        // Initialize only service data for demo purposes, but don't create users
-        // This will allow the login controller to handle user creation and authentication
-        initializeSampleServices();
-        
-        // Initialize database with sample data
-        dbManager.initializeSampleData();
+        // Warm start: restore last session's catalog from the memory-mapped
+        // snapshot so services are available before the database load finishes
+        int restored = CatalogSnapshot.restore(CatalogSnapshot.defaultPath()).size();
+        boolean warm = restored > 0;
+        if (!warm) {
+            // Initialize only service data for demo purposes, but don't create users
+            // This will allow the login controller to handle user creation and authentication
+            initializeSampleServices();
+        }
+        long catalogMillis = (System.nanoTime() - startNanos) / 1_000_000;
+        System.out.println("Service catalog ready in " + catalogMillis + " ms ("
+                + (warm ? "warm, " + restored + " services from snapshot" : "cold") + ")");
+        
+        // Open the SQLite database and apply migrations
+        DatabaseManager.getInstance();
+        
+        // Write sample data, then load the catalog from the database and
+        // register it over the snapshot's services, all in the background
+        AsyncDatabaseManager asyncDb = AsyncDatabaseManager.getInstance();
+        asyncDb.supply(db -> {
+            db.initializeSampleData();
+            return null;
+        }).thenCompose(ignored -> asyncDb.refreshServiceRegistry()).whenComplete((services, error) -> {
+            if (error != null) {
+                System.err.println("Error loading service catalog: " + error.getMessage());
+                return;
+            }
+            System.out.println("Service catalog loaded from database in "
+                    + (System.nanoTime() - startNanos) / 1_000_000 + " ms (" + services.size() + " services, "
+                    + (warm ? "warm" : "cold") + " start)");
+        });
         
         // Load the login FXML file first
         URL loginViewURL = null;
@@ -121,8 +149,18 @@ public class Main extends Application {
     
     @Override
     public void stop() {
-        // Close database connection when application exits
-        DatabaseManager.getInstance().closeConnection();
+        // Save the catalog for a warm start next time
+        try {
+            CatalogSnapshot.write(CatalogSnapshot.defaultPath(), ServiceRegistry.getInstance().getAll());
+        } catch (IOException e) {
+            System.err.println("Error writing catalog snapshot: " + e.getMessage());
+        }
+        
+        // Stop async queries, write out anything still queued, then close the database
+        AsyncDatabaseManager.getInstance().close();
+        DatabaseManager dbManager = DatabaseManager.getInstance();
+        dbManager.getWriteBehindQueue().close();
+        dbManager.closeConnection();
         // Close the scanner resource
         scanner.close();
     }
@@ -714,5 +752,14 @@ public class Main extends Application {
         sfRestaurantHours.addHours(DayOfWeek.SATURDAY, LocalTime.of(17, 0), LocalTime.of(23, 0));
         sfRestaurantHours.addHours(DayOfWeek.SUNDAY, LocalTime.of(11, 0), LocalTime.of(15, 0));
         sfRestaurant.setHours(sfRestaurantHours);
+
+        ServiceRegistry.getInstance().registerAll(List.of(
+            foodBank, compost, garden, restaurant,
+            dublinFoodBank, dublinFridge, dublinFarm, dublinSoupKitchen,
+            galwayPantry, galwayCompost, galwayRestaurant,
+            limerickDonation, limerickGarden,
+            belfastFoodBank, belfastFridge,
+            sfFoodBank, sfGarden, sfDonationCenter, sfFarm, sfFridge, sfRestaurant
+        ));
     }
 }
\ No newline at end of file
@@ -0,0 +1,229 @@
+package com.greencompost.model;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.WeakHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import com.greencompost.User;
+import com.greencompost.controller.FoodItem;
+import com.greencompost.service.LocalService;
+import com.greencompost.service.ScheduledEvent;
+import com.greencompost.service.ServiceRegistry;
+
+import javafx.application.Platform;
+
+/**
+ * Asynchronous facade over DatabaseManager for the UI. Every call runs on
+ * its own virtual thread and returns a CompletableFuture, so controllers
+ * never block the JavaFX application thread on disk I/O. Use
+ * {@link #onFxThread} to handle results back on the FX thread.
+ *
+ * Cancel calls with {@link #cancel}: it interrupts the worker thread, so
+ * streamed queries stop at the next row, and skips the FX callbacks.
+ */
+public class AsyncDatabaseManager implements AutoCloseable {
+    private static AsyncDatabaseManager instance;
+    // Futures passed to cancel() after they completed; weak so a callback
+    // that already ran does not pin its future
+    private static final Set<CompletableFuture<?>> discarded =
+            Collections.synchronizedSet(Collections.newSetFromMap(new WeakHashMap<>()));
+    private final DatabaseManager database;
+    private final ExecutorService executor;
+
+    private AsyncDatabaseManager(DatabaseManager database) {
+        this.database = database;
+        this.executor = Executors.newVirtualThreadPerTaskExecutor();
+    }
+
+    public static synchronized AsyncDatabaseManager getInstance() {
+        if (instance == null) {
+            instance = new AsyncDatabaseManager(DatabaseManager.getInstance());
+        }
+        return instance;
+    }
+
+    /**
+     * Run any DatabaseManager call on a virtual thread
+     *
+     * @param query The work to run against the database
+     * @return A future for the result; cancelling it interrupts the query
+     */
+    public <T> CompletableFuture<T> supply(Function<DatabaseManager, T> query) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Future<?> task = executor.submit(() -> {
+            try {
+                result.complete(query.apply(database));
+            } catch (Throwable t) {
+                result.completeExceptionally(t);
+            }
+        });
+        result.whenComplete((value, error) -> {
+            if (result.isCancelled()) {
+                task.cancel(true);
+            }
+        });
+        return result;
+    }
+
+    // User operations
+    public CompletableFuture<User> findUserByUsername(String username) {
+        return supply(db -> User.findByUsername(username));
+    }
+
+    public CompletableFuture<User> getUserByEmail(String email) {
+        return supply(db -> db.getUserByEmail(email));
+    }
+
+    public CompletableFuture<Boolean> updateUserPassword(String username, String password) {
+        return supply(db -> db.updateUserPassword(username, password));
+    }
+
+    // Food item operations
+    public CompletableFuture<List<FoodItem>> getFoodItemsByUser(User user) {
+        return supply(db -> db.getFoodItemsByUser(user));
+    }
+
+    public CompletableFuture<List<FoodItem>> getAllFoodItems() {
+        return supply(DatabaseManager::getAllFoodItems);
+    }
+
+    // Aggregates and searches read what is stored. Writes still in the
+    // write-behind queue show up after its next flush; a screen that reads
+    // back what it just saved calls flushWrites first.
+    public CompletableFuture<FoodItemStats> getFoodItemStats(User user) {
+        return supply(db -> db.getFoodItemStats(user));
+    }
+
+    public CompletableFuture<Integer> getFoodItemCount(User user) {
+        return supply(db -> db.getFoodItemCount(user));
+    }
+
+    public CompletableFuture<Integer> countItemsExpiringBetween(User user, LocalDateTime from, LocalDateTime to) {
+        return supply(db -> db.countItemsExpiringBetween(user, from, to));
+    }
+
+    public CompletableFuture<List<UUID>> searchFoodItemIds(User user, String text, int limit) {
+        return supply(db -> db.searchFoodItemIds(user, text, limit));
+    }
+
+    /**
+     * Write the changes waiting in the write-behind queue now, for reads
+     * that must see a save made moments ago
+     *
+     * @return A future that completes once the queued changes are written
+     */
+    public CompletableFuture<Void> flushWrites() {
+        return supply(db -> {
+            db.getWriteBehindQueue().flush();
+            return null;
+        });
+    }
+
+    // Local service operations
+    public CompletableFuture<List<LocalService>> getAllLocalServices() {
+        return supply(DatabaseManager::getAllLocalServices);
+    }
+
+    /**
+     * Load the service catalog from the database and register it. Loaded
+     * services replace registered ones with the same name, such as those
+     * restored from the catalog snapshot.
+     */
+    public CompletableFuture<List<LocalService>> refreshServiceRegistry() {
+        return supply(db -> {
+            List<LocalService> services = db.getAllLocalServices();
+            ServiceRegistry.getInstance().registerAll(services);
+            return services;
+        });
+    }
+
+    public CompletableFuture<List<String>> searchServiceNames(String text, int limit) {
+        return supply(db -> db.searchServiceNames(text, limit));
+    }
+
+    // Event operations
+    public CompletableFuture<List<ScheduledEvent>> getAllEvents() {
+        return supply(DatabaseManager::getAllEvents);
+    }
+
+    public CompletableFuture<List<ScheduledEvent>> findEventsForService(LocalService service, LocalDateTime from, LocalDateTime to) {
+        return supply(db -> db.findEventsForService(service, from, to));
+    }
+
+    /**
+     * Handle a future's outcome on the JavaFX application thread. Neither
+     * callback runs if the future is passed to {@link #cancel} before the
+     * callback gets its turn on the FX thread, even if the result had
+     * already arrived.
+     *
+     * @param future The pending database call
+     * @param onSuccess Receives the result on the FX thread
+     * @param onError Receives the failure cause on the FX thread
+     */
+    public static <T> void onFxThread(CompletableFuture<T> future, Consumer<? super T> onSuccess,
+                                      Consumer<Throwable> onError) {
+        onThread(future, onSuccess, onError, Platform::runLater);
+    }
+
+    /**
+     * onFxThread with the FX thread replaced by the given executor
+     */
+    static <T> void onThread(CompletableFuture<T> future, Consumer<? super T> onSuccess,
+                             Consumer<Throwable> onError, Executor fxThread) {
+        future.whenComplete((value, error) -> {
+            if (future.isCancelled()) {
+                return;
+            }
+            fxThread.execute(() -> {
+                // Checked again here: the caller may have cancelled after
+                // the result arrived but before this callback ran
+                if (future.isCancelled() || discarded.remove(future)) {
+                    return;
+                }
+                if (error == null) {
+                    onSuccess.accept(value);
+                } else {
+                    onError.accept(unwrap(error));
+                }
+            });
+        });
+    }
+
+    /**
+     * Cancel a call and drop its FX callbacks. A call that already finished
+     * cannot be cancelled, so it is marked as discarded instead.
+     *
+     * @param future The future to cancel, may be null
+     */
+    public static void cancel(CompletableFuture<?> future) {
+        if (future != null && !future.cancel(true)) {
+            discarded.add(future);
+        }
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        if (error instanceof CompletionException && error.getCause() != null) {
+            return error.getCause();
+        }
+        return error;
+    }
+
+    /**
+     * Stop accepting work. Calls already running finish normally.
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,244 @@
+package com.greencompost.model;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import com.greencompost.service.LocalService;
+import com.greencompost.service.LocalService.ServiceType;
+import com.greencompost.service.OperatingHours;
+import com.greencompost.service.ServiceRegistry;
+
+/**
+ * Compact binary snapshot of the service catalog, written at shutdown and
+ * memory-mapped at the next launch so services can be shown before the
+ * SQLite load has finished. The snapshot is only a cache: a missing,
+ * outdated or corrupt file is ignored and the catalog comes from the
+ * database as usual.
+ */
+public final class CatalogSnapshot {
+    private static final int MAGIC = 0x47435331; // "GCS1"
+    private static final int FORMAT_VERSION = 1;
+    private static final String DEFAULT_PATH = "greencompost-catalog.snap";
+
+    private CatalogSnapshot() {
+    }
+
+    /**
+     * Get the snapshot location, overridable with the
+     * greencompost.snapshot system property
+     *
+     * @return The snapshot file path
+     */
+    public static Path defaultPath() {
+        return Path.of(System.getProperty("greencompost.snapshot", DEFAULT_PATH));
+    }
+
+    /**
+     * Write the services to a snapshot file, replacing any previous one atomically
+     *
+     * @param path The snapshot file
+     * @param services The catalog to save
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(Path path, Collection<LocalService> services) throws IOException {
+        List<LocalService> catalog = new ArrayList<>(services);
+        Path absolute = path.toAbsolutePath();
+        Path temp = Files.createTempFile(absolute.getParent(), "catalog", ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                out.writeInt(catalog.size());
+                for (LocalService service : catalog) {
+                    writeService(out, service);
+                }
+            }
+            Files.move(temp, absolute, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static void writeService(DataOutputStream out, LocalService service) throws IOException {
+        writeString(out, service.getName());
+        writeString(out, service.getDescription());
+        writeString(out, service.getAddress());
+        writeString(out, service.getContactInfo());
+        writeString(out, service.getCity());
+        writeString(out, service.getType().name());
+        out.writeDouble(service.getLatitude());
+        out.writeDouble(service.getLongitude());
+        out.writeBoolean(service.isPickupAvailable());
+        out.writeDouble(service.getPickupRadius());
+        out.writeBoolean(service.acceptsFoodDonations());
+
+        // Bit per open day, then open and close seconds for each open day
+        OperatingHours hours = service.getHours();
+        int openDays = 0;
+        for (int day = 0; day < 7; day++) {
+            if (hours != null && hours.getTimeSlotForDay(day) != null) {
+                openDays |= 1 << day;
+            }
+        }
+        out.writeByte(openDays);
+        for (int day = 0; day < 7; day++) {
+            if ((openDays & (1 << day)) != 0) {
+                OperatingHours.TimeSlot slot = hours.getTimeSlotForDay(day);
+                out.writeInt(slot.getOpenTime().toSecondOfDay());
+                out.writeInt(slot.getCloseTime().toSecondOfDay());
+            }
+        }
+
+        writeStrings(out, service.getAcceptedItems());
+        writeStrings(out, service.getNonAcceptedItems());
+        writeStrings(out, service.getDonationGuidelines());
+    }
+
+    private static void writeStrings(DataOutputStream out, List<String> values) throws IOException {
+        out.writeInt(values.size());
+        for (String value : values) {
+            writeString(out, value);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * Memory-map a snapshot, rebuild its services and register them with
+     * the ServiceRegistry.
+     *
+     * @param path The snapshot file
+     * @return The restored services, or an empty list if there is no usable snapshot
+     */
+    public static List<LocalService> restore(Path path) {
+        if (!Files.isRegularFile(path)) {
+            return new ArrayList<>();
+        }
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt() != MAGIC || buffer.getInt() != FORMAT_VERSION) {
+                System.err.println("Ignoring catalog snapshot with unknown format: " + path);
+                return new ArrayList<>();
+            }
+            int count = buffer.getInt();
+            // Every service takes more than one byte, so a larger count is
+            // corrupt; checked before it sizes any list
+            if (count < 0 || count > buffer.remaining()) {
+                throw new IOException("Catalog snapshot has an invalid service count: " + count);
+            }
+
+            // Decode everything before creating services, so a corrupt file
+            // does not leave a partial catalog in the registry
+            List<Runnable> builders = new ArrayList<>(count);
+            List<LocalService> services = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                builders.add(readService(buffer, services));
+            }
+            builders.forEach(Runnable::run);
+            ServiceRegistry.getInstance().registerAll(services);
+            return services;
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Error restoring catalog snapshot: " + e.getMessage());
+            return new ArrayList<>();
+        }
+    }
+
+    private static Runnable readService(ByteBuffer buffer, List<LocalService> services) {
+        String name = readString(buffer);
+        String description = readString(buffer);
+        String address = readString(buffer);
+        String contactInfo = readString(buffer);
+        String city = readString(buffer);
+        ServiceType type = ServiceType.valueOf(readString(buffer));
+        double latitude = buffer.getDouble();
+        double longitude = buffer.getDouble();
+        boolean pickupAvailable = buffer.get() != 0;
+        double pickupRadius = buffer.getDouble();
+        boolean acceptsFoodDonations = buffer.get() != 0;
+
+        OperatingHours hours = new OperatingHours();
+        int openDays = buffer.get();
+        for (int day = 0; day < 7; day++) {
+            if ((openDays & (1 << day)) != 0) {
+                LocalTime open = LocalTime.ofSecondOfDay(buffer.getInt());
+                LocalTime close = LocalTime.ofSecondOfDay(buffer.getInt());
+                hours.setTimeSlotForDay(day, new OperatingHours.TimeSlot(open, close));
+            }
+        }
+
+        List<String> accepted = readStrings(buffer);
+        List<String> nonAccepted = readStrings(buffer);
+        List<String> guidelines = readStrings(buffer);
+
+        return () -> {
+            LocalService service = new LocalService();
+            service.setName(name);
+            service.setDescription(description);
+            if (address != null) {
+                service.setAddress(address);
+            }
+            if (contactInfo != null) {
+                service.setContactInfo(contactInfo);
+            }
+            service.setCity(city);
+            service.setType(type);
+            service.setLatitude(latitude);
+            service.setLongitude(longitude);
+            service.setPickupAvailable(pickupAvailable);
+            service.setPickupRadius(pickupRadius);
+            service.setAcceptsFoodDonations(acceptsFoodDonations);
+            service.setHours(hours);
+            accepted.forEach(service::addAcceptedItem);
+            nonAccepted.forEach(service::addNonAcceptedItem);
+            guidelines.forEach(service::addDonationGuideline);
+            services.add(service);
+        };
+    }
+
+    private static List<String> readStrings(ByteBuffer buffer) {
+        int count = buffer.getInt();
+        if (count < 0 || count > buffer.remaining()) {
+            throw new IllegalStateException("Truncated catalog snapshot");
+        }
+        List<String> values = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            values.add(readString(buffer));
+        }
+        return values;
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        if (length > buffer.remaining()) {
+            throw new IllegalStateException("Truncated catalog snapshot");
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
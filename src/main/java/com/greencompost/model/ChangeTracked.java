@@ -0,0 +1,31 @@
+package com.greencompost.model;
+
+/**
+ * A domain object that records which of its persisted fields changed since
+ * it was last loaded or saved. The dirty set is a bitmask of the
+ * implementing class's FIELD_ constants; DatabaseManager.flushChanges writes
+ * just those columns and then clears it.
+ */
+public interface ChangeTracked {
+
+    /**
+     * Get the fields changed since the last load or save
+     *
+     * @return Bitmask of FIELD_ constants, 0 if nothing changed
+     */
+    int getDirtyFields();
+
+    /**
+     * Mark every field as clean, after a load or a successful write
+     */
+    void clearDirtyFields();
+
+    /**
+     * Check whether any persisted field changed
+     *
+     * @return true if there are unsaved changes
+     */
+    default boolean isDirty() {
+        return getDirtyFields() != 0;
+    }
+}
@@ -0,0 +1,351 @@
+package com.greencompost.model;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Small SQLite connection pool with one writer connection and a fixed set of
+ * reader connections. All connections run in WAL journal mode so readers are
+ * never blocked by the writer. Each connection keeps its own prepared
+ * statement cache, reachable through {@link Lease#prepare(String)}.
+ */
+public class ConnectionPool implements AutoCloseable {
+    private static final int BUSY_TIMEOUT_MS = 5000;
+    private static final long READER_WAIT_MS = 10_000;
+    private static final int STATEMENT_CACHE_SIZE = 64;
+
+    private final Connection writer;
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final BlockingQueue<Connection> idleReaders;
+    private final List<Connection> allReaders = new ArrayList<>();
+    private final ThreadLocal<Lease> currentReader = new ThreadLocal<>();
+    private final Map<Connection, StatementCache> statementCaches = new IdentityHashMap<>();
+    // Guarded by writeLock
+    private final List<Runnable> commitActions = new ArrayList<>();
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder cacheMisses = new LongAdder();
+    private volatile boolean closed;
+
+    /**
+     * Open the writer and reader connections
+     *
+     * @param url The JDBC URL of the database
+     * @param readerCount Number of reader connections to keep open
+     * @throws SQLException if any connection cannot be opened
+     */
+    public ConnectionPool(String url, int readerCount) throws SQLException {
+        this.writer = DriverManager.getConnection(url);
+        configure(writer, false);
+        writer.setAutoCommit(true);
+        statementCaches.put(writer, newStatementCache(writer));
+
+        this.idleReaders = new ArrayBlockingQueue<>(Math.max(1, readerCount));
+        for (int i = 0; i < readerCount; i++) {
+            Connection reader = DriverManager.getConnection(url);
+            configure(reader, true);
+            statementCaches.put(reader, newStatementCache(reader));
+            allReaders.add(reader);
+            idleReaders.add(reader);
+        }
+    }
+
+    private StatementCache newStatementCache(Connection conn) {
+        return new StatementCache(conn, STATEMENT_CACHE_SIZE, cacheHits, cacheMisses);
+    }
+
+    private void configure(Connection conn, boolean readOnly) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("PRAGMA journal_mode = WAL");
+            // NORMAL is durable across application crashes in WAL mode and
+            // avoids an fsync on every commit
+            stmt.execute("PRAGMA synchronous = NORMAL");
+            stmt.execute("PRAGMA busy_timeout = " + BUSY_TIMEOUT_MS);
+            if (readOnly) {
+                stmt.execute("PRAGMA query_only = 1");
+            }
+        }
+    }
+
+    /**
+     * Get the writer connection without taking the write lock.
+     * Callers are responsible for their own serialization.
+     *
+     * @return The writer connection
+     */
+    public Connection getWriterConnection() {
+        return writer;
+    }
+
+    /**
+     * Acquire exclusive use of the writer connection. The lock is reentrant,
+     * so a write method may call other write methods while holding it.
+     *
+     * @return A lease that releases the write lock when closed
+     */
+    public Lease writer() {
+        writeLock.lock();
+        return new Lease(writer, statementCaches.get(writer), writeLock::unlock);
+    }
+
+    /**
+     * Check whether the calling thread holds the writer inside an open
+     * transaction, i.e. a failed write should be left to the transaction's
+     * owner to roll back
+     *
+     * @return true if this thread holds the write lock with auto-commit off
+     */
+    public boolean writerInTransaction() {
+        if (!writeLock.isHeldByCurrentThread()) {
+            return false;
+        }
+        try {
+            return !writer.getAutoCommit();
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Run an action once the writer's open transaction commits, e.g. marking
+     * the written entities clean, or right away if the writer is not in a
+     * transaction. Call while holding the write lock.
+     *
+     * @param action The action to run after the commit
+     */
+    public void afterCommit(Runnable action) {
+        if (writerInTransaction()) {
+            commitActions.add(action);
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * Get a mark for the after-commit actions registered so far, to pass to
+     * {@link #discardCommitActions(int)} when rolling back to a savepoint
+     *
+     * @return The mark
+     */
+    public int commitActionMark() {
+        return commitActions.size();
+    }
+
+    /**
+     * Drop the after-commit actions registered since the mark, because the
+     * writes they belong to were rolled back
+     *
+     * @param mark A mark from {@link #commitActionMark()}, 0 for the whole transaction
+     */
+    public void discardCommitActions(int mark) {
+        commitActions.subList(mark, commitActions.size()).clear();
+    }
+
+    /**
+     * Run and clear the after-commit actions. Call right after the writer's
+     * transaction committed.
+     */
+    public void runCommitActions() {
+        List<Runnable> actions = new ArrayList<>(commitActions);
+        commitActions.clear();
+        actions.forEach(Runnable::run);
+    }
+
+    /**
+     * Acquire a reader connection. If the calling thread already holds the
+     * writer it reads through the writer so it sees its own uncommitted rows,
+     * and nested reads on one thread share a single reader connection.
+     *
+     * @return A lease that returns the reader to the pool when closed
+     * @throws SQLException if the pool is closed or no reader becomes free in time
+     */
+    public Lease reader() throws SQLException {
+        if (writeLock.isHeldByCurrentThread() || allReaders.isEmpty()) {
+            return writer();
+        }
+
+        Lease held = currentReader.get();
+        if (held != null) {
+            held.depth++;
+            return held;
+        }
+
+        Connection conn = takeIdleReader();
+        Lease lease = new Lease(conn, statementCaches.get(conn), () -> {
+            currentReader.remove();
+            idleReaders.offer(conn);
+        });
+        currentReader.set(lease);
+        return lease;
+    }
+
+    /**
+     * Acquire a reader connection that is not tied to the calling thread.
+     * Used for long-lived cursors; the lease is never shared with nested
+     * reads. Open and close it on the same thread if the pool has no readers,
+     * since the lease then falls back to the writer lock.
+     *
+     * @return A lease that returns the reader to the pool when closed
+     * @throws SQLException if the pool is closed or no reader becomes free in time
+     */
+    public Lease detachedReader() throws SQLException {
+        if (allReaders.isEmpty()) {
+            return writer();
+        }
+        Connection conn = takeIdleReader();
+        return new Lease(conn, statementCaches.get(conn), () -> idleReaders.offer(conn));
+    }
+
+    private Connection takeIdleReader() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool is closed");
+        }
+
+        Connection conn;
+        try {
+            conn = idleReaders.poll(READER_WAIT_MS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted waiting for a reader connection", e);
+        }
+        if (conn == null) {
+            throw new SQLException("Timed out waiting for a reader connection");
+        }
+        return conn;
+    }
+
+    /**
+     * Get the number of reader connections in the pool
+     *
+     * @return The reader count
+     */
+    public int getReaderCount() {
+        return allReaders.size();
+    }
+
+    /**
+     * Get the number of prepared statement cache hits across all connections
+     *
+     * @return The hit count
+     */
+    public long getStatementCacheHits() {
+        return cacheHits.sum();
+    }
+
+    /**
+     * Get the number of prepared statement cache misses across all connections
+     *
+     * @return The miss count
+     */
+    public long getStatementCacheMisses() {
+        return cacheMisses.sum();
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        writeLock.lock();
+        try {
+            statementCaches.get(writer).close();
+            if (!writer.isClosed()) {
+                writer.close();
+            }
+        } catch (SQLException e) {
+            System.err.println("Error closing writer connection: " + e.getMessage());
+        } finally {
+            writeLock.unlock();
+        }
+
+        for (Connection reader : allReaders) {
+            statementCaches.get(reader).close();
+            try {
+                if (!reader.isClosed()) {
+                    reader.close();
+                }
+            } catch (SQLException e) {
+                System.err.println("Error closing reader connection: " + e.getMessage());
+            }
+        }
+        idleReaders.clear();
+    }
+
+    /**
+     * A borrowed connection. Closing the lease returns the connection to the
+     * pool; it never closes the underlying connection.
+     */
+    public static final class Lease implements AutoCloseable {
+        private final Connection connection;
+        private final StatementCache statements;
+        private final Runnable onRelease;
+        private int depth = 1;
+
+        private Lease(Connection connection, StatementCache statements, Runnable onRelease) {
+            this.connection = connection;
+            this.statements = statements;
+            this.onRelease = onRelease;
+        }
+
+        public Connection connection() {
+            return connection;
+        }
+
+        /**
+         * Get a cached prepared statement for this connection. The statement
+         * is owned by the cache and must not be closed by the caller.
+         *
+         * @param sql The SQL text
+         * @return The prepared statement
+         * @throws SQLException if the statement cannot be prepared
+         */
+        public PreparedStatement prepare(String sql) throws SQLException {
+            return statements.prepare(sql);
+        }
+
+        /**
+         * Get a cached prepared statement that returns generated keys
+         *
+         * @param sql The SQL text
+         * @return The prepared statement
+         * @throws SQLException if the statement cannot be prepared
+         */
+        public PreparedStatement prepareReturningKeys(String sql) throws SQLException {
+            return statements.prepareReturningKeys(sql);
+        }
+
+        /**
+         * Run a query through a cached prepared statement. Close the returned
+         * result set when done; the statement itself stays cached.
+         *
+         * @param sql The SQL text
+         * @param params Values bound to the statement's parameters in order
+         * @return The open result set
+         * @throws SQLException if the query fails
+         */
+        public ResultSet query(String sql, Object... params) throws SQLException {
+            PreparedStatement pstmt = statements.prepare(sql);
+            for (int i = 0; i < params.length; i++) {
+                pstmt.setObject(i + 1, params[i]);
+            }
+            return pstmt.executeQuery();
+        }
+
+        @Override
+        public void close() {
+            if (--depth == 0) {
+                onRelease.run();
+            }
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package com.greencompost.model;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.sqlite.SQLiteConnection;
+import org.sqlite.core.DB;
+
+/**
+ * Background maintenance for a file database: passive WAL checkpoints,
+ * PRAGMA optimize and online backups, each on its own timer. All work runs
+ * on one daemon thread over a dedicated connection, never through the
+ * pool's writer, so application writes are not queued behind it.
+ *
+ * Backups use SQLite's online backup API in a single step, which copies
+ * every page inside one read transaction. In WAL mode that read does not
+ * block writers, and since there is no next step a concurrent write cannot
+ * make SQLite restart the copy.
+ */
+public class DatabaseMaintenance implements AutoCloseable {
+    private static final int BUSY_TIMEOUT_MS = 50;
+    // Copy all pages in one step
+    private static final int BACKUP_ALL_PAGES = -1;
+    private static final int BACKUP_BUSY_PAUSE_MS = 5;
+    private static final int BACKUP_BUSY_RETRIES = 20;
+    private static final int SQLITE_BUSY = 5;
+    private static final int SQLITE_LOCKED = 6;
+    // Rows sampled per index by ANALYZE, so optimize finishes in milliseconds
+    private static final int ANALYSIS_LIMIT = 400;
+
+    private final String url;
+    private final Path backupPath;
+    private final ScheduledExecutorService scheduler;
+    private Connection connection;
+    private volatile long lastBackupMillis;
+    private boolean closed;
+
+    private DatabaseMaintenance(String url, Path backupPath) {
+        this.url = url;
+        this.backupPath = backupPath;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "db-maintenance");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+    }
+
+    /**
+     * Create the maintenance service and start its timers
+     *
+     * @param url The JDBC URL of the file database
+     * @param backupPath Where backups are written; each backup replaces the previous one
+     * @param checkpointIntervalMs How often to run a passive WAL checkpoint
+     * @param optimizeIntervalMs How often to refresh query planner statistics
+     * @param backupIntervalMs How often to back up the database
+     * @return The running service
+     */
+    public static DatabaseMaintenance start(String url, Path backupPath, long checkpointIntervalMs,
+                                            long optimizeIntervalMs, long backupIntervalMs) {
+        DatabaseMaintenance maintenance = new DatabaseMaintenance(url, backupPath);
+        ScheduledExecutorService scheduler = maintenance.scheduler;
+        scheduler.scheduleWithFixedDelay(maintenance::checkpoint, checkpointIntervalMs, checkpointIntervalMs,
+                TimeUnit.MILLISECONDS);
+        scheduler.scheduleWithFixedDelay(maintenance::optimize, optimizeIntervalMs, optimizeIntervalMs,
+                TimeUnit.MILLISECONDS);
+        scheduler.scheduleWithFixedDelay(maintenance::backup, backupIntervalMs, backupIntervalMs,
+                TimeUnit.MILLISECONDS);
+        return maintenance;
+    }
+
+    /**
+     * Get the backup location, overridable with the greencompost.backup
+     * system property
+     *
+     * @return The backup file path
+     */
+    public static Path defaultBackupPath() {
+        return Path.of(System.getProperty("greencompost.backup", "greencompost-backup.db"));
+    }
+
+    private synchronized Connection connection() throws SQLException {
+        if (connection == null || connection.isClosed()) {
+            connection = DriverManager.getConnection(url);
+            try (Statement stmt = connection.createStatement()) {
+                // Give up quickly instead of waiting on the application's writer
+                stmt.execute("PRAGMA busy_timeout = " + BUSY_TIMEOUT_MS);
+                stmt.execute("PRAGMA analysis_limit = " + ANALYSIS_LIMIT);
+            }
+        }
+        return connection;
+    }
+
+    /**
+     * Copy WAL frames into the database file without waiting for readers
+     * or writers. Frames still needed by an open reader stay in the WAL for
+     * a later checkpoint.
+     */
+    public synchronized void checkpoint() {
+        try (Statement stmt = connection().createStatement();
+             ResultSet rs = stmt.executeQuery("PRAGMA wal_checkpoint(PASSIVE)")) {
+            if (rs.next() && rs.getInt(1) != 0) {
+                System.err.println("WAL checkpoint skipped: database busy");
+            }
+        } catch (SQLException e) {
+            System.err.println("Error checkpointing database: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Refresh query planner statistics. PRAGMA optimize only looks at tables
+     * this connection has queried, and this one never queries application
+     * tables, so a sampled ANALYZE is run instead. The analysis limit keeps
+     * the write lock short.
+     */
+    public synchronized void optimize() {
+        try (Statement stmt = connection().createStatement()) {
+            stmt.execute("ANALYZE");
+        } catch (SQLException e) {
+            System.err.println("Error optimizing database: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Back up the database to the configured path
+     *
+     * @return true if the backup completed
+     */
+    public boolean backup() {
+        return backupTo(backupPath);
+    }
+
+    /**
+     * Copy the live database to a file with the online backup API. The copy
+     * is written next to the target and moved into place when complete, so
+     * the target is always either the previous or the new full backup. If
+     * the database stays locked through every retry the backup gives up and
+     * the previous backup is kept.
+     *
+     * @param target The backup file
+     * @return true if the backup completed
+     */
+    public synchronized boolean backupTo(Path target) {
+        Path absolute = target.toAbsolutePath();
+        Path temp = null;
+        try {
+            temp = Files.createTempFile(absolute.getParent(), "backup", ".tmp");
+            DB database = connection().unwrap(SQLiteConnection.class).getDatabase();
+            int result = database.backup("main", temp.toString(), null,
+                    BACKUP_BUSY_PAUSE_MS, BACKUP_BUSY_RETRIES, BACKUP_ALL_PAGES);
+            if (result == SQLITE_BUSY || result == SQLITE_LOCKED) {
+                System.err.println("Backup gave up: database still locked after " + BACKUP_BUSY_RETRIES + " retries");
+                return false;
+            }
+            if (result != 0) {
+                System.err.println("Backup did not complete, SQLite result code " + result);
+                return false;
+            }
+            Files.move(temp, absolute, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            lastBackupMillis = System.currentTimeMillis();
+            return true;
+        } catch (SQLException | IOException e) {
+            System.err.println("Error backing up database: " + e.getMessage());
+            return false;
+        } finally {
+            if (temp != null) {
+                try {
+                    Files.deleteIfExists(temp);
+                } catch (IOException e) {
+                    System.err.println("Error removing partial backup: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Get the time of the last completed backup
+     *
+     * @return Epoch milliseconds, or 0 if no backup has completed
+     */
+    public long getLastBackupMillis() {
+        return lastBackupMillis;
+    }
+
+    /**
+     * Stop the timers and run a final checkpoint. A task already running
+     * is allowed to finish.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        }
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        checkpoint();
+        synchronized (this) {
+            try {
+                if (connection != null) {
+                    connection.close();
+                }
+            } catch (SQLException e) {
+                System.err.println("Error closing maintenance connection: " + e.getMessage());
+            }
+        }
+    }
+}
@@ -3,23 +3,88 @@ package com.greencompost.model;
 import java.sql.*;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import com.greencompost.User;
+import com.greencompost.UserRegistry;
 import com.greencompost.controller.FoodItem;
 import com.greencompost.controller.FoodItem.FoodCategory;
 import com.greencompost.controller.FoodItem.ItemStatus;
 import com.greencompost.service.LocalService;
-import com.greencompost.service.LocalService.ServiceType;
 import com.greencompost.service.OperatingHours;
 import com.greencompost.service.ScheduledEvent;
+import com.greencompost.service.ServiceRegistry;
 
 public class DatabaseManager {
-    private static final String DB_URL = "jdbc:sqlite:greencompost.db";
+    private static final String DEFAULT_DB_URL = "jdbc:sqlite:greencompost.db";
+    /** A private in-memory database that disappears on close, for benchmarks and tests */
+    public static final String MEMORY_DB_URL = "jdbc:sqlite::memory:";
+    private static final int READER_CONNECTIONS = 4;
+    private static final long WRITE_BEHIND_INTERVAL_MS = 250;
+    private static final int WRITE_BEHIND_BATCH_ROWS = 500;
+    private static final long CHECKPOINT_INTERVAL_MS = 5 * 60 * 1000L;
+    private static final long OPTIMIZE_INTERVAL_MS = 60 * 60 * 1000L;
+    private static final long BACKUP_INTERVAL_MS = 6 * 60 * 60 * 1000L;
+    private static final int BATCH_SIZE = 1000;
+    private static final int USER_CACHE_SIZE = 1000;
+    // Upsert rather than REPLACE, so a user's row id (referenced by items
+    // and events) never changes; createdAt is kept from the first insert.
+    private static final String SAVE_USER_SQL = "INSERT INTO users (username, password, name, email, location, latitude, longitude, createdAt, remember_me) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?) " +
+            "ON CONFLICT(username) DO UPDATE SET password = excluded.password, name = excluded.name, email = excluded.email, " +
+            "location = excluded.location, latitude = excluded.latitude, longitude = excluded.longitude, remember_me = excluded.remember_me";
+    // Upsert keyed by the item's UUID. The WHERE clause skips the rewrite
+    // when nothing changed; createdAt is kept from the first insert.
+    private static final String SAVE_FOOD_ITEM_SQL = "INSERT INTO food_items (uuid, name, category, quantity, quantityUnit, expirationDate, status, userId, createdAt, description) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, (SELECT id FROM users WHERE username = ?), ?, ?) " +
+            "ON CONFLICT(uuid) DO UPDATE SET name = excluded.name, category = excluded.category, quantity = excluded.quantity, " +
+            "quantityUnit = excluded.quantityUnit, expirationDate = excluded.expirationDate, status = excluded.status, " +
+            "userId = excluded.userId, description = excluded.description " +
+            "WHERE food_items.name IS NOT excluded.name OR food_items.category IS NOT excluded.category " +
+            "OR food_items.quantity IS NOT excluded.quantity OR food_items.quantityUnit IS NOT excluded.quantityUnit " +
+            "OR food_items.expirationDate IS NOT excluded.expirationDate OR food_items.status IS NOT excluded.status " +
+            "OR food_items.userId IS NOT excluded.userId OR food_items.description IS NOT excluded.description";
+    private static final String INSERT_SERVICE_SQL = "INSERT INTO services (name, description, address, contactInfo, latitude, longitude, pickupAvailable, pickupRadius, acceptsFoodDonations, serviceType) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    // Numbered parameters are reused so an unchanged row is not rewritten
+    private static final String UPDATE_SERVICE_SQL = "UPDATE services SET description = ?1, address = ?2, contactInfo = ?3, latitude = ?4, longitude = ?5, " +
+            "pickupAvailable = ?6, pickupRadius = ?7, acceptsFoodDonations = ?8, serviceType = ?9, name = ?10 WHERE id = ?11 AND " +
+            "(description, address, contactInfo, latitude, longitude, pickupAvailable, pickupRadius, acceptsFoodDonations, serviceType, name) " +
+            "IS NOT (?1, ?2, ?3, ?4, ?5, ?6, ?7, ?8, ?9, ?10)";
+    private static final String SAVE_EVENT_SQL = "INSERT INTO events (uuid, title, description, location, startTime, endTime, serviceId, userId, eventType, status, notes, scheduledTime) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, (SELECT id FROM users WHERE username = ?), ?, ?, ?, ?) " +
+            "ON CONFLICT(uuid) DO UPDATE SET title = excluded.title, description = excluded.description, location = excluded.location, " +
+            "startTime = excluded.startTime, endTime = excluded.endTime, serviceId = excluded.serviceId, userId = excluded.userId, " +
+            "eventType = excluded.eventType, status = excluded.status, notes = excluded.notes, scheduledTime = excluded.scheduledTime";
+    private static final String EVENT_SELECT_SQL = "SELECT e.*, s.name AS serviceName, u.username AS username FROM events e " +
+            "LEFT JOIN services s ON e.serviceId = s.id LEFT JOIN users u ON e.userId = u.id";
+    private static final String FOOD_ITEM_SELECT_SQL = "SELECT f.*, u.username AS ownerUsername FROM food_items f " +
+            "LEFT JOIN users u ON f.userId = u.id";
     private static DatabaseManager instance;
-    private Connection connection;
+    private static String configuredUrl;
+    private final String databaseUrl;
+    private ConnectionPool pool;
+    private WriteBehindQueue writeBehind;
+    private DatabaseMaintenance maintenance;
+    private final UserCache userCache = new UserCache(USER_CACHE_SIZE);
+    private volatile int lastCatalogQueryCount;
+    private volatile int streamFetchSize = 500;
 
     private DatabaseManager() {
+        this.databaseUrl = resolveDatabaseUrl();
         initializeDatabase();
     }
 
@@ -30,18 +95,86 @@ public class DatabaseManager {
         return instance;
     }
 
+    /**
+     * Choose the database location. Must be called before the first
+     * getInstance(); otherwise the greencompost.db.url system property, then
+     * the GREENCOMPOST_DB_URL environment variable, then greencompost.db in
+     * the working directory is used. Accepts a JDBC URL, a file path, or
+     * ":memory:".
+     *
+     * @param url The database location
+     * @throws IllegalStateException if the database is already open
+     */
+    public static synchronized void setDatabaseUrl(String url) {
+        if (instance != null) {
+            throw new IllegalStateException("Database already open at " + instance.databaseUrl);
+        }
+        configuredUrl = url;
+    }
+
+    private static String resolveDatabaseUrl() {
+        String url = configuredUrl;
+        if (url == null) {
+            url = System.getProperty("greencompost.db.url");
+        }
+        if (url == null) {
+            url = System.getenv("GREENCOMPOST_DB_URL");
+        }
+        if (url == null || url.isBlank()) {
+            return DEFAULT_DB_URL;
+        }
+        if (url.equals(":memory:")) {
+            return MEMORY_DB_URL;
+        }
+        return url.startsWith("jdbc:") ? url : "jdbc:sqlite:" + url;
+    }
+
+    /**
+     * Get the JDBC URL of the open database
+     *
+     * @return The database URL
+     */
+    public String getDatabaseUrl() {
+        return databaseUrl;
+    }
+
+    /**
+     * Check whether the database lives only in memory
+     *
+     * @return true for an in-memory database
+     */
+    public boolean isInMemory() {
+        return databaseUrl.contains(":memory:") || databaseUrl.contains("mode=memory");
+    }
+
     private void initializeDatabase() {
         try {
-            connection = DriverManager.getConnection(DB_URL);
-            // Set auto-commit to true by default
-            connection.setAutoCommit(true);
+            // One writer plus a few readers; WAL lets reads run alongside writes.
+            // Every connection to :memory: is a separate database, so in
+            // memory mode all work runs on the writer.
+            pool = new ConnectionPool(databaseUrl, isInMemory() ? 0 : READER_CONNECTIONS);
             createTables();
+            migrateSchema();
+            writeBehind = WriteBehindQueue.start(this, pool, WRITE_BEHIND_INTERVAL_MS, WRITE_BEHIND_BATCH_ROWS);
+            if (!isInMemory()) {
+                maintenance = DatabaseMaintenance.start(databaseUrl, DatabaseMaintenance.defaultBackupPath(),
+                        CHECKPOINT_INTERVAL_MS, OPTIMIZE_INTERVAL_MS, BACKUP_INTERVAL_MS);
+            }
         } catch (SQLException e) {
             System.err.println("Database initialization error: " + e.getMessage());
             e.printStackTrace();
         }
     }
 
+    /**
+     * Bring the schema up to the latest migration
+     */
+    private void migrateSchema() throws SQLException {
+        try (ConnectionPool.Lease lease = pool.writer()) {
+            new SchemaMigrator().migrate(lease.connection());
+        }
+    }
+
     private void createTables() throws SQLException {
         // Users table
         String createUsersTable = """
@@ -63,14 +196,15 @@ public class DatabaseManager {
         String createFoodItemsTable = """
             CREATE TABLE IF NOT EXISTS food_items (
                 id INTEGER PRIMARY KEY AUTOINCREMENT,
+                uuid TEXT,
                 name TEXT NOT NULL,
                 category TEXT NOT NULL,
                 quantity REAL NOT NULL,
                 quantityUnit TEXT,
-                expirationDate TEXT,
+                expirationDate INTEGER,
                 status TEXT NOT NULL,
                 userId INTEGER,
-                createdAt TEXT,
+                createdAt INTEGER,
                 description TEXT,
                 FOREIGN KEY (userId) REFERENCES users(id)
             )
@@ -142,14 +276,22 @@ public class DatabaseManager {
                 title TEXT NOT NULL,
                 description TEXT,
                 location TEXT,
-                startTime TEXT,
-                endTime TEXT,
+                startTime INTEGER,
+                endTime INTEGER,
                 serviceId INTEGER,
-                FOREIGN KEY (serviceId) REFERENCES services(id)
+                uuid TEXT,
+                userId INTEGER,
+                eventType TEXT,
+                status TEXT,
+                notes TEXT,
+                scheduledTime INTEGER,
+                FOREIGN KEY (serviceId) REFERENCES services(id),
+                FOREIGN KEY (userId) REFERENCES users(id)
             )
         """;
 
-        try (Statement stmt = connection.createStatement()) {
+        try (ConnectionPool.Lease lease = pool.writer();
+             Statement stmt = lease.connection().createStatement()) {
             stmt.execute(createUsersTable);
             stmt.execute(createFoodItemsTable);
             stmt.execute(createServicesTable);
@@ -161,58 +303,177 @@ public class DatabaseManager {
         }
     }
 
+    /**
+     * Get the writer connection. Prefer the DatabaseManager methods, which
+     * route reads to the reader pool and serialize writes.
+     *
+     * @return The writer connection
+     */
     public Connection getConnection() {
-        return connection;
+        return pool != null ? pool.getWriterConnection() : null;
+    }
+
+    /**
+     * Get the connection pool backing this manager
+     *
+     * @return The connection pool
+     */
+    public ConnectionPool getPool() {
+        return pool;
+    }
+
+    /**
+     * Get the write-behind queue used for non-blocking saves from the UI thread
+     *
+     * @return The write-behind queue
+     */
+    public WriteBehindQueue getWriteBehindQueue() {
+        return writeBehind;
+    }
+
+    /**
+     * Get the background checkpoint, optimize and backup service
+     *
+     * @return The maintenance service, or null for an in-memory database
+     */
+    public DatabaseMaintenance getMaintenance() {
+        return maintenance;
+    }
+
+    /**
+     * Get the identity map of loaded users, e.g. to read its hit and miss counts
+     *
+     * @return The user cache
+     */
+    public UserCache getUserCache() {
+        return userCache;
     }
 
     public void closeConnection() {
-        try {
-            if (connection != null && !connection.isClosed()) {
-                connection.close();
-            }
-        } catch (SQLException e) {
-            System.err.println("Error closing database connection: " + e.getMessage());
+        if (writeBehind != null) {
+            writeBehind.close();
+        }
+        if (maintenance != null) {
+            maintenance.close();
+        }
+        if (pool != null) {
+            pool.close();
         }
     }
 
     // User operations
     public void saveUser(User user) {
-        String sql = "INSERT OR REPLACE INTO users (username, password, name, email, location, latitude, longitude, createdAt, remember_me) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
-        
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setString(1, user.getUsername());
-            pstmt.setString(2, user.getPassword());
-            pstmt.setString(3, user.getName());
-            pstmt.setString(4, user.getEmail());
-            pstmt.setString(5, user.getLocation());
-            pstmt.setDouble(6, user.getLatitude());
-            pstmt.setDouble(7, user.getLongitude());
-            pstmt.setString(8, LocalDateTime.now().toString());
-            pstmt.setInt(9, user.isRememberMe() ? 1 : 0);
+        try (ConnectionPool.Lease lease = pool.writer()) {
+            renameStoredUser(lease, user);
+            PreparedStatement pstmt = lease.prepare(SAVE_USER_SQL);
+            bindUser(pstmt, user);
             pstmt.executeUpdate();
+            pool.afterCommit(() -> {
+                user.clearDirtyFields();
+                userCache.put(user);
+            });
         } catch (SQLException e) {
-            System.err.println("Error saving user: " + e.getMessage());
+            writeFailed("saving user", e);
+        }
+    }
+
+    /**
+     * Save a collection of users with batched inserts in one transaction.
+     * Users without a username or password are skipped with a warning and
+     * stay dirty.
+     *
+     * @param users The users to save
+     */
+    public void saveUsers(Collection<User> users) {
+        runInTransaction("saving users", lease -> writeUsers(lease, users));
+    }
+
+    private void writeUsers(ConnectionPool.Lease lease, Collection<User> users) throws SQLException {
+        PreparedStatement pstmt = lease.prepare(SAVE_USER_SQL);
+        List<User> written = new ArrayList<>();
+        int pending = 0;
+        for (User user : users) {
+            if (user.getUsername() == null || user.getPassword() == null) {
+                // Left dirty, so a later save or flush still writes it
+                System.err.println("Skipping user without a username or password: " + user.getUsername());
+                continue;
+            }
+            renameStoredUser(lease, user);
+            bindUser(pstmt, user);
+            pstmt.addBatch();
+            written.add(user);
+            if (++pending == BATCH_SIZE) {
+                pstmt.executeBatch();
+                pending = 0;
+            }
         }
+        if (pending > 0) {
+            pstmt.executeBatch();
+        }
+        // Marked clean only once the rows are committed, so a failed commit leaves them dirty
+        pool.afterCommit(() -> {
+            for (User user : written) {
+                user.clearDirtyFields();
+                userCache.put(user);
+            }
+        });
+    }
+
+    /**
+     * Move a renamed user's row to the new username, so the upsert keyed by
+     * username updates it instead of inserting a second row
+     */
+    private void renameStoredUser(ConnectionPool.Lease lease, User user) throws SQLException {
+        String storedUsername = user.getStoredUsername();
+        if (storedUsername == null || storedUsername.equals(user.getUsername())) {
+            return;
+        }
+        PreparedStatement pstmt = lease.prepare("UPDATE users SET username = ? WHERE username = ?");
+        pstmt.setString(1, user.getUsername());
+        pstmt.setString(2, storedUsername);
+        pstmt.executeUpdate();
+        userCache.invalidate(storedUsername);
+    }
+
+    private void bindUser(PreparedStatement pstmt, User user) throws SQLException {
+        pstmt.setString(1, user.getUsername());
+        pstmt.setString(2, user.getPassword());
+        pstmt.setString(3, user.getName());
+        pstmt.setString(4, user.getEmail());
+        pstmt.setString(5, user.getLocation());
+        pstmt.setDouble(6, user.getLatitude());
+        pstmt.setDouble(7, user.getLongitude());
+        pstmt.setString(8, LocalDateTime.now().toString());
+        pstmt.setInt(9, user.isRememberMe() ? 1 : 0);
     }
 
     public User getUserByUsername(String username) {
-        String sql = "SELECT * FROM users WHERE username = ?";
+        User cached = userCache.getByUsername(username);
+        if (cached != null) {
+            return cached;
+        }
+
+        try (ConnectionPool.Lease lease = pool.reader()) {
+            return findUser(lease, username);
+        } catch (SQLException e) {
+            System.err.println("Error getting user: " + e.getMessage());
+        }
         
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setString(1, username);
-            ResultSet rs = pstmt.executeQuery();
-            
+        return null;
+    }
+
+    /**
+     * Get a user from the identity map, querying through the lease only on a miss
+     */
+    private User findCachedUser(ConnectionPool.Lease lease, String username) {
+        User cached = userCache.getByUsername(username);
+        return cached != null ? cached : findUser(lease, username);
+    }
+
+    private User findUser(ConnectionPool.Lease lease, String username) {
+        try (ResultSet rs = lease.query("SELECT * FROM users WHERE username = ?", username)) {
             if (rs.next()) {
-                User user = new User();
-                user.setUsername(rs.getString("username"));
-                user.setPassword(rs.getString("password"));
-                user.setName(rs.getString("name"));
-                user.setEmail(rs.getString("email"));
-                user.setLocation(rs.getString("location"));
-                user.setLatitude(rs.getDouble("latitude"));
-                user.setLongitude(rs.getDouble("longitude"));
-                user.setRememberMe(rs.getInt("remember_me") == 1);
-                return user;
+                return userCache.resolve(mapUser(rs));
             }
         } catch (SQLException e) {
             System.err.println("Error getting user: " + e.getMessage());
@@ -221,30 +482,37 @@ public class DatabaseManager {
         return null;
     }
 
+    private User mapUser(ResultSet rs) throws SQLException {
+        User user = User.createDetached();
+        user.setUsername(rs.getString("username"));
+        user.setPassword(rs.getString("password"));
+        user.setName(rs.getString("name"));
+        user.setEmail(rs.getString("email"));
+        user.setLocation(rs.getString("location"));
+        user.setLatitude(rs.getDouble("latitude"));
+        user.setLongitude(rs.getDouble("longitude"));
+        user.setRememberMe(rs.getInt("remember_me") == 1);
+        user.clearDirtyFields();
+        return user;
+    }
+
     public List<User> getAllUsers() {
-        List<User> users = new ArrayList<>();
-        String sql = "SELECT * FROM users";
-        
-        try (Statement stmt = connection.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
-            
-            while (rs.next()) {
-                User user = new User();
-                user.setUsername(rs.getString("username"));
-                user.setPassword(rs.getString("password"));
-                user.setName(rs.getString("name"));
-                user.setEmail(rs.getString("email"));
-                user.setLocation(rs.getString("location"));
-                user.setLatitude(rs.getDouble("latitude"));
-                user.setLongitude(rs.getDouble("longitude"));
-                user.setRememberMe(rs.getInt("remember_me") == 1);
-                users.add(user);
-            }
-        } catch (SQLException e) {
-            System.err.println("Error getting all users: " + e.getMessage());
+        try (Stream<User> users = streamUsers(null)) {
+            return users.collect(Collectors.toCollection(ArrayList::new));
         }
-        
-        return users;
+    }
+
+    /**
+     * Stream users lazily from an open cursor. The stream holds a reader
+     * connection until it is closed, so always use try-with-resources.
+     *
+     * @param filter Optional SQL condition on the users table, or null for all users
+     * @param params Values for the filter's parameters
+     * @return A stream of users that must be closed
+     */
+    public Stream<User> streamUsers(String filter, Object... params) {
+        String sql = "SELECT * FROM users" + (filter != null ? " WHERE " + filter : "");
+        return streamRows(sql, params, "users", (rs, lease) -> userCache.resolve(mapUser(rs)));
     }
     
     /**
@@ -255,20 +523,11 @@ public class DatabaseManager {
     public User getRememberedUser() {
         String sql = "SELECT * FROM users WHERE remember_me = 1 LIMIT 1";
         
-        try (Statement stmt = connection.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
+        try (ConnectionPool.Lease lease = pool.reader();
+             ResultSet rs = lease.query(sql)) {
             
             if (rs.next()) {
-                User user = new User();
-                user.setUsername(rs.getString("username"));
-                user.setPassword(rs.getString("password"));
-                user.setName(rs.getString("name"));
-                user.setEmail(rs.getString("email"));
-                user.setLocation(rs.getString("location"));
-                user.setLatitude(rs.getDouble("latitude"));
-                user.setLongitude(rs.getDouble("longitude"));
-                user.setRememberMe(true);
-                return user;
+                return userCache.resolve(mapUser(rs));
             }
         } catch (SQLException e) {
             System.err.println("Error getting remembered user: " + e.getMessage());
@@ -284,12 +543,30 @@ public class DatabaseManager {
      * @return true if the update was successful, false otherwise
      */
     public boolean updateUserPassword(User user) {
+        boolean updated = updateUserPassword(user.getUsername(), user.getPassword());
+        if (updated) {
+            userCache.put(user);
+        }
+        return updated;
+    }
+
+    /**
+     * Update the password stored for a username
+     *
+     * @param username The user's username
+     * @param password The new password
+     * @return true if a user was updated, false if none matched or the update failed
+     */
+    public boolean updateUserPassword(String username, String password) {
         String sql = "UPDATE users SET password = ? WHERE username = ?";
         
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setString(1, user.getPassword());
-            pstmt.setString(2, user.getUsername());
+        try (ConnectionPool.Lease lease = pool.writer()) {
+            PreparedStatement pstmt = lease.prepare(sql);
+            pstmt.setString(1, password);
+            pstmt.setString(2, username);
             int rowsAffected = pstmt.executeUpdate();
+            // A cached copy would still hold the old password
+            userCache.invalidate(username);
             return rowsAffected > 0;
         } catch (SQLException e) {
             System.err.println("Error updating user password: " + e.getMessage());
@@ -304,23 +581,18 @@ public class DatabaseManager {
      * @return The user with the given email, or null if not found
      */
     public User getUserByEmail(String email) {
+        User cached = userCache.getByEmail(email);
+        if (cached != null) {
+            return cached;
+        }
+
         String sql = "SELECT * FROM users WHERE email = ?";
         
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setString(1, email);
-            ResultSet rs = pstmt.executeQuery();
+        try (ConnectionPool.Lease lease = pool.reader();
+             ResultSet rs = lease.query(sql, email)) {
             
             if (rs.next()) {
-                User user = new User();
-                user.setUsername(rs.getString("username"));
-                user.setPassword(rs.getString("password"));
-                user.setName(rs.getString("name"));
-                user.setEmail(rs.getString("email"));
-                user.setLocation(rs.getString("location"));
-                user.setLatitude(rs.getDouble("latitude"));
-                user.setLongitude(rs.getDouble("longitude"));
-                user.setRememberMe(rs.getInt("remember_me") == 1);
-                return user;
+                return userCache.resolve(mapUser(rs));
             }
         } catch (SQLException e) {
             System.err.println("Error getting user by email: " + e.getMessage());
@@ -330,23 +602,105 @@ public class DatabaseManager {
     }
 
     // Food item operations
+
+    /**
+     * Insert or update a food item, matched on its UUID. An unchanged item
+     * is not rewritten.
+     *
+     * @param item The food item to save
+     */
     public void saveFoodItem(FoodItem item) {
-        String sql = "INSERT OR REPLACE INTO food_items (name, category, quantity, quantityUnit, expirationDate, status, userId, createdAt, description) " +
-                      "VALUES (?, ?, ?, ?, ?, ?, (SELECT id FROM users WHERE username = ?), ?, ?)";
-        
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setString(1, item.getName());
-            pstmt.setString(2, item.getCategory().toString());
-            pstmt.setDouble(3, item.getQuantity());
-            pstmt.setString(4, item.getQuantityUnit());
-            pstmt.setString(5, item.getExpiryDate().toString());
-            pstmt.setString(6, item.getStatus().toString());
-            pstmt.setString(7, item.getOwner().getUsername());
-            pstmt.setString(8, LocalDateTime.now().toString());
-            pstmt.setString(9, item.getDescription());
+        if (!isWritable(item)) {
+            return;
+        }
+        try (ConnectionPool.Lease lease = pool.writer()) {
+            PreparedStatement pstmt = lease.prepare(SAVE_FOOD_ITEM_SQL);
+            bindFoodItem(pstmt, item);
+            pstmt.executeUpdate();
+            pool.afterCommit(item::clearDirtyFields);
+        } catch (SQLException e) {
+            writeFailed("saving food item", e);
+        }
+    }
+
+    /**
+     * Save a collection of food items with batched inserts in one transaction.
+     * Items without an owner, category or status are skipped with a warning
+     * and stay dirty.
+     *
+     * @param items The food items to save
+     */
+    public void saveFoodItems(Collection<FoodItem> items) {
+        runInTransaction("saving food items", lease -> writeFoodItems(lease, items));
+    }
+
+    private void writeFoodItems(ConnectionPool.Lease lease, Collection<FoodItem> items) throws SQLException {
+        PreparedStatement pstmt = lease.prepare(SAVE_FOOD_ITEM_SQL);
+        List<FoodItem> written = new ArrayList<>();
+        int pending = 0;
+        for (FoodItem item : items) {
+            if (!isWritable(item)) {
+                continue;
+            }
+            bindFoodItem(pstmt, item);
+            pstmt.addBatch();
+            written.add(item);
+            if (++pending == BATCH_SIZE) {
+                pstmt.executeBatch();
+                pending = 0;
+            }
+        }
+        if (pending > 0) {
+            pstmt.executeBatch();
+        }
+        pool.afterCommit(() -> written.forEach(FoodItem::clearDirtyFields));
+    }
+
+    /**
+     * Check that an item has the columns its row requires. An item that
+     * does not is left dirty, so a later save or flush still writes it.
+     */
+    private static boolean isWritable(FoodItem item) {
+        if (item.getOwner() == null || item.getCategory() == null || item.getStatus() == null) {
+            System.err.println("Skipping food item without an owner, category or status: " + item.getName());
+            return false;
+        }
+        return true;
+    }
+
+    private void bindFoodItem(PreparedStatement pstmt, FoodItem item) throws SQLException {
+        if (item.getId() == null) {
+            // Items built with the no-arg constructor get their identity on first save
+            item.setId(UUID.randomUUID());
+        }
+        pstmt.setString(1, item.getId().toString());
+        pstmt.setString(2, item.getName());
+        pstmt.setString(3, item.getCategory().toString());
+        pstmt.setDouble(4, item.getQuantity());
+        pstmt.setString(5, item.getQuantityUnit());
+        setEpochMillis(pstmt, 6, item.getExpiryDate());
+        pstmt.setString(7, item.getStatus().toString());
+        pstmt.setString(8, item.getOwner().getUsername());
+        setEpochMillis(pstmt, 9, item.getCreatedAt() != null ? item.getCreatedAt() : LocalDateTime.now());
+        pstmt.setString(10, item.getDescription());
+    }
+
+    /**
+     * Delete a food item's row, matched on its UUID. The triggers remove it
+     * from user_stats, the search index and any events it was linked to.
+     *
+     * @param item The food item to delete
+     */
+    public void deleteFoodItem(FoodItem item) {
+        if (item.getId() == null) {
+            return;
+        }
+        try (ConnectionPool.Lease lease = pool.writer()) {
+            PreparedStatement pstmt = lease.prepare("DELETE FROM food_items WHERE uuid = ?");
+            pstmt.setString(1, item.getId().toString());
             pstmt.executeUpdate();
         } catch (SQLException e) {
-            System.err.println("Error saving food item: " + e.getMessage());
+            writeFailed("deleting food item", e);
         }
     }
 
@@ -354,25 +708,12 @@ public class DatabaseManager {
         List<FoodItem> items = new ArrayList<>();
         String sql = "SELECT * FROM food_items WHERE userId = (SELECT id FROM users WHERE username = ?)";
         
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setString(1, user.getUsername());
-            ResultSet rs = pstmt.executeQuery();
+        try (ConnectionPool.Lease lease = pool.reader();
+             ResultSet rs = lease.query(sql, user.getUsername())) {
             
             while (rs.next()) {
-                FoodItem item = new FoodItem();
-                item.setName(rs.getString("name"));
-                item.setCategory(FoodCategory.valueOf(rs.getString("category")));
-                item.setQuantity(rs.getDouble("quantity"));
-                item.setQuantityUnit(rs.getString("quantityUnit"));
-                String expiryDateStr = rs.getString("expirationDate");
-                if (expiryDateStr != null && !expiryDateStr.isEmpty()) { // Check for null or empty
-                    item.setExpiryDate(LocalDateTime.parse(expiryDateStr));
-                } else {
-                    item.setExpiryDate(null); // Or handle as appropriate
-                }
-                item.setStatus(ItemStatus.valueOf(rs.getString("status")));
+                FoodItem item = mapFoodItem(rs);
                 item.setOwner(user);
-                item.setDescription(rs.getString("description"));
                 items.add(item);
             }
         } catch (SQLException e) {
@@ -382,441 +723,1187 @@ public class DatabaseManager {
         return items;
     }
 
-    public List<FoodItem> getAllFoodItems() {
-        List<FoodItem> items = new ArrayList<>();
-        String sql = "SELECT f.*, u.username FROM food_items f JOIN users u ON f.userId = u.id";
+    /**
+     * Get one page of a user's food items using keyset pagination. Each page
+     * seeks directly to the row after {@code afterKey} through the
+     * (userId, sort column) index, so deep pages cost the same as the first.
+     * Items without an expiry date are left out of expiry-ordered pages.
+     *
+     * @param user The owner of the items
+     * @param afterKey The nextKey of the previous page, or null for the first page
+     * @param limit Maximum number of items on the page
+     * @param sortOrder The ordering of the items
+     * @return The page of items and the key of the next page
+     */
+    public FoodItemPage getFoodItemsByUser(User user, FoodItemPage.Key afterKey, int limit,
+                                           FoodItemPage.SortOrder sortOrder) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Page limit must be positive");
+        }
+        
+        String column = sortOrder.getColumn();
+        String direction = sortOrder.isAscending() ? "ASC" : "DESC";
+        String comparison = sortOrder.isAscending() ? ">" : "<";
+        String sql = "SELECT * FROM food_items WHERE userId = (SELECT id FROM users WHERE username = ?)"
+                + " AND " + column + " IS NOT NULL"
+                + (afterKey != null ? " AND (" + column + ", id) " + comparison + " (?, ?)" : "")
+                + " ORDER BY " + column + " " + direction + ", id " + direction
+                + " LIMIT ?";
+        
+        List<Object> params = new ArrayList<>();
+        params.add(user.getUsername());
+        if (afterKey != null) {
+            params.add(afterKey.sortValue());
+            params.add(afterKey.id());
+        }
+        // Fetch one extra row to learn whether another page follows
+        params.add(limit + 1);
         
-        try (Statement stmt = connection.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
+        List<FoodItem> items = new ArrayList<>();
+        FoodItemPage.Key nextKey = null;
+        try (ConnectionPool.Lease lease = pool.reader();
+             ResultSet rs = lease.query(sql, params.toArray())) {
             
+            FoodItemPage.Key lastKey = null;
             while (rs.next()) {
-                FoodItem item = new FoodItem();
-                item.setName(rs.getString("name"));
-                item.setCategory(FoodCategory.valueOf(rs.getString("category")));
-                item.setQuantity(rs.getDouble("quantity"));
-                item.setQuantityUnit(rs.getString("quantityUnit"));
-                String expiryDateStr = rs.getString("expirationDate");
-                if (expiryDateStr != null && !expiryDateStr.isEmpty()) {
-                    item.setExpiryDate(LocalDateTime.parse(expiryDateStr));
-                } else {
-                    item.setExpiryDate(null);
+                if (items.size() == limit) {
+                    nextKey = lastKey;
+                    break;
                 }
-                item.setStatus(ItemStatus.valueOf(rs.getString("status")));
-                item.setDescription(rs.getString("description"));
-                
-                String username = rs.getString("username");
-                User owner = getUserByUsername(username);
-                item.setOwner(owner);
-                
+                FoodItem item = mapFoodItem(rs);
+                item.setOwner(user);
                 items.add(item);
+                lastKey = new FoodItemPage.Key(rs.getLong(column), rs.getLong("id"));
             }
         } catch (SQLException e) {
-            System.err.println("Error getting all food items: " + e.getMessage());
+            System.err.println("Error getting page of food items: " + e.getMessage());
         }
         
-        return items;
+        return new FoodItemPage(items, nextKey);
+    }
+
+    public List<FoodItem> getAllFoodItems() {
+        try (Stream<FoodItem> items = streamFoodItems("u.id IS NOT NULL")) {
+            return items.collect(Collectors.toCollection(ArrayList::new));
+        }
+    }
+
+    /**
+     * Find food items whose expiry falls in [from, to), soonest first.
+     * Answered by a range scan on the expiry index.
+     *
+     * @param from Start of the window, inclusive
+     * @param to End of the window, exclusive
+     * @return The matching items
+     */
+    public List<FoodItem> findItemsExpiringBetween(LocalDateTime from, LocalDateTime to) {
+        String sql = FOOD_ITEM_SELECT_SQL + " WHERE f.expirationDate >= ? AND f.expirationDate < ?"
+                + " ORDER BY f.expirationDate";
+        try (Stream<FoodItem> items = streamFoodItemRows(sql,
+                new Object[] {Timestamps.toEpochMillis(from), Timestamps.toEpochMillis(to)})) {
+            return items.collect(Collectors.toCollection(ArrayList::new));
+        }
+    }
+
+    /**
+     * Get a user's item statistics. Counts and weights per category and
+     * status come from the trigger-maintained user_stats table, so they cost
+     * the same however many items the user has. Expiry buckets depend on the
+     * current time and are counted from the (userId, expirationDate) index,
+     * touching only items that have not expired yet.
+     *
+     * @param user The owner of the items
+     * @return The statistics, empty if the user has no items
+     */
+    public FoodItemStats getFoodItemStats(User user) {
+        long now = System.currentTimeMillis();
+        FoodItemStats stats = new FoodItemStats(now);
+        String totalsSql = """
+            SELECT category, status, itemCount, weightKg, withExpiry, withCreatedAt, createdAtSum
+            FROM user_stats
+            WHERE userId = (SELECT id FROM users WHERE username = ?)
+        """;
+        // Bucket bounds match FoodItemStats.of
+        String upcomingSql = """
+            SELECT category,
+                   CASE
+                       WHEN expirationDate < ?1 + 86400000 THEN 1
+                       WHEN expirationDate < ?1 + 2 * 86400000 THEN 2
+                       WHEN expirationDate < ?1 + 8 * 86400000 THEN 3
+                       WHEN expirationDate < ?1 + 15 * 86400000 THEN 4
+                       ELSE 5
+                   END AS bucket,
+                   COUNT(*) AS itemCount,
+                   TOTAL((expirationDate - ?1) / 86400000) AS daysUntilExpiry,
+                   TOTAL(expirationDate > ?1 AND expirationDate < ?1 + 172800000) AS expiringSoon
+            FROM food_items
+            WHERE userId = (SELECT id FROM users WHERE username = ?2) AND expirationDate >= ?1
+            GROUP BY category, bucket
+        """;
+
+        try (ConnectionPool.Lease lease = pool.reader()) {
+            try (ResultSet rs = lease.query(totalsSql, user.getUsername())) {
+                while (rs.next()) {
+                    stats.addTotals(FoodCategory.valueOf(rs.getString("category")),
+                            ItemStatus.valueOf(rs.getString("status")),
+                            rs.getInt("itemCount"),
+                            rs.getDouble("weightKg"),
+                            rs.getInt("withExpiry"),
+                            rs.getInt("withCreatedAt"),
+                            rs.getLong("createdAtSum"));
+                }
+            }
+            try (ResultSet rs = lease.query(upcomingSql, now, user.getUsername())) {
+                while (rs.next()) {
+                    stats.addUpcoming(FoodCategory.valueOf(rs.getString("category")),
+                            rs.getInt("bucket"),
+                            rs.getInt("itemCount"),
+                            rs.getLong("daysUntilExpiry"),
+                            rs.getInt("expiringSoon"));
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Error getting food item statistics: " + e.getMessage());
+        }
+
+        return stats;
+    }
+
+    /**
+     * Get the number of items a user has, read from user_stats
+     *
+     * @param user The owner of the items
+     * @return The item count
+     */
+    public int getFoodItemCount(User user) {
+        String sql = "SELECT TOTAL(itemCount) FROM user_stats WHERE userId = (SELECT id FROM users WHERE username = ?)";
+        try (ConnectionPool.Lease lease = pool.reader();
+             ResultSet rs = lease.query(sql, user.getUsername())) {
+            if (rs.next()) {
+                return rs.getInt(1);
+            }
+        } catch (SQLException e) {
+            System.err.println("Error counting food items: " + e.getMessage());
+        }
+
+        return 0;
+    }
+
+    /**
+     * Count a user's items expiring strictly between two times, using a
+     * range scan on the (userId, expirationDate) index
+     *
+     * @param user The owner of the items
+     * @param from Lower bound, exclusive
+     * @param to Upper bound, exclusive
+     * @return The number of matching items
+     */
+    public int countItemsExpiringBetween(User user, LocalDateTime from, LocalDateTime to) {
+        String sql = """
+            SELECT COUNT(*) FROM food_items
+            WHERE userId = (SELECT id FROM users WHERE username = ?) AND expirationDate > ? AND expirationDate < ?
+        """;
+        try (ConnectionPool.Lease lease = pool.reader();
+             ResultSet rs = lease.query(sql, user.getUsername(),
+                     Timestamps.toEpochMillis(from), Timestamps.toEpochMillis(to))) {
+            if (rs.next()) {
+                return rs.getInt(1);
+            }
+        } catch (SQLException e) {
+            System.err.println("Error counting expiring food items: " + e.getMessage());
+        }
+
+        return 0;
+    }
+
+    /**
+     * Check user_stats against a full aggregation of food_items, optionally
+     * rebuilding it. The triggers keep it current, so a mismatch means the
+     * table was changed outside the application or the triggers were lost.
+     *
+     * @param repair Whether to rebuild the table when it is inconsistent
+     * @return The number of inconsistent groups found before any repair
+     */
+    public int verifyUserStats(boolean repair) {
+        try (ConnectionPool.Lease lease = pool.writer()) {
+            int mismatches = SchemaMigrator.countUserStatsMismatches(lease.connection());
+            if (mismatches > 0 && repair) {
+                runInTransaction("rebuilding user statistics",
+                        writer -> SchemaMigrator.rebuildUserStats(writer.connection()));
+            }
+            return mismatches;
+        } catch (SQLException e) {
+            System.err.println("Error verifying user statistics: " + e.getMessage());
+        }
+
+        return -1;
+    }
+
+    /**
+     * Stream food items lazily from an open cursor, with owners resolved once
+     * per username. The stream holds a reader connection until it is closed,
+     * so always use try-with-resources.
+     *
+     * @param filter Optional SQL condition; food_items is aliased f and users u
+     * @param params Values for the filter's parameters
+     * @return A stream of food items that must be closed
+     */
+    public Stream<FoodItem> streamFoodItems(String filter, Object... params) {
+        String sql = FOOD_ITEM_SELECT_SQL + (filter != null ? " WHERE " + filter : "");
+        return streamFoodItemRows(sql, params);
+    }
+
+    /**
+     * Stream food items from a query selecting f.* plus the owner's
+     * username as ownerUsername
+     */
+    private Stream<FoodItem> streamFoodItemRows(String sql, Object[] params) {
+        Map<String, User> owners = new HashMap<>();
+        return streamRows(sql, params, "food items", (rs, lease) -> {
+            FoodItem item = mapFoodItem(rs);
+            String username = rs.getString("ownerUsername");
+            if (username != null) {
+                item.setOwner(owners.computeIfAbsent(username, name -> findCachedUser(lease, name)));
+            }
+            return item;
+        });
+    }
+
+    private FoodItem mapFoodItem(ResultSet rs) throws SQLException {
+        FoodItem item = new FoodItem();
+        String uuid = rs.getString("uuid");
+        if (uuid != null) {
+            item.setId(UUID.fromString(uuid));
+        }
+        item.setName(rs.getString("name"));
+        item.setCategory(FoodCategory.valueOf(rs.getString("category")));
+        item.setQuantity(rs.getDouble("quantity"));
+        item.setQuantityUnit(rs.getString("quantityUnit"));
+        item.setExpiryDate(getEpochMillis(rs, "expirationDate"));
+        item.setStatus(ItemStatus.valueOf(rs.getString("status")));
+        item.setCreatedAt(getEpochMillis(rs, "createdAt"));
+        item.setDescription(rs.getString("description"));
+        item.clearDirtyFields();
+        return item;
+    }
+
+    /**
+     * Bind a date-time as an epoch-millisecond INTEGER, or NULL
+     */
+    private static void setEpochMillis(PreparedStatement pstmt, int index, LocalDateTime dateTime) throws SQLException {
+        Long millis = Timestamps.toEpochMillis(dateTime);
+        if (millis != null) {
+            pstmt.setLong(index, millis);
+        } else {
+            pstmt.setNull(index, Types.INTEGER);
+        }
+    }
+
+    /**
+     * Read an epoch-millisecond INTEGER column as a date-time
+     */
+    private static LocalDateTime getEpochMillis(ResultSet rs, String column) throws SQLException {
+        long millis = rs.getLong(column);
+        return rs.wasNull() ? null : Timestamps.fromEpochMillis(millis);
     }
 
     // Local service operations
     public void saveLocalService(LocalService service) {
-        boolean previousAutoCommit = true;
-        try {
-            // Check the current auto-commit mode
-            previousAutoCommit = connection.getAutoCommit();
-            
-            // Only change if it's not already what we want
-            if (previousAutoCommit) {
-                connection.setAutoCommit(false);
+        runInTransaction("saving local service", lease -> writeLocalServices(lease, List.of(service)));
+    }
+
+    /**
+     * Save a collection of services in one transaction. A service that was
+     * loaded or saved before keeps its row, even after a rename; otherwise a
+     * stored row with the same name is reused. The row is only rewritten if
+     * a column changed. Its operating hours, accepted items, non-accepted
+     * items and donation guidelines are diffed against the stored rows, and
+     * only the differences are deleted and inserted, with batched statements.
+     *
+     * @param services The services to save
+     */
+    public void saveLocalServices(Collection<LocalService> services) {
+        runInTransaction("saving local services", lease -> writeLocalServices(lease, services));
+    }
+
+    private void writeLocalServices(ConnectionPool.Lease lease, Collection<LocalService> services) throws SQLException {
+        PreparedStatement findByIdStmt = lease.prepare("SELECT id FROM services WHERE id = ?");
+        PreparedStatement findByNameStmt = lease.prepare("SELECT id FROM services WHERE name = ?");
+        PreparedStatement insertStmt = lease.prepareReturningKeys(INSERT_SERVICE_SQL);
+        PreparedStatement updateStmt = lease.prepare(UPDATE_SERVICE_SQL);
+
+        ChildTableSync hours = new ChildTableSync(lease, "operating_hours", "dayOfWeek", "openTime", "closeTime");
+        ChildTableSync accepted = new ChildTableSync(lease, "accepted_items", "itemName");
+        ChildTableSync nonAccepted = new ChildTableSync(lease, "non_accepted_items", "itemName");
+        ChildTableSync guidelines = new ChildTableSync(lease, "donation_guidelines", "guideline");
+
+        for (LocalService service : services) {
+            // Reuse the existing row so child rows can be diffed
+            long serviceId = 0;
+            PreparedStatement findStmt;
+            if (service.getDatabaseId() != null) {
+                findStmt = findByIdStmt;
+                findStmt.setLong(1, service.getDatabaseId());
+            } else {
+                findStmt = findByNameStmt;
+                findStmt.setString(1, service.getName());
             }
-            
-            // Save service
-            String serviceSql = "INSERT OR REPLACE INTO services (name, description, address, contactInfo, latitude, longitude, pickupAvailable, pickupRadius, acceptsFoodDonations, serviceType) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
-            
-            try (PreparedStatement pstmt = connection.prepareStatement(serviceSql, Statement.RETURN_GENERATED_KEYS)) {
-                pstmt.setString(1, service.getName());
-                pstmt.setString(2, service.getDescription());
-                pstmt.setString(3, service.getAddress());
-                pstmt.setString(4, service.getContactInfo());
-                pstmt.setDouble(5, service.getLatitude());
-                pstmt.setDouble(6, service.getLongitude());
-                pstmt.setInt(7, service.isPickupAvailable() ? 1 : 0);
-                pstmt.setDouble(8, service.getPickupRadius());
-                pstmt.setInt(9, service.acceptsFoodDonations() ? 1 : 0);
-                pstmt.setString(10, service.getType().toString());
-                pstmt.executeUpdate();
-                
-                // Get the generated service ID
-                try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
-                    long serviceId = generatedKeys.next() ? generatedKeys.getLong(1) : 0;
-                    
-                    // Delete existing operating hours for this service
-                    String deleteHoursSql = "DELETE FROM operating_hours WHERE serviceId = ?";
-                    try (PreparedStatement deleteStmt = connection.prepareStatement(deleteHoursSql)) {
-                        deleteStmt.setLong(1, serviceId);
-                        deleteStmt.executeUpdate();
-                    }
-                    
-                    // Save operating hours
-                    if (service.getHours() != null) {
-                        String hoursSql = "INSERT INTO operating_hours (serviceId, dayOfWeek, openTime, closeTime) VALUES (?, ?, ?, ?)";
-                        try (PreparedStatement hoursStmt = connection.prepareStatement(hoursSql)) {
-                            for (int day = 0; day < 7; day++) {
-                                OperatingHours.TimeSlot slot = service.getHours().getTimeSlotForDay(day);
-                                if (slot != null) {
-                                    hoursStmt.setLong(1, serviceId);
-                                    hoursStmt.setInt(2, day);
-                                    hoursStmt.setString(3, slot.getOpenTime().toString());
-                                    hoursStmt.setString(4, slot.getCloseTime().toString());
-                                    hoursStmt.executeUpdate();
-                                }
-                            }
-                        }
-                    }
-                    
-                    // Delete existing accepted items
-                    String deleteAcceptedItemsSql = "DELETE FROM accepted_items WHERE serviceId = ?";
-                    try (PreparedStatement deleteAcceptedStmt = connection.prepareStatement(deleteAcceptedItemsSql)) {
-                        deleteAcceptedStmt.setLong(1, serviceId);
-                        deleteAcceptedStmt.executeUpdate();
-                    }
-                    
-                    // Save accepted items
-                    if (service.getAcceptedItems() != null && !service.getAcceptedItems().isEmpty()) {
-                        String acceptedItemsSql = "INSERT INTO accepted_items (serviceId, itemName) VALUES (?, ?)";
-                        try (PreparedStatement acceptedItemsStmt = connection.prepareStatement(acceptedItemsSql)) {
-                            for (String item : service.getAcceptedItems()) {
-                                acceptedItemsStmt.setLong(1, serviceId);
-                                acceptedItemsStmt.setString(2, item);
-                                acceptedItemsStmt.executeUpdate();
-                            }
-                        }
-                    }
-                    
-                    // Delete existing non-accepted items
-                    String deleteNonAcceptedItemsSql = "DELETE FROM non_accepted_items WHERE serviceId = ?";
-                    try (PreparedStatement deleteNonAcceptedStmt = connection.prepareStatement(deleteNonAcceptedItemsSql)) {
-                        deleteNonAcceptedStmt.setLong(1, serviceId);
-                        deleteNonAcceptedStmt.executeUpdate();
-                    }
-                    
-                    // Save non-accepted items
-                    if (service.getNonAcceptedItems() != null && !service.getNonAcceptedItems().isEmpty()) {
-                        String nonAcceptedItemsSql = "INSERT INTO non_accepted_items (serviceId, itemName) VALUES (?, ?)";
-                        try (PreparedStatement nonAcceptedItemsStmt = connection.prepareStatement(nonAcceptedItemsSql)) {
-                            for (String item : service.getNonAcceptedItems()) {
-                                nonAcceptedItemsStmt.setLong(1, serviceId);
-                                nonAcceptedItemsStmt.setString(2, item);
-                                nonAcceptedItemsStmt.executeUpdate();
-                            }
-                        }
-                    }
-                    
-                    // Delete existing donation guidelines
-                    String deleteDonationGuidelinesSql = "DELETE FROM donation_guidelines WHERE serviceId = ?";
-                    try (PreparedStatement deleteDonationGuidelinesStmt = connection.prepareStatement(deleteDonationGuidelinesSql)) {
-                        deleteDonationGuidelinesStmt.setLong(1, serviceId);
-                        deleteDonationGuidelinesStmt.executeUpdate();
+            try (ResultSet rs = findStmt.executeQuery()) {
+                if (rs.next()) {
+                    serviceId = rs.getLong("id");
+                }
+            }
+
+            if (serviceId != 0) {
+                bindServiceColumns(updateStmt, service, 1);
+                updateStmt.setString(10, service.getName());
+                updateStmt.setLong(11, serviceId);
+                updateStmt.executeUpdate();
+            } else {
+                insertStmt.setString(1, service.getName());
+                bindServiceColumns(insertStmt, service, 2);
+                insertStmt.executeUpdate();
+                try (ResultSet generatedKeys = insertStmt.getGeneratedKeys()) {
+                    serviceId = generatedKeys.next() ? generatedKeys.getLong(1) : 0;
+                }
+            }
+            service.setDatabaseId(serviceId);
+
+            List<List<String>> hourRows = new ArrayList<>();
+            if (service.getHours() != null) {
+                for (int day = 0; day < 7; day++) {
+                    OperatingHours.TimeSlot slot = service.getHours().getTimeSlotForDay(day);
+                    if (slot != null) {
+                        hourRows.add(List.of(String.valueOf(day), slot.getOpenTime().toString(), slot.getCloseTime().toString()));
                     }
-                    
-                    // Save donation guidelines
-                    if (service.getDonationGuidelines() != null && !service.getDonationGuidelines().isEmpty()) {
-                        String donationGuidelinesSql = "INSERT INTO donation_guidelines (serviceId, guideline) VALUES (?, ?)";
-                        try (PreparedStatement donationGuidelinesStmt = connection.prepareStatement(donationGuidelinesSql)) {
-                            for (String guideline : service.getDonationGuidelines()) {
-                                donationGuidelinesStmt.setLong(1, serviceId);
-                                donationGuidelinesStmt.setString(2, guideline);
-                                donationGuidelinesStmt.executeUpdate();
-                            }
-                        }
+                }
+            }
+            hours.sync(serviceId, hourRows);
+            accepted.sync(serviceId, singleColumnRows(service.getAcceptedItems()));
+            nonAccepted.sync(serviceId, singleColumnRows(service.getNonAcceptedItems()));
+            guidelines.sync(serviceId, singleColumnRows(service.getDonationGuidelines()));
+        }
+
+        for (ChildTableSync sync : List.of(hours, accepted, nonAccepted, guidelines)) {
+            sync.executeBatches();
+        }
+        List<LocalService> written = new ArrayList<>(services);
+        pool.afterCommit(() -> written.forEach(LocalService::clearDirtyFields));
+    }
+
+    private void bindServiceColumns(PreparedStatement pstmt, LocalService service, int first) throws SQLException {
+        pstmt.setString(first, service.getDescription());
+        pstmt.setString(first + 1, service.getAddress());
+        pstmt.setString(first + 2, service.getContactInfo());
+        pstmt.setDouble(first + 3, service.getLatitude());
+        pstmt.setDouble(first + 4, service.getLongitude());
+        pstmt.setInt(first + 5, service.isPickupAvailable() ? 1 : 0);
+        pstmt.setDouble(first + 6, service.getPickupRadius());
+        pstmt.setInt(first + 7, service.acceptsFoodDonations() ? 1 : 0);
+        pstmt.setString(first + 8, service.getType().toString());
+    }
+
+    private static List<List<String>> singleColumnRows(List<String> values) {
+        List<List<String>> rows = new ArrayList<>();
+        if (values != null) {
+            for (String value : values) {
+                rows.add(List.of(value));
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Brings one child table of a service in line with the desired rows by
+     * deleting and inserting only the difference. Rows compare as lists of
+     * column text, counting duplicates. Deletes and inserts are batched and
+     * run by executeBatches at the end of the save.
+     */
+    private static class ChildTableSync {
+        private final PreparedStatement selectStmt;
+        private final PreparedStatement deleteStmt;
+        private final PreparedStatement insertStmt;
+        private final int columnCount;
+
+        ChildTableSync(ConnectionPool.Lease lease, String table, String... columns) throws SQLException {
+            String columnList = String.join(", ", columns);
+            this.selectStmt = lease.prepare("SELECT id, " + columnList + " FROM " + table + " WHERE serviceId = ?");
+            this.deleteStmt = lease.prepare("DELETE FROM " + table + " WHERE id = ?");
+            this.insertStmt = lease.prepare("INSERT INTO " + table + " (serviceId, " + columnList + ") VALUES (?"
+                    + ", ?".repeat(columns.length) + ")");
+            this.columnCount = columns.length;
+        }
+
+        void sync(long serviceId, List<List<String>> desired) throws SQLException {
+            // Stored row ids grouped by row content
+            Map<List<String>, List<Long>> stored = new HashMap<>();
+            selectStmt.setLong(1, serviceId);
+            try (ResultSet rs = selectStmt.executeQuery()) {
+                while (rs.next()) {
+                    List<String> row = new ArrayList<>(columnCount);
+                    for (int i = 0; i < columnCount; i++) {
+                        row.add(rs.getString(i + 2));
                     }
+                    stored.computeIfAbsent(row, k -> new ArrayList<>()).add(rs.getLong(1));
                 }
             }
-            
-            connection.commit();
-        } catch (SQLException e) {
-            try {
-                // Rollback the transaction
-                connection.rollback();
-            } catch (SQLException rollbackEx) {
-                System.err.println("Error during rollback: " + rollbackEx.getMessage());
+
+            for (List<String> row : desired) {
+                List<Long> ids = stored.get(row);
+                if (ids != null && !ids.isEmpty()) {
+                    ids.remove(ids.size() - 1); // Already stored, keep it
+                    continue;
+                }
+                insertStmt.setLong(1, serviceId);
+                for (int i = 0; i < columnCount; i++) {
+                    insertStmt.setString(i + 2, row.get(i));
+                }
+                insertStmt.addBatch();
             }
-            System.err.println("Error saving local service: " + e.getMessage());
-        } finally {
-            try {
-                // Only reset auto-commit if we changed it
-                if (connection.getAutoCommit() != previousAutoCommit) {
-                    connection.setAutoCommit(previousAutoCommit);
+
+            for (List<Long> ids : stored.values()) {
+                for (long id : ids) {
+                    deleteStmt.setLong(1, id);
+                    deleteStmt.addBatch();
                 }
-            } catch (SQLException e) {
-                System.err.println("Error resetting auto-commit: " + e.getMessage());
             }
         }
+
+        void executeBatches() throws SQLException {
+            deleteStmt.executeBatch();
+            insertStmt.executeBatch();
+        }
     }
 
     public List<LocalService> getAllLocalServices() {
-        List<LocalService> services = new ArrayList<>();
-        String sql = "SELECT * FROM services";
-        
-        try (Statement stmt = connection.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
-            
-            while (rs.next()) {
-                LocalService service = new LocalService();
-                service.setName(rs.getString("name"));
-                service.setDescription(rs.getString("description"));
-                service.setAddress(rs.getString("address"));
-                service.setContactInfo(rs.getString("contactInfo"));
-                service.setLatitude(rs.getDouble("latitude"));
-                service.setLongitude(rs.getDouble("longitude"));
-                service.setPickupAvailable(rs.getInt("pickupAvailable") == 1);
-                service.setPickupRadius(rs.getDouble("pickupRadius"));
-                service.setType(ServiceType.valueOf(rs.getString("serviceType")));
-                service.setAcceptsFoodDonations(rs.getInt("acceptsFoodDonations") == 1);
-                
-                // Get operating hours for this service
-                long serviceId = rs.getLong("id");
-                OperatingHours hours = getOperatingHoursForService(serviceId);
-                service.setHours(hours);
-                
-                // Get accepted items
-                loadAcceptedItemsForService(service, serviceId);
-                
-                // Get non-accepted items
-                loadNonAcceptedItemsForService(service, serviceId);
-                
-                // Get donation guidelines
-                loadDonationGuidelinesForService(service, serviceId);
-                
-                services.add(service);
-            }
+        try (ConnectionPool.Lease lease = pool.reader()) {
+            ServiceCatalogLoader loader = new ServiceCatalogLoader(lease);
+            List<LocalService> services = loader.loadAll();
+            lastCatalogQueryCount = loader.getQueryCount();
+            return services;
         } catch (SQLException e) {
             System.err.println("Error getting all local services: " + e.getMessage());
         }
         
-        return services;
+        return new ArrayList<>();
     }
 
-    private OperatingHours getOperatingHoursForService(long serviceId) {
-        String sql = "SELECT * FROM operating_hours WHERE serviceId = ?";
-        OperatingHours hours = new OperatingHours();
-        
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setLong(1, serviceId);
-            ResultSet rs = pstmt.executeQuery();
-            
+    /**
+     * Get the number of queries the most recent catalog load issued.
+     * Loading is a fixed number of queries regardless of catalog size.
+     *
+     * @return The query count of the last getAllLocalServices call
+     */
+    public int getLastCatalogQueryCount() {
+        return lastCatalogQueryCount;
+    }
+
+    // Full-text search
+
+    /**
+     * Find a user's food items whose name or description matches the text,
+     * best match first. Each word matches as a word prefix, not as an
+     * arbitrary substring. Only written rows are searched; queued saves
+     * are not visible until the write-behind queue is flushed.
+     *
+     * @param user The owner of the items
+     * @param text The search text as typed
+     * @param limit Maximum number of results
+     * @return The UUIDs of the matching items, best match first
+     */
+    public List<UUID> searchFoodItemIds(User user, String text, int limit) {
+        List<UUID> ids = new ArrayList<>();
+        String match = toPrefixQuery(text);
+        if (match == null) {
+            return ids;
+        }
+
+        String sql = """
+            SELECT f.uuid FROM food_items_fts
+            JOIN food_items f ON f.id = food_items_fts.rowid
+            WHERE food_items_fts MATCH ? AND f.userId = (SELECT id FROM users WHERE username = ?)
+            ORDER BY food_items_fts.rank
+            LIMIT ?
+        """;
+        try (ConnectionPool.Lease lease = pool.reader();
+             ResultSet rs = lease.query(sql, match, user.getUsername(), limit)) {
             while (rs.next()) {
-                int dayOfWeek = rs.getInt("dayOfWeek");
-                String openTimeStr = rs.getString("openTime");
-                String closeTimeStr = rs.getString("closeTime");
-                
-                // Convert time strings to LocalTime
-                OperatingHours.TimeSlot slot = new OperatingHours.TimeSlot(openTimeStr, closeTimeStr);
-                hours.setTimeSlotForDay(dayOfWeek, slot);
+                String uuid = rs.getString(1);
+                if (uuid != null) {
+                    ids.add(UUID.fromString(uuid));
+                }
             }
         } catch (SQLException e) {
-            System.err.println("Error getting operating hours: " + e.getMessage());
+            System.err.println("Error searching food items: " + e.getMessage());
         }
-        
-        return hours;
+
+        return ids;
     }
 
-    // Event operations
-    public void saveEvent(ScheduledEvent event) {
-        String sql = "INSERT OR REPLACE INTO events (title, description, location, startTime, endTime, serviceId) " +
-                     "VALUES (?, ?, ?, ?, ?, (SELECT id FROM services WHERE name = ?))";
-        
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setString(1, event.getTitle());
-            pstmt.setString(2, event.getDescription());
-            pstmt.setString(3, event.getLocation());
-            pstmt.setString(4, event.getStartTime().toString());
-            pstmt.setString(5, event.getEndTime().toString());
-            pstmt.setString(6, event.getHostingService().getName());
-            pstmt.executeUpdate();
-        } catch (SQLException e) {
-            System.err.println("Error saving event: " + e.getMessage());
+    /**
+     * Find food items of all users matching the text, best match first
+     *
+     * @param text The search text as typed; each word matches as a prefix
+     * @param limit Maximum number of results
+     * @return The matching items with their owners
+     */
+    public List<FoodItem> searchFoodItems(String text, int limit) {
+        String match = toPrefixQuery(text);
+        if (match == null) {
+            return new ArrayList<>();
+        }
+
+        String sql = """
+            SELECT f.*, u.username AS ownerUsername FROM food_items_fts
+            JOIN food_items f ON f.id = food_items_fts.rowid
+            LEFT JOIN users u ON f.userId = u.id
+            WHERE food_items_fts MATCH ?
+            ORDER BY food_items_fts.rank
+            LIMIT ?
+        """;
+        try (Stream<FoodItem> items = streamFoodItemRows(sql, new Object[] {match, limit})) {
+            return items.collect(Collectors.toCollection(ArrayList::new));
         }
     }
 
-    public List<ScheduledEvent> getAllEvents() {
-        List<ScheduledEvent> events = new ArrayList<>();
-        String sql = "SELECT e.*, s.name as serviceName FROM events e JOIN services s ON e.serviceId = s.id";
-        
-        try (Statement stmt = connection.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
-            
+    /**
+     * Find services whose name, description, address or accepted items
+     * match the text, best match first
+     *
+     * @param text The search text as typed; each word matches as a prefix
+     * @param limit Maximum number of results
+     * @return The names of the matching services, best match first
+     */
+    public List<String> searchServiceNames(String text, int limit) {
+        List<String> names = new ArrayList<>();
+        String match = toPrefixQuery(text);
+        if (match == null) {
+            return names;
+        }
+
+        String sql = """
+            SELECT s.name FROM services_fts
+            JOIN services s ON s.id = services_fts.rowid
+            WHERE services_fts MATCH ?
+            ORDER BY services_fts.rank
+            LIMIT ?
+        """;
+        try (ConnectionPool.Lease lease = pool.reader();
+             ResultSet rs = lease.query(sql, match, limit)) {
             while (rs.next()) {
-                ScheduledEvent event = new ScheduledEvent();
-                event.setTitle(rs.getString("title"));
-                event.setDescription(rs.getString("description"));
-                event.setLocation(rs.getString("location"));
-                event.setStartTime(LocalDateTime.parse(rs.getString("startTime")));
-                event.setEndTime(LocalDateTime.parse(rs.getString("endTime")));
-                
-                String serviceName = rs.getString("serviceName");
-                LocalService service = getServiceByName(serviceName);
-                event.setHostingService(service);
-                
-                events.add(event);
+                names.add(rs.getString(1));
             }
         } catch (SQLException e) {
-            System.err.println("Error getting all events: " + e.getMessage());
+            System.err.println("Error searching services: " + e.getMessage());
         }
-        
-        return events;
+
+        return names;
     }
 
-    private LocalService getServiceByName(String name) {
-        String sql = "SELECT * FROM services WHERE name = ?";
-        
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setString(1, name);
-            ResultSet rs = pstmt.executeQuery();
-            
-            if (rs.next()) {
-                LocalService service = new LocalService();
-                service.setName(rs.getString("name"));
-                service.setDescription(rs.getString("description"));
-                service.setAddress(rs.getString("address"));
-                service.setContactInfo(rs.getString("contactInfo"));
-                service.setLatitude(rs.getDouble("latitude"));
-                service.setLongitude(rs.getDouble("longitude"));
-                service.setPickupAvailable(rs.getInt("pickupAvailable") == 1);
-                service.setPickupRadius(rs.getDouble("pickupRadius"));
-                service.setType(ServiceType.valueOf(rs.getString("serviceType")));
-                service.setAcceptsFoodDonations(rs.getInt("acceptsFoodDonations") == 1);
-                
-                // Get operating hours for this service
-                long serviceId = rs.getLong("id");
-                OperatingHours hours = getOperatingHoursForService(serviceId);
-                service.setHours(hours);
-                
-                // Get accepted items
-                loadAcceptedItemsForService(service, serviceId);
-                
-                // Get non-accepted items
-                loadNonAcceptedItemsForService(service, serviceId);
-                
-                // Get donation guidelines
-                loadDonationGuidelinesForService(service, serviceId);
-                
-                return service;
+    /**
+     * Turn typed text into an FTS5 query where every word is a quoted
+     * prefix term, so punctuation in the input is never parsed as query
+     * syntax
+     *
+     * @return The MATCH expression, or null if the text has no words
+     */
+    private static String toPrefixQuery(String text) {
+        if (text == null) {
+            return null;
+        }
+        StringBuilder query = new StringBuilder();
+        for (String word : text.trim().split("\\s+")) {
+            if (word.isEmpty()) {
+                continue;
             }
-        } catch (SQLException e) {
-            System.err.println("Error getting service by name: " + e.getMessage());
+            if (query.length() > 0) {
+                query.append(' ');
+            }
+            query.append('"').append(word.replace("\"", "\"\"")).append("\"*");
         }
-        
-        return null;
+        return query.length() > 0 ? query.toString() : null;
     }
-    
+
+    // Change tracking
+
     /**
-     * Load accepted items for a service
-     * 
-     * @param service The service to load items for
-     * @param serviceId The service ID
+     * Write only the user's changed columns. The row is found by the
+     * username it was stored under, so a rename updates it in place. A user
+     * not yet in the database is saved in full.
+     *
+     * @param user The user to flush
      */
-    private void loadAcceptedItemsForService(LocalService service, long serviceId) {
-        String sql = "SELECT itemName FROM accepted_items WHERE serviceId = ?";
-        
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setLong(1, serviceId);
-            ResultSet rs = pstmt.executeQuery();
-            
-            while (rs.next()) {
-                service.addAcceptedItem(rs.getString("itemName"));
+    public void flushChanges(User user) {
+        int dirty = user.getDirtyFields();
+        if (dirty == 0) {
+            return;
+        }
+        String storedUsername = user.getStoredUsername();
+        Map<String, Object> changes = new LinkedHashMap<>();
+        putIfDirty(changes, dirty, User.FIELD_USERNAME, "username = ?", user.getUsername());
+        putIfDirty(changes, dirty, User.FIELD_PASSWORD, "password = ?", user.getPassword());
+        putIfDirty(changes, dirty, User.FIELD_NAME, "name = ?", user.getName());
+        putIfDirty(changes, dirty, User.FIELD_EMAIL, "email = ?", user.getEmail());
+        putIfDirty(changes, dirty, User.FIELD_LOCATION, "location = ?", user.getLocation());
+        putIfDirty(changes, dirty, User.FIELD_LATITUDE, "latitude = ?", user.getLatitude());
+        putIfDirty(changes, dirty, User.FIELD_LONGITUDE, "longitude = ?", user.getLongitude());
+        putIfDirty(changes, dirty, User.FIELD_REMEMBER_ME, "remember_me = ?", user.isRememberMe() ? 1 : 0);
+        flushColumns("users", "username = ?", storedUsername, changes, user,
+                () -> saveUsers(List.of(user)));
+        if (!Objects.equals(storedUsername, user.getUsername())) {
+            userCache.invalidate(storedUsername);
+        }
+        userCache.put(user);
+    }
+
+    /**
+     * Write only the food item's changed columns, e.g. a single status flip.
+     * An item not yet in the database is saved in full.
+     *
+     * @param item The food item to flush
+     */
+    public void flushChanges(FoodItem item) {
+        int dirty = item.getDirtyFields();
+        if (dirty == 0) {
+            return;
+        }
+        if (item.getId() == null) {
+            saveFoodItems(List.of(item));
+            return;
+        }
+        Map<String, Object> changes = new LinkedHashMap<>();
+        putIfDirty(changes, dirty, FoodItem.FIELD_NAME, "name = ?", item.getName());
+        putIfDirty(changes, dirty, FoodItem.FIELD_QUANTITY, "quantity = ?", item.getQuantity());
+        putIfDirty(changes, dirty, FoodItem.FIELD_QUANTITY_UNIT, "quantityUnit = ?", item.getQuantityUnit());
+        putIfDirty(changes, dirty, FoodItem.FIELD_EXPIRY_DATE, "expirationDate = ?", Timestamps.toEpochMillis(item.getExpiryDate()));
+        putIfDirty(changes, dirty, FoodItem.FIELD_CATEGORY, "category = ?", Objects.toString(item.getCategory(), null));
+        putIfDirty(changes, dirty, FoodItem.FIELD_STATUS, "status = ?", Objects.toString(item.getStatus(), null));
+        putIfDirty(changes, dirty, FoodItem.FIELD_DESCRIPTION, "description = ?", item.getDescription());
+        putIfDirty(changes, dirty, FoodItem.FIELD_OWNER, "userId = (SELECT id FROM users WHERE username = ?)",
+                item.getOwner() != null ? item.getOwner().getUsername() : null);
+        flushColumns("food_items", "uuid = ?", item.getId().toString(), changes, item,
+                () -> saveFoodItems(List.of(item)));
+    }
+
+    /**
+     * Write only the service's changed scalar columns. The row is found by
+     * its id, so a rename updates it in place. A service not yet in the
+     * database is saved in full.
+     *
+     * @param service The service to flush
+     */
+    public void flushChanges(LocalService service) {
+        int dirty = service.getDirtyFields();
+        if (dirty == 0) {
+            return;
+        }
+        if (service.getDatabaseId() == null) {
+            saveLocalService(service);
+            return;
+        }
+        Map<String, Object> changes = new LinkedHashMap<>();
+        putIfDirty(changes, dirty, LocalService.FIELD_NAME, "name = ?", service.getName());
+        putIfDirty(changes, dirty, LocalService.FIELD_DESCRIPTION, "description = ?", service.getDescription());
+        putIfDirty(changes, dirty, LocalService.FIELD_ADDRESS, "address = ?", service.getAddress());
+        putIfDirty(changes, dirty, LocalService.FIELD_CONTACT_INFO, "contactInfo = ?", service.getContactInfo());
+        putIfDirty(changes, dirty, LocalService.FIELD_LATITUDE, "latitude = ?", service.getLatitude());
+        putIfDirty(changes, dirty, LocalService.FIELD_LONGITUDE, "longitude = ?", service.getLongitude());
+        putIfDirty(changes, dirty, LocalService.FIELD_PICKUP_AVAILABLE, "pickupAvailable = ?", service.isPickupAvailable() ? 1 : 0);
+        putIfDirty(changes, dirty, LocalService.FIELD_PICKUP_RADIUS, "pickupRadius = ?", service.getPickupRadius());
+        putIfDirty(changes, dirty, LocalService.FIELD_ACCEPTS_FOOD_DONATIONS, "acceptsFoodDonations = ?", service.acceptsFoodDonations() ? 1 : 0);
+        putIfDirty(changes, dirty, LocalService.FIELD_TYPE, "serviceType = ?", service.getType().toString());
+        flushColumns("services", "id = ?", service.getDatabaseId(), changes, service,
+                () -> saveLocalService(service));
+    }
+
+    private static void putIfDirty(Map<String, Object> changes, int dirty, int field, String assignment, Object value) {
+        if ((dirty & field) != 0) {
+            changes.put(assignment, value);
+        }
+    }
+
+    /**
+     * Run one UPDATE setting just the given columns. If no row matched,
+     * the entity has never been stored and insertMissing writes it instead.
+     */
+    private void flushColumns(String table, String keyCondition, Object key, Map<String, Object> changes,
+                              ChangeTracked entity, Runnable insertMissing) {
+        String sql = "UPDATE " + table + " SET " + String.join(", ", changes.keySet()) + " WHERE " + keyCondition;
+        int rowsAffected;
+        try (ConnectionPool.Lease lease = pool.writer()) {
+            PreparedStatement pstmt = lease.prepare(sql);
+            int index = 1;
+            for (Object value : changes.values()) {
+                pstmt.setObject(index++, value);
+            }
+            pstmt.setObject(index, key);
+            rowsAffected = pstmt.executeUpdate();
+            if (rowsAffected > 0) {
+                pool.afterCommit(entity::clearDirtyFields);
             }
         } catch (SQLException e) {
-            System.err.println("Error loading accepted items: " + e.getMessage());
+            writeFailed("flushing changes to " + table, e);
+            return;
+        }
+
+        if (rowsAffected == 0) {
+            insertMissing.run();
         }
     }
-    
+
+    // Event operations
+    public void saveEvent(ScheduledEvent event) {
+        runInTransaction("saving event", lease -> writeEvent(lease, event));
+    }
+
+    private void writeEvent(ConnectionPool.Lease lease, ScheduledEvent event) throws SQLException {
+        // Linked items need rows before event_items can reference them;
+        // unchanged items are skipped by the upsert. writeFoodItems skips
+        // items without an owner, so they belong to the event's user.
+        List<FoodItem> items = event.getFoodItems();
+        for (FoodItem item : items) {
+            if (item.getOwner() == null) {
+                if (event.getUser() == null) {
+                    throw new SQLException("Food item " + item.getName() + " has no owner and event "
+                            + event.getId() + " has no user");
+                }
+                item.setOwner(event.getUser());
+            }
+        }
+        writeFoodItems(lease, items);
+
+        LocalService service = event.getService() != null ? event.getService() : event.getHostingService();
+        Long serviceId = findServiceId(lease, service);
+        // Events created with only a scheduled time start at that time
+        LocalDateTime startTime = event.getStartTime() != null ? event.getStartTime() : event.getScheduledTime();
+
+        PreparedStatement pstmt = lease.prepare(SAVE_EVENT_SQL);
+        pstmt.setString(1, event.getId().toString());
+        pstmt.setString(2, event.getTitle());
+        pstmt.setString(3, event.getDescription());
+        pstmt.setString(4, event.getLocation());
+        setEpochMillis(pstmt, 5, startTime);
+        setEpochMillis(pstmt, 6, event.getEndTime());
+        if (serviceId != null) {
+            pstmt.setLong(7, serviceId);
+        } else {
+            pstmt.setNull(7, Types.INTEGER);
+        }
+        pstmt.setString(8, event.getUser() != null ? event.getUser().getUsername() : null);
+        pstmt.setString(9, Objects.toString(event.getEventType(), null));
+        pstmt.setString(10, Objects.toString(event.getStatus(), null));
+        pstmt.setString(11, event.getNotes());
+        setEpochMillis(pstmt, 12, event.getScheduledTime());
+        pstmt.executeUpdate();
+
+        long eventId;
+        try (ResultSet rs = lease.query("SELECT id FROM events WHERE uuid = ?", event.getId().toString())) {
+            if (!rs.next()) {
+                throw new SQLException("Saved event not found: " + event.getId());
+            }
+            eventId = rs.getLong(1);
+        }
+
+        // Link and unlink only the items that changed
+        Set<String> wanted = new HashSet<>();
+        for (FoodItem item : items) {
+            if (item.getId() != null) {
+                wanted.add(item.getId().toString());
+            }
+        }
+        Set<String> linked = new HashSet<>();
+        try (ResultSet rs = lease.query("SELECT f.uuid FROM event_items ei JOIN food_items f ON f.id = ei.foodItemId "
+                + "WHERE ei.eventId = ?", eventId)) {
+            while (rs.next()) {
+                linked.add(rs.getString(1));
+            }
+        }
+
+        PreparedStatement unlinkStmt = lease.prepare(
+                "DELETE FROM event_items WHERE eventId = ? AND foodItemId = (SELECT id FROM food_items WHERE uuid = ?)");
+        for (String uuid : linked) {
+            if (!wanted.contains(uuid)) {
+                unlinkStmt.setLong(1, eventId);
+                unlinkStmt.setString(2, uuid);
+                unlinkStmt.addBatch();
+            }
+        }
+        unlinkStmt.executeBatch();
+
+        PreparedStatement linkStmt = lease.prepare(
+                "INSERT OR IGNORE INTO event_items (eventId, foodItemId) SELECT ?, id FROM food_items WHERE uuid = ?");
+        for (String uuid : wanted) {
+            if (!linked.contains(uuid)) {
+                linkStmt.setLong(1, eventId);
+                linkStmt.setString(2, uuid);
+                linkStmt.addBatch();
+            }
+        }
+        linkStmt.executeBatch();
+    }
+
     /**
-     * Load non-accepted items for a service
-     * 
-     * @param service The service to load items for
-     * @param serviceId The service ID
+     * Get the services row id for a service, looking it up by name only
+     * for services that were never loaded from or saved to the database
      */
-    private void loadNonAcceptedItemsForService(LocalService service, long serviceId) {
-        String sql = "SELECT itemName FROM non_accepted_items WHERE serviceId = ?";
-        
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setLong(1, serviceId);
-            ResultSet rs = pstmt.executeQuery();
-            
-            while (rs.next()) {
-                service.addNonAcceptedItem(rs.getString("itemName"));
+    private Long findServiceId(ConnectionPool.Lease lease, LocalService service) throws SQLException {
+        if (service == null) {
+            return null;
+        }
+        if (service.getDatabaseId() != null) {
+            return service.getDatabaseId();
+        }
+        try (ResultSet rs = lease.query("SELECT id FROM services WHERE name = ?", service.getName())) {
+            if (rs.next()) {
+                service.setDatabaseId(rs.getLong(1));
             }
+        }
+        return service.getDatabaseId();
+    }
+
+    public List<ScheduledEvent> getAllEvents() {
+        return loadEvents("s.id IS NOT NULL", null);
+    }
+
+    /**
+     * Find events starting in [from, to), earliest first.
+     * Answered by a range scan on the start-time index.
+     *
+     * @param from Start of the window, inclusive
+     * @param to End of the window, exclusive
+     * @return The matching events
+     */
+    public List<ScheduledEvent> findEventsBetween(LocalDateTime from, LocalDateTime to) {
+        return loadEvents("e.startTime >= ? AND e.startTime < ?", "e.startTime",
+                Timestamps.toEpochMillis(from), Timestamps.toEpochMillis(to));
+    }
+
+    /**
+     * Find a service's events starting in [from, to), earliest first.
+     * Answered by a range scan on the (serviceId, startTime) index.
+     *
+     * @param service The hosting service
+     * @param from Start of the window, inclusive
+     * @param to End of the window, exclusive
+     * @return The matching events with their food items
+     */
+    public List<ScheduledEvent> findEventsForService(LocalService service, LocalDateTime from, LocalDateTime to) {
+        Long serviceId;
+        try (ConnectionPool.Lease lease = pool.reader()) {
+            serviceId = findServiceId(lease, service);
         } catch (SQLException e) {
-            System.err.println("Error loading non-accepted items: " + e.getMessage());
+            System.err.println("Error finding events for service: " + e.getMessage());
+            return new ArrayList<>();
         }
+        if (serviceId == null) {
+            return new ArrayList<>();
+        }
+        return loadEvents("e.serviceId = ? AND e.startTime >= ? AND e.startTime < ?", "e.startTime",
+                serviceId, Timestamps.toEpochMillis(from), Timestamps.toEpochMillis(to));
     }
-    
+
     /**
-     * Load donation guidelines for a service
-     * 
-     * @param service The service to load guidelines for
-     * @param serviceId The service ID
+     * Load events with their food items: one query for the events, one
+     * catalog load for their services and one query for the items of all
+     * of them through event_items. Users are looked up once per load.
+     *
+     * @param filter Optional SQL condition; events is aliased e and services s
+     * @param orderBy Optional ORDER BY columns, applied to the events query only
+     * @param params Values for the filter's parameters
+     * @return The events in query order
      */
-    private void loadDonationGuidelinesForService(LocalService service, long serviceId) {
-        String sql = "SELECT guideline FROM donation_guidelines WHERE serviceId = ?";
-        
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setLong(1, serviceId);
-            ResultSet rs = pstmt.executeQuery();
-            
-            while (rs.next()) {
-                service.addDonationGuideline(rs.getString("guideline"));
+    private List<ScheduledEvent> loadEvents(String filter, String orderBy, Object... params) {
+        String where = filter != null ? " WHERE " + filter : "";
+        String eventsSql = EVENT_SELECT_SQL + where + (orderBy != null ? " ORDER BY " + orderBy : "");
+        String itemsSql = "SELECT ei.eventId, f.*, u.username AS ownerUsername FROM event_items ei "
+                + "JOIN food_items f ON f.id = ei.foodItemId LEFT JOIN users u ON f.userId = u.id "
+                + "WHERE ei.eventId IN (SELECT e.id FROM events e LEFT JOIN services s ON e.serviceId = s.id" + where + ")";
+
+        Map<Long, ScheduledEvent> byId = new LinkedHashMap<>();
+        try (ConnectionPool.Lease lease = pool.reader()) {
+            Map<Long, LocalService> services = loadEventServices(lease, where, params);
+            Map<String, User> users = new HashMap<>();
+            try (ResultSet rs = lease.query(eventsSql, params)) {
+                while (rs.next()) {
+                    byId.put(rs.getLong("id"), mapEvent(rs, lease, services, users));
+                }
+            }
+            if (byId.isEmpty()) {
+                return new ArrayList<>();
+            }
+
+            Map<Long, List<FoodItem>> itemsByEvent = new HashMap<>();
+            try (ResultSet rs = lease.query(itemsSql, params)) {
+                while (rs.next()) {
+                    FoodItem item = mapFoodItem(rs);
+                    String username = rs.getString("ownerUsername");
+                    if (username != null) {
+                        item.setOwner(users.computeIfAbsent(username, name -> findCachedUser(lease, name)));
+                    }
+                    itemsByEvent.computeIfAbsent(rs.getLong("eventId"), id -> new ArrayList<>()).add(item);
+                }
+            }
+            for (Map.Entry<Long, List<FoodItem>> entry : itemsByEvent.entrySet()) {
+                byId.get(entry.getKey()).setFoodItems(entry.getValue());
             }
         } catch (SQLException e) {
-            System.err.println("Error loading donation guidelines: " + e.getMessage());
+            System.err.println("Error loading events: " + e.getMessage());
         }
+
+        return new ArrayList<>(byId.values());
     }
 
-    // Method to initialize the database with sample data
-    public void initializeSampleData() {
-        boolean previousAutoCommit = true;
+    /**
+     * Stream events lazily from an open cursor. The hosting services are
+     * loaded up front in one catalog load. Food items are not loaded; use
+     * the find methods for events with their items. The stream holds a
+     * reader connection until it is closed, so always use try-with-resources.
+     *
+     * @param filter Optional SQL condition; events is aliased e and services s
+     * @param params Values for the filter's parameters
+     * @return A stream of events that must be closed
+     */
+    public Stream<ScheduledEvent> streamEvents(String filter, Object... params) {
+        String where = filter != null ? " WHERE " + filter : "";
+        Map<Long, LocalService> services;
+        try (ConnectionPool.Lease lease = pool.reader()) {
+            services = loadEventServices(lease, where, params);
+        } catch (SQLException e) {
+            System.err.println("Error streaming events: " + e.getMessage());
+            return Stream.empty();
+        }
+        Map<String, User> users = new HashMap<>();
+        return streamRows(EVENT_SELECT_SQL + where, params, "events", (rs, lease) -> mapEvent(rs, lease, services, users));
+    }
+
+    /**
+     * Load the services referenced by the events matching a filter, with
+     * their child rows, in one catalog load
+     *
+     * @param where The events WHERE clause, or an empty string
+     * @param params Values for the clause's parameters
+     * @return The services by row id
+     */
+    private Map<Long, LocalService> loadEventServices(ConnectionPool.Lease lease, String where, Object[] params)
+            throws SQLException {
+        String idQuery = "SELECT e.serviceId FROM events e LEFT JOIN services s ON e.serviceId = s.id" + where;
+        Map<Long, LocalService> services = new HashMap<>();
+        for (LocalService service : new ServiceCatalogLoader(lease).loadByIdQuery(idQuery, params)) {
+            services.put(service.getDatabaseId(), service);
+        }
+        return services;
+    }
+
+    private ScheduledEvent mapEvent(ResultSet rs, ConnectionPool.Lease lease, Map<Long, LocalService> services,
+                                    Map<String, User> users) throws SQLException {
+        ScheduledEvent event = new ScheduledEvent();
+        String uuid = rs.getString("uuid");
+        if (uuid != null) {
+            event.setId(UUID.fromString(uuid));
+        }
+        event.setTitle(rs.getString("title"));
+        event.setDescription(rs.getString("description"));
+        event.setLocation(rs.getString("location"));
+        event.setStartTime(getEpochMillis(rs, "startTime"));
+        event.setEndTime(getEpochMillis(rs, "endTime"));
+        event.setScheduledTime(getEpochMillis(rs, "scheduledTime"));
+        event.setNotes(rs.getString("notes"));
+        String eventType = rs.getString("eventType");
+        if (eventType != null) {
+            event.setEventType(ScheduledEvent.EventType.valueOf(eventType));
+        }
+        String status = rs.getString("status");
+        if (status != null) {
+            event.setStatus(ScheduledEvent.EventStatus.valueOf(status));
+        }
+
+        String username = rs.getString("username");
+        if (username != null) {
+            event.setUser(users.computeIfAbsent(username, name -> findCachedUser(lease, name)));
+        }
+
+        if (rs.getString("serviceName") != null) {
+            LocalService service = services.get(rs.getLong("serviceId"));
+            event.setService(service);
+            event.setHostingService(service);
+        }
+        return event;
+    }
+
+    /**
+     * Maps the current row of a cursor to an object
+     */
+    @FunctionalInterface
+    private interface RowMapper<T> {
+        T map(ResultSet rs, ConnectionPool.Lease lease) throws SQLException;
+    }
+
+    /**
+     * Set the number of rows the driver fetches per round trip for streams
+     *
+     * @param fetchSize Rows per fetch; must be positive
+     */
+    public void setStreamFetchSize(int fetchSize) {
+        if (fetchSize <= 0) {
+            throw new IllegalArgumentException("Fetch size must be positive");
+        }
+        this.streamFetchSize = fetchSize;
+    }
+
+    /**
+     * Open a cursor on a reader connection and expose it as a lazy stream.
+     * Rows are mapped one at a time as the stream advances, so memory use
+     * does not grow with the result size. Closing the stream closes the
+     * cursor and returns the connection to the pool.
+     */
+    private <T> Stream<T> streamRows(String sql, Object[] params, String what, RowMapper<T> mapper) {
+        ConnectionPool.Lease lease;
         try {
-            // Check the current auto-commit mode
-            previousAutoCommit = connection.getAutoCommit();
-            
-            // Only change if it's not already what we want
-            if (previousAutoCommit) {
-                connection.setAutoCommit(false);
-            }
-            
-            // Add sample users
-            for (User user : User.allUsers) {
-                saveUser(user);
-            }
+            lease = pool.detachedReader();
+        } catch (SQLException e) {
+            System.err.println("Error streaming " + what + ": " + e.getMessage());
+            return Stream.empty();
+        }
 
-            // Add sample food items
-            for (FoodItem item : FoodItem.allFoodItems) {
-                saveFoodItem(item);
+        PreparedStatement pstmt = null;
+        ResultSet rs;
+        try {
+            // Not taken from the statement cache: the cursor outlives this call
+            pstmt = lease.connection().prepareStatement(sql);
+            pstmt.setFetchSize(streamFetchSize);
+            for (int i = 0; i < params.length; i++) {
+                pstmt.setObject(i + 1, params[i]);
             }
+            rs = pstmt.executeQuery();
+        } catch (SQLException e) {
+            closeQuietly(pstmt);
+            lease.close();
+            System.err.println("Error streaming " + what + ": " + e.getMessage());
+            return Stream.empty();
+        }
 
-            // Add sample services
-            for (LocalService service : LocalService.availableServices) {
-                saveLocalService(service);
+        PreparedStatement statement = pstmt;
+        Spliterator<T> rows = new Spliterators.AbstractSpliterator<T>(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL) {
+            @Override
+            public boolean tryAdvance(Consumer<? super T> action) {
+                if (Thread.currentThread().isInterrupted()) {
+                    // The async caller cancelled the query; stop at this row
+                    throw new CancellationException("Streaming " + what + " cancelled");
+                }
+                try {
+                    if (!rs.next()) {
+                        return false;
+                    }
+                    action.accept(mapper.map(rs, lease));
+                    return true;
+                } catch (SQLException e) {
+                    System.err.println("Error streaming " + what + ": " + e.getMessage());
+                    return false;
+                }
             }
+        };
+
+        return StreamSupport.stream(rows, false).onClose(() -> {
+            closeQuietly(statement);
+            lease.close();
+        });
+    }
 
-            connection.commit();
-            System.out.println("Sample data initialized successfully");
+    private static void closeQuietly(Statement stmt) {
+        if (stmt == null) {
+            return;
+        }
+        try {
+            stmt.close();
         } catch (SQLException e) {
+            System.err.println("Error closing statement: " + e.getMessage());
+        }
+    }
+
+    // Method to initialize the database with sample data
+    public void initializeSampleData() {
+        // Failures are logged by runInTransaction
+        runInTransaction("initializing sample data", lease -> {
+            // Snapshots, since the UI may add users, items or services while this runs
+            writeUsers(lease, UserRegistry.getInstance().getAll());
+            writeFoodItems(lease, FoodItem.getAllFoodItems());
+            writeLocalServices(lease, ServiceRegistry.getInstance().getAll());
+        });
+    }
+
+    /**
+     * Report a failed write. Inside a caller's transaction the error is
+     * rethrown so the caller can roll back; otherwise it is logged.
+     */
+    private void writeFailed(String action, SQLException e) {
+        if (pool.writerInTransaction()) {
+            throw new DatabaseWriteException(action, e);
+        }
+        System.err.println("Error " + action + ": " + e.getMessage());
+    }
+
+    /**
+     * Work run against the writer connection inside a transaction
+     */
+    @FunctionalInterface
+    private interface TransactionWork {
+        void run(ConnectionPool.Lease lease) throws SQLException;
+    }
+
+    /**
+     * Run work on the writer connection in a single transaction. If the
+     * writer is already inside a transaction the work joins it, the outer
+     * caller decides whether to commit, and an SQL error is rethrown as a
+     * DatabaseWriteException so the caller can roll the work back.
+     *
+     * @param action Description used in error messages
+     * @param work The work to run
+     * @return true if the work completed without an SQL error
+     * @throws DatabaseWriteException if the work failed inside a caller's transaction
+     */
+    private boolean runInTransaction(String action, TransactionWork work) {
+        try (ConnectionPool.Lease lease = pool.writer()) {
+            Connection connection = lease.connection();
+            boolean previousAutoCommit = true;
             try {
-                // Rollback the transaction
-                connection.rollback();
-            } catch (SQLException rollbackEx) {
-                System.err.println("Error during rollback: " + rollbackEx.getMessage());
-            }
-            System.err.println("Error initializing sample data: " + e.getMessage());
-        } finally {
-            try {
-                // Only reset auto-commit if we changed it
-                if (connection.getAutoCommit() != previousAutoCommit) {
-                    connection.setAutoCommit(previousAutoCommit);
+                previousAutoCommit = connection.getAutoCommit();
+                if (!previousAutoCommit) {
+                    work.run(lease);
+                    return true;
+                }
+
+                connection.setAutoCommit(false);
+                work.run(lease);
+                connection.commit();
+                pool.runCommitActions();
+                return true;
+            } catch (SQLException | RuntimeException e) {
+                try {
+                    // Rollback the transaction
+                    if (previousAutoCommit) {
+                        pool.discardCommitActions(0);
+                        connection.rollback();
+                    }
+                } catch (SQLException rollbackEx) {
+                    System.err.println("Error during rollback: " + rollbackEx.getMessage());
+                }
+                if (e instanceof RuntimeException runtimeException) {
+                    throw runtimeException;
+                }
+                if (!previousAutoCommit) {
+                    throw new DatabaseWriteException(action, (SQLException) e);
+                }
+                System.err.println("Error " + action + ": " + e.getMessage());
+                return false;
+            } finally {
+                try {
+                    // Only reset auto-commit if we changed it
+                    if (connection.getAutoCommit() != previousAutoCommit) {
+                        connection.setAutoCommit(previousAutoCommit);
+                    }
+                } catch (SQLException e) {
+                    System.err.println("Error resetting auto-commit: " + e.getMessage());
                 }
-            } catch (SQLException e) {
-                System.err.println("Error resetting auto-commit: " + e.getMessage());
             }
         }
     }
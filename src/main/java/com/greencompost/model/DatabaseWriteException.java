@@ -0,0 +1,22 @@
+package com.greencompost.model;
+
+import java.sql.SQLException;
+
+/**
+ * Thrown when a write fails inside a transaction owned by a caller, e.g. a
+ * write-behind batch, so the caller can roll back the partial write instead
+ * of committing it. Writes outside such a transaction log their errors.
+ */
+public class DatabaseWriteException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Create an exception for a failed write
+     *
+     * @param action Description of the write, e.g. "saving event"
+     * @param cause The underlying SQL error
+     */
+    public DatabaseWriteException(String action, SQLException cause) {
+        super("Error " + action + ": " + cause.getMessage(), cause);
+    }
+}
@@ -0,0 +1,293 @@
+package com.greencompost.model;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.greencompost.User;
+import com.greencompost.controller.FoodItem;
+import com.greencompost.controller.FoodItem.FoodCategory;
+import com.greencompost.controller.FoodItem.ItemStatus;
+
+/**
+ * Column-oriented copy of food items for aggregate scans. Each field is a
+ * primitive array indexed by row, so a scan reads contiguous memory instead
+ * of following a LocalDateTime, String and enum pointer per item. Rows are
+ * appended with add(), so a snapshot can grow as items are logged; later
+ * changes to the items already copied are not reflected.
+ */
+public class FoodItemColumns {
+    /**
+     * Stored in the time columns for a missing date
+     */
+    public static final long NO_TIME = Long.MIN_VALUE;
+    /**
+     * Stored in the category, status and owner columns for a missing value
+     */
+    public static final int NONE = -1;
+
+    private static final FoodCategory[] CATEGORIES = FoodCategory.values();
+    private static final ItemStatus[] STATUSES = ItemStatus.values();
+
+    private int size;
+    private long[] expiryEpoch;
+    private long[] createdEpoch;
+    private double[] quantityKg;
+    private byte[] category;
+    private byte[] status;
+    private int[] ownerId;
+    private final Map<User, Integer> ownerIds = new HashMap<>();
+
+    public FoodItemColumns() {
+        this(16);
+    }
+
+    /**
+     * Create empty columns
+     *
+     * @param capacity The number of rows to allocate up front
+     */
+    public FoodItemColumns(int capacity) {
+        int initial = Math.max(capacity, 1);
+        expiryEpoch = new long[initial];
+        createdEpoch = new long[initial];
+        quantityKg = new double[initial];
+        category = new byte[initial];
+        status = new byte[initial];
+        ownerId = new int[initial];
+    }
+
+    /**
+     * Build columns for a collection of items
+     *
+     * @param items The items
+     * @return The columns, one row per item in iteration order
+     */
+    public static FoodItemColumns of(Collection<FoodItem> items) {
+        FoodItemColumns columns = new FoodItemColumns(items.size());
+        for (FoodItem item : items) {
+            columns.add(item);
+        }
+        return columns;
+    }
+
+    /**
+     * Append a row for an item
+     *
+     * @param item The item to copy
+     */
+    public void add(FoodItem item) {
+        if (size == expiryEpoch.length) {
+            grow();
+        }
+        Long expiry = Timestamps.toEpochMillis(item.getExpiryDate());
+        Long created = Timestamps.toEpochMillis(item.getCreatedAt());
+        expiryEpoch[size] = expiry != null ? expiry : NO_TIME;
+        createdEpoch[size] = created != null ? created : NO_TIME;
+        quantityKg[size] = FoodItemStats.toKilograms(item.getQuantity(), item.getQuantityUnit());
+        category[size] = (byte) (item.getCategory() != null ? item.getCategory().ordinal() : NONE);
+        status[size] = (byte) (item.getStatus() != null ? item.getStatus().ordinal() : NONE);
+        ownerId[size] = item.getOwner() != null ? ownerIds.computeIfAbsent(item.getOwner(), u -> ownerIds.size()) : NONE;
+        size++;
+    }
+
+    private void grow() {
+        int capacity = expiryEpoch.length * 2;
+        expiryEpoch = Arrays.copyOf(expiryEpoch, capacity);
+        createdEpoch = Arrays.copyOf(createdEpoch, capacity);
+        quantityKg = Arrays.copyOf(quantityKg, capacity);
+        category = Arrays.copyOf(category, capacity);
+        status = Arrays.copyOf(status, capacity);
+        ownerId = Arrays.copyOf(ownerId, capacity);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Get the owner id used in the owner column
+     *
+     * @param owner The user
+     * @return The id, or NONE if no row belongs to the user
+     */
+    public int ownerId(User owner) {
+        return ownerIds.getOrDefault(owner, NONE);
+    }
+
+    // Scan kernels
+
+    /**
+     * Count rows per category
+     *
+     * @return Counts indexed by FoodCategory ordinal
+     */
+    public int[] countByCategory() {
+        int[] counts = new int[CATEGORIES.length];
+        for (int i = 0; i < size; i++) {
+            int c = category[i];
+            if (c >= 0) {
+                counts[c]++;
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Count rows per status
+     *
+     * @return Counts indexed by ItemStatus ordinal
+     */
+    public int[] countByStatus() {
+        int[] counts = new int[STATUSES.length];
+        for (int i = 0; i < size; i++) {
+            int s = status[i];
+            if (s >= 0) {
+                counts[s]++;
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Sum the kg-normalized quantity per category
+     *
+     * @return Weights in kg indexed by FoodCategory ordinal
+     */
+    public double[] sumKgByCategory() {
+        double[] sums = new double[CATEGORIES.length];
+        for (int i = 0; i < size; i++) {
+            int c = category[i];
+            if (c >= 0) {
+                sums[c] += quantityKg[i];
+            }
+        }
+        return sums;
+    }
+
+    /**
+     * Count rows expiring in [fromMs, toMs)
+     *
+     * @param fromMs Start of the window in epoch milliseconds, inclusive
+     * @param toMs End of the window in epoch milliseconds, exclusive
+     * @return The number of rows
+     */
+    public int countExpiringBetween(long fromMs, long toMs) {
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            long expiry = expiryEpoch[i];
+            // NO_TIME is below any window
+            count += (expiry >= fromMs && expiry < toMs) ? 1 : 0;
+        }
+        return count;
+    }
+
+    /**
+     * Count one owner's rows expiring in [fromMs, toMs)
+     *
+     * @param owner The owning user
+     * @param fromMs Start of the window in epoch milliseconds, inclusive
+     * @param toMs End of the window in epoch milliseconds, exclusive
+     * @return The number of rows
+     */
+    public int countExpiringBetween(User owner, long fromMs, long toMs) {
+        int id = ownerId(owner);
+        if (id == NONE) {
+            return 0;
+        }
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            long expiry = expiryEpoch[i];
+            count += (ownerId[i] == id && expiry >= fromMs && expiry < toMs) ? 1 : 0;
+        }
+        return count;
+    }
+
+    /**
+     * Select the rows of one category and status
+     *
+     * @param wantedCategory The category, or null for any
+     * @param wantedStatus The status, or null for any
+     * @return The matching row numbers, ascending
+     */
+    public int[] filter(FoodCategory wantedCategory, ItemStatus wantedStatus) {
+        int c = wantedCategory != null ? wantedCategory.ordinal() : NONE;
+        int s = wantedStatus != null ? wantedStatus.ordinal() : NONE;
+        int[] rows = new int[size];
+        int matches = 0;
+        for (int i = 0; i < size; i++) {
+            rows[matches] = i;
+            matches += ((c == NONE || category[i] == c) && (s == NONE || status[i] == s)) ? 1 : 0;
+        }
+        return Arrays.copyOf(rows, matches);
+    }
+
+    /**
+     * Aggregate every row into statistics in one pass, with the same rules
+     * as the SQL statistics queries
+     *
+     * @param now The reference time for expiry and age
+     * @return The statistics
+     */
+    public FoodItemStats stats(LocalDateTime now) {
+        long nowMs = Timestamps.toEpochMillis(now);
+        int statusSlots = STATUSES.length + 1; // Last slot for items without a status
+        int buckets = FoodItemStats.EXPIRY_BUCKETS.size();
+
+        int[] count = new int[CATEGORIES.length * statusSlots];
+        double[] weightKg = new double[count.length];
+        int[] withExpiry = new int[count.length];
+        int[] withCreatedAt = new int[count.length];
+        long[] createdAtSum = new long[count.length];
+        int[] upcoming = new int[CATEGORIES.length * buckets];
+        long[] daysUntilExpiry = new long[upcoming.length];
+        int[] expiringSoon = new int[upcoming.length];
+
+        for (int i = 0; i < size; i++) {
+            int c = category[i];
+            if (c < 0) {
+                continue;
+            }
+            int s = status[i] >= 0 ? status[i] : STATUSES.length;
+            int group = c * statusSlots + s;
+            count[group]++;
+            weightKg[group] += quantityKg[i];
+            long created = createdEpoch[i];
+            if (created != NO_TIME) {
+                withCreatedAt[group]++;
+                createdAtSum[group] += created;
+            }
+            long expiry = expiryEpoch[i];
+            if (expiry == NO_TIME) {
+                continue;
+            }
+            withExpiry[group]++;
+            if (expiry >= nowMs) {
+                int slot = c * buckets + FoodItemStats.upcomingBucket(expiry, nowMs);
+                upcoming[slot]++;
+                daysUntilExpiry[slot] += (expiry - nowMs) / FoodItemStats.DAY_MS;
+                if (expiry > nowMs && expiry < nowMs + FoodItemStats.EXPIRING_SOON_MS) {
+                    expiringSoon[slot]++;
+                }
+            }
+        }
+
+        FoodItemStats stats = new FoodItemStats(nowMs);
+        for (int group = 0; group < count.length; group++) {
+            if (count[group] > 0) {
+                int s = group % statusSlots;
+                stats.addTotals(CATEGORIES[group / statusSlots], s < STATUSES.length ? STATUSES[s] : null,
+                        count[group], weightKg[group], withExpiry[group], withCreatedAt[group], createdAtSum[group]);
+            }
+        }
+        for (int slot = 0; slot < upcoming.length; slot++) {
+            if (upcoming[slot] > 0) {
+                stats.addUpcoming(CATEGORIES[slot / buckets], slot % buckets, upcoming[slot],
+                        daysUntilExpiry[slot], expiringSoon[slot]);
+            }
+        }
+        return stats;
+    }
+}
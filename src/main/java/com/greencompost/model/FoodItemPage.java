@@ -0,0 +1,59 @@
+package com.greencompost.model;
+
+import java.util.List;
+
+import com.greencompost.controller.FoodItem;
+
+/**
+ * One page of a user's food items from a keyset-paginated query
+ *
+ * @param items The items on this page, in the requested order
+ * @param nextKey The key to pass for the following page, or null if this is the last page
+ */
+public record FoodItemPage(List<FoodItem> items, Key nextKey) {
+
+    /**
+     * Position of the last row on a page: its sort column value plus the
+     * row id as a tie-breaker
+     *
+     * @param sortValue The sort column value in epoch milliseconds
+     * @param id The row id
+     */
+    public record Key(long sortValue, long id) {
+    }
+
+    /**
+     * Supported page orderings. Each is served by a (userId, column) index.
+     */
+    public enum SortOrder {
+        EXPIRY_ASC("expirationDate", true),
+        EXPIRY_DESC("expirationDate", false),
+        CREATED_ASC("createdAt", true),
+        CREATED_DESC("createdAt", false);
+
+        private final String column;
+        private final boolean ascending;
+
+        SortOrder(String column, boolean ascending) {
+            this.column = column;
+            this.ascending = ascending;
+        }
+
+        public String getColumn() {
+            return column;
+        }
+
+        public boolean isAscending() {
+            return ascending;
+        }
+    }
+
+    /**
+     * Check whether another page follows this one
+     *
+     * @return true if more items are available
+     */
+    public boolean hasNext() {
+        return nextKey != null;
+    }
+}
@@ -0,0 +1,217 @@
+package com.greencompost.model;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.greencompost.controller.FoodItem;
+import com.greencompost.controller.FoodItem.FoodCategory;
+import com.greencompost.controller.FoodItem.ItemStatus;
+
+/**
+ * Aggregated statistics over a user's food items: counts by category,
+ * status and expiry bucket, plus kg-normalized weights. Built from two kinds
+ * of grouped rows: time-independent totals per category and status (read
+ * from the user_stats table), and counts of not-yet-expired items per
+ * category and expiry bucket. Its size depends only on the number of
+ * groups, never on the number of items.
+ */
+public class FoodItemStats {
+
+    /**
+     * Expiry bucket labels, in the order of the bucket indexes
+     */
+    public static final List<String> EXPIRY_BUCKETS = List.of(
+            "Expired", "Today", "Tomorrow", "This Week", "Next Week", "Later");
+
+    static final long DAY_MS = 24L * 60 * 60 * 1000;
+    static final long EXPIRING_SOON_MS = 48L * 60 * 60 * 1000;
+
+    private static final int EXPIRED = 0;
+    private static final int LATER = 5;
+
+    /**
+     * Totals for one category
+     *
+     * @param count Number of items
+     * @param weightKg Weight of the items measured in kg or g, in kg
+     * @param avgDaysUntilExpiry Mean whole days until expiry, 0 for expired items
+     */
+    public record CategoryTotals(int count, double weightKg, double avgDaysUntilExpiry) {
+    }
+
+    private static final class Totals {
+        int count;
+        double weightKg;
+        int withExpiry;
+        long daysUntilExpiry;
+    }
+
+    private final long nowMs;
+    private final Map<FoodCategory, Totals> categories = new EnumMap<>(FoodCategory.class);
+    private final Map<ItemStatus, Integer> statusCounts = new EnumMap<>(ItemStatus.class);
+    private final int[] upcomingBuckets = new int[EXPIRY_BUCKETS.size()];
+    private int totalItems;
+    private double totalWeightKg;
+    private int withExpiry;
+    private int withCreatedAt;
+    private long createdAtSum;
+    private int expiringSoon;
+
+    /**
+     * Create empty statistics
+     *
+     * @param nowMs The reference time for expiry and age, in epoch milliseconds
+     */
+    public FoodItemStats(long nowMs) {
+        this.nowMs = nowMs;
+    }
+
+    /**
+     * Add the time-independent totals of one category and status group
+     */
+    void addTotals(FoodCategory category, ItemStatus status, int count, double weightKg,
+                   int withExpiry, int withCreatedAt, long createdAtSum) {
+        Totals totals = categories.computeIfAbsent(category, c -> new Totals());
+        totals.count += count;
+        totals.weightKg += weightKg;
+        totals.withExpiry += withExpiry;
+
+        if (status != null) {
+            statusCounts.merge(status, count, Integer::sum);
+        }
+        this.totalItems += count;
+        this.totalWeightKg += weightKg;
+        this.withExpiry += withExpiry;
+        this.withCreatedAt += withCreatedAt;
+        this.createdAtSum += createdAtSum;
+    }
+
+    /**
+     * Add a group of items that have not expired yet
+     */
+    void addUpcoming(FoodCategory category, int bucket, int count, long daysUntilExpiry, int expiringSoon) {
+        categories.computeIfAbsent(category, c -> new Totals()).daysUntilExpiry += daysUntilExpiry;
+        upcomingBuckets[bucket] += count;
+        this.expiringSoon += expiringSoon;
+    }
+
+    /**
+     * Aggregate items already in memory, using the same rules as the SQL
+     * queries. Used for the sample data shown to users without items.
+     *
+     * @param items The items to aggregate
+     * @param now The reference time for expiry and age
+     * @return The statistics
+     */
+    public static FoodItemStats of(Collection<FoodItem> items, LocalDateTime now) {
+        return FoodItemColumns.of(items).stats(now);
+    }
+
+    /**
+     * Get the expiry bucket of an item that has not expired yet
+     */
+    static int upcomingBucket(long expiry, long nowMs) {
+        if (expiry < nowMs + DAY_MS) {
+            return 1;
+        } else if (expiry < nowMs + 2 * DAY_MS) {
+            return 2;
+        } else if (expiry < nowMs + 8 * DAY_MS) {
+            return 3;
+        } else if (expiry < nowMs + 15 * DAY_MS) {
+            return 4;
+        }
+        return LATER;
+    }
+
+    /**
+     * Convert a quantity to kg; units other than kg and g count as 0
+     */
+    static double toKilograms(double quantity, String unit) {
+        if (unit == null) {
+            return 0;
+        }
+        String lower = unit.toLowerCase();
+        if (lower.contains("kg")) {
+            return quantity;
+        } else if (lower.contains("g")) {
+            return quantity / 1000.0;
+        }
+        return 0;
+    }
+
+    public int getTotalItems() {
+        return totalItems;
+    }
+
+    public double getTotalWeightKg() {
+        return totalWeightKg;
+    }
+
+    /**
+     * Get the mean age of the items
+     *
+     * @return Mean days since creation, or 0 if no item has a creation time
+     */
+    public double getAverageAgeDays() {
+        if (withCreatedAt == 0) {
+            return 0;
+        }
+        return (nowMs - (double) createdAtSum / withCreatedAt) / DAY_MS;
+    }
+
+    public int getExpiringSoonCount() {
+        return expiringSoon;
+    }
+
+    public int getStatusCount(ItemStatus status) {
+        return statusCounts.getOrDefault(status, 0);
+    }
+
+    /**
+     * Get the item count per expiry bucket. Items without an expiry date
+     * count as Later.
+     *
+     * @return Counts keyed by bucket label, in EXPIRY_BUCKETS order
+     */
+    public Map<String, Integer> getExpiryBuckets() {
+        int upcoming = 0;
+        for (int count : upcomingBuckets) {
+            upcoming += count;
+        }
+
+        Map<String, Integer> buckets = new LinkedHashMap<>();
+        for (int i = 0; i < upcomingBuckets.length; i++) {
+            int count = upcomingBuckets[i];
+            if (i == EXPIRED) {
+                count = withExpiry - upcoming;
+            } else if (i == LATER) {
+                count += totalItems - withExpiry;
+            }
+            buckets.put(EXPIRY_BUCKETS.get(i), count);
+        }
+        return buckets;
+    }
+
+    /**
+     * Get the totals for each category that has items
+     *
+     * @return Totals keyed by category, in declaration order
+     */
+    public Map<FoodCategory, CategoryTotals> getCategoryTotals() {
+        Map<FoodCategory, CategoryTotals> result = new EnumMap<>(FoodCategory.class);
+        for (Map.Entry<FoodCategory, Totals> entry : categories.entrySet()) {
+            Totals totals = entry.getValue();
+            if (totals.count == 0) {
+                continue;
+            }
+            double avgDays = totals.withExpiry > 0 ? (double) totals.daysUntilExpiry / totals.withExpiry : 0;
+            result.put(entry.getKey(), new CategoryTotals(totals.count, totals.weightKg, avgDays));
+        }
+        return Collections.unmodifiableMap(result);
+    }
+}
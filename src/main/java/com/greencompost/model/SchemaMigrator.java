@@ -0,0 +1,546 @@
+package com.greencompost.model;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Applies versioned schema migrations on top of the base tables created by
+ * DatabaseManager. The applied version is recorded in the schema_version
+ * table, so each migration runs exactly once per database, in order, inside
+ * its own transaction.
+ */
+public class SchemaMigrator {
+
+    private static final Logger LOGGER = Logger.getLogger(SchemaMigrator.class.getName());
+
+    /**
+     * A single schema change
+     */
+    @FunctionalInterface
+    public interface MigrationStep {
+        void apply(Connection connection) throws SQLException;
+    }
+
+    /**
+     * A numbered migration. Versions must be strictly increasing.
+     */
+    public record Migration(int version, String description, MigrationStep step) {
+    }
+
+    /**
+     * The contents user_stats should have, aggregated from food_items
+     */
+    private static final String EXPECTED_USER_STATS =
+            "SELECT userId, category, status, COUNT(*) AS itemCount, TOTAL(" + weightKg("f") + ") AS weightKg, "
+                    + "COUNT(expirationDate) AS withExpiry, COUNT(createdAt) AS withCreatedAt, "
+                    + "COALESCE(SUM(createdAt), 0) AS createdAtSum "
+                    + "FROM food_items f WHERE userId IS NOT NULL GROUP BY userId, category, status";
+
+    private final List<Migration> migrations;
+
+    public SchemaMigrator() {
+        this(defaultMigrations());
+    }
+
+    /**
+     * Create a migrator for a custom list of migrations
+     *
+     * @param migrations The migrations in ascending version order
+     */
+    public SchemaMigrator(List<Migration> migrations) {
+        int last = 0;
+        for (Migration migration : migrations) {
+            if (migration.version() <= last) {
+                throw new IllegalArgumentException("Migration versions must be strictly increasing: " + migration.version());
+            }
+            last = migration.version();
+        }
+        this.migrations = List.copyOf(migrations);
+    }
+
+    /**
+     * The application's migrations, oldest first
+     *
+     * @return The ordered migration list
+     */
+    public static List<Migration> defaultMigrations() {
+        List<Migration> list = new ArrayList<>();
+
+        list.add(new Migration(1, "Indexes for user, item, service and event lookups", conn -> execute(conn,
+                "CREATE INDEX IF NOT EXISTS idx_users_email ON users(email)",
+                "CREATE INDEX IF NOT EXISTS idx_food_items_user ON food_items(userId)",
+                "CREATE INDEX IF NOT EXISTS idx_food_items_status ON food_items(status)",
+                "CREATE INDEX IF NOT EXISTS idx_food_items_expiration ON food_items(expirationDate)",
+                "CREATE INDEX IF NOT EXISTS idx_services_name ON services(name)",
+                "CREATE INDEX IF NOT EXISTS idx_events_service ON events(serviceId)",
+                // Child-table indexes include the selected columns so lookups
+                // by serviceId never touch the table itself
+                "CREATE INDEX IF NOT EXISTS idx_operating_hours_service ON operating_hours(serviceId, dayOfWeek, openTime, closeTime)",
+                "CREATE INDEX IF NOT EXISTS idx_accepted_items_service ON accepted_items(serviceId, itemName)",
+                "CREATE INDEX IF NOT EXISTS idx_non_accepted_items_service ON non_accepted_items(serviceId, itemName)",
+                "CREATE INDEX IF NOT EXISTS idx_donation_guidelines_service ON donation_guidelines(serviceId, guideline)")));
+
+        list.add(new Migration(2, "Composite indexes for keyset pagination of a user's items", conn -> execute(conn,
+                "CREATE INDEX IF NOT EXISTS idx_food_items_user_expiry ON food_items(userId, expirationDate)",
+                "CREATE INDEX IF NOT EXISTS idx_food_items_user_created ON food_items(userId, createdAt)",
+                // The composite indexes also serve plain userId lookups
+                "DROP INDEX IF EXISTS idx_food_items_user")));
+
+        list.add(new Migration(3, "Store item and event timestamps as epoch milliseconds", conn -> {
+            execute(conn,
+                    "DROP INDEX IF EXISTS idx_food_items_expiration",
+                    "DROP INDEX IF EXISTS idx_food_items_user_expiry",
+                    "DROP INDEX IF EXISTS idx_food_items_user_created");
+            convertToEpochMillis(conn, "food_items", "expirationDate", "createdAt");
+            convertToEpochMillis(conn, "events", "startTime", "endTime");
+            execute(conn,
+                    "CREATE INDEX IF NOT EXISTS idx_food_items_expiration ON food_items(expirationDate)",
+                    "CREATE INDEX IF NOT EXISTS idx_food_items_user_expiry ON food_items(userId, expirationDate)",
+                    "CREATE INDEX IF NOT EXISTS idx_food_items_user_created ON food_items(userId, createdAt)",
+                    "CREATE INDEX IF NOT EXISTS idx_events_start ON events(startTime)");
+        }));
+
+        list.add(new Migration(4, "Stable UUID key for food item upserts", conn -> {
+            if (getDeclaredType(conn, "food_items", "uuid") == null) {
+                execute(conn, "ALTER TABLE food_items ADD COLUMN uuid TEXT");
+            }
+            // Saves before this key inserted a new row each time, so older
+            // databases may hold several copies of one item. The lowest id
+            // is kept and the copies are dropped before they get keys.
+            execute(conn, """
+                CREATE TEMP TABLE food_item_duplicates AS
+                SELECT id AS duplicateId, keeperId FROM (
+                    SELECT id, MIN(id) OVER (PARTITION BY userId, name, expirationDate, category) AS keeperId
+                    FROM food_items)
+                WHERE id <> keeperId
+                """);
+            if (getDeclaredType(conn, "event_items", "foodItemId") != null) {
+                execute(conn,
+                        "INSERT OR IGNORE INTO event_items (eventId, foodItemId) SELECT ei.eventId, d.keeperId "
+                                + "FROM event_items ei JOIN food_item_duplicates d ON d.duplicateId = ei.foodItemId",
+                        "DELETE FROM event_items WHERE foodItemId IN (SELECT duplicateId FROM food_item_duplicates)");
+            }
+            execute(conn,
+                    "DELETE FROM food_items WHERE id IN (SELECT duplicateId FROM food_item_duplicates)",
+                    "DROP TABLE food_item_duplicates");
+            assignUuids(conn, "food_items");
+            execute(conn, "CREATE UNIQUE INDEX IF NOT EXISTS idx_food_items_uuid ON food_items(uuid)");
+        }));
+
+        list.add(new Migration(5, "FTS5 search indexes for food items and services", conn -> execute(conn,
+                // External-content index: the text lives in food_items only.
+                // Prefix indexes on 2 and 3 characters keep keystroke queries
+                // off the full term list.
+                """
+                CREATE VIRTUAL TABLE IF NOT EXISTS food_items_fts USING fts5(
+                    name, description, content='food_items', content_rowid='id', prefix='2 3')
+                """,
+                """
+                CREATE TRIGGER IF NOT EXISTS food_items_fts_insert AFTER INSERT ON food_items BEGIN
+                    INSERT INTO food_items_fts (rowid, name, description) VALUES (new.id, new.name, new.description);
+                END
+                """,
+                """
+                CREATE TRIGGER IF NOT EXISTS food_items_fts_delete AFTER DELETE ON food_items BEGIN
+                    INSERT INTO food_items_fts (food_items_fts, rowid, name, description)
+                    VALUES ('delete', old.id, old.name, old.description);
+                END
+                """,
+                """
+                CREATE TRIGGER IF NOT EXISTS food_items_fts_update AFTER UPDATE OF name, description ON food_items BEGIN
+                    INSERT INTO food_items_fts (food_items_fts, rowid, name, description)
+                    VALUES ('delete', old.id, old.name, old.description);
+                    INSERT INTO food_items_fts (rowid, name, description) VALUES (new.id, new.name, new.description);
+                END
+                """,
+                "INSERT INTO food_items_fts (food_items_fts) VALUES ('rebuild')",
+                // Services index their accepted items too, so the text spans
+                // two tables and is stored in the index itself
+                """
+                CREATE VIRTUAL TABLE IF NOT EXISTS services_fts USING fts5(
+                    name, description, address, accepted_items, prefix='2 3')
+                """,
+                """
+                CREATE TRIGGER IF NOT EXISTS services_fts_insert AFTER INSERT ON services BEGIN
+                    INSERT INTO services_fts (rowid, name, description, address, accepted_items)
+                    VALUES (new.id, new.name, new.description, new.address,
+                            (SELECT group_concat(itemName, ' ') FROM accepted_items WHERE serviceId = new.id));
+                END
+                """,
+                """
+                CREATE TRIGGER IF NOT EXISTS services_fts_update AFTER UPDATE OF name, description, address ON services BEGIN
+                    UPDATE services_fts SET name = new.name, description = new.description, address = new.address
+                    WHERE rowid = new.id;
+                END
+                """,
+                """
+                CREATE TRIGGER IF NOT EXISTS services_fts_delete AFTER DELETE ON services BEGIN
+                    DELETE FROM services_fts WHERE rowid = old.id;
+                END
+                """,
+                """
+                CREATE TRIGGER IF NOT EXISTS services_fts_item_insert AFTER INSERT ON accepted_items BEGIN
+                    UPDATE services_fts
+                    SET accepted_items = (SELECT group_concat(itemName, ' ') FROM accepted_items WHERE serviceId = new.serviceId)
+                    WHERE rowid = new.serviceId;
+                END
+                """,
+                """
+                CREATE TRIGGER IF NOT EXISTS services_fts_item_delete AFTER DELETE ON accepted_items BEGIN
+                    UPDATE services_fts
+                    SET accepted_items = (SELECT group_concat(itemName, ' ') FROM accepted_items WHERE serviceId = old.serviceId)
+                    WHERE rowid = old.serviceId;
+                END
+                """,
+                "DELETE FROM services_fts",
+                """
+                INSERT INTO services_fts (rowid, name, description, address, accepted_items)
+                SELECT s.id, s.name, s.description, s.address,
+                       (SELECT group_concat(itemName, ' ') FROM accepted_items WHERE serviceId = s.id)
+                FROM services s
+                """)));
+
+        list.add(new Migration(6, "Covering index for per-user item statistics", conn -> execute(conn,
+                "CREATE INDEX IF NOT EXISTS idx_food_items_user_stats "
+                        + "ON food_items(userId, category, status, expirationDate, createdAt, quantity, quantityUnit)")));
+
+        list.add(new Migration(7, "Per-user statistics table maintained by triggers", conn -> {
+            execute(conn,
+                    """
+                    CREATE TABLE IF NOT EXISTS user_stats (
+                        userId INTEGER NOT NULL,
+                        category TEXT NOT NULL,
+                        status TEXT NOT NULL,
+                        itemCount INTEGER NOT NULL,
+                        weightKg REAL NOT NULL,
+                        withExpiry INTEGER NOT NULL,
+                        withCreatedAt INTEGER NOT NULL,
+                        createdAtSum INTEGER NOT NULL,
+                        PRIMARY KEY (userId, category, status)
+                    ) WITHOUT ROWID
+                    """,
+                    "CREATE TRIGGER IF NOT EXISTS user_stats_insert AFTER INSERT ON food_items BEGIN "
+                            + addToUserStats("new") + " END",
+                    "CREATE TRIGGER IF NOT EXISTS user_stats_delete AFTER DELETE ON food_items BEGIN "
+                            + removeFromUserStats("old") + " END",
+                    "CREATE TRIGGER IF NOT EXISTS user_stats_update AFTER UPDATE OF "
+                            + "userId, category, status, quantity, quantityUnit, expirationDate, createdAt ON food_items BEGIN "
+                            + removeFromUserStats("old") + " " + addToUserStats("new") + " END",
+                    // Serves the expiry-bucket counts, which depend on the
+                    // current time and so cannot be kept in user_stats
+                    "CREATE INDEX IF NOT EXISTS idx_food_items_user_upcoming ON food_items(userId, expirationDate, category)");
+            rebuildUserStats(conn);
+        }));
+
+        list.add(new Migration(8, "Full event schema with linked food items", conn -> {
+            addColumnIfMissing(conn, "events", "uuid", "TEXT");
+            addColumnIfMissing(conn, "events", "userId", "INTEGER REFERENCES users(id)");
+            addColumnIfMissing(conn, "events", "eventType", "TEXT");
+            addColumnIfMissing(conn, "events", "status", "TEXT");
+            addColumnIfMissing(conn, "events", "notes", "TEXT");
+            addColumnIfMissing(conn, "events", "scheduledTime", "INTEGER");
+            assignUuids(conn, "events");
+            execute(conn,
+                    "CREATE UNIQUE INDEX IF NOT EXISTS idx_events_uuid ON events(uuid)",
+                    """
+                    CREATE TABLE IF NOT EXISTS event_items (
+                        eventId INTEGER NOT NULL REFERENCES events(id),
+                        foodItemId INTEGER NOT NULL REFERENCES food_items(id),
+                        PRIMARY KEY (eventId, foodItemId)
+                    ) WITHOUT ROWID
+                    """,
+                    "CREATE INDEX IF NOT EXISTS idx_event_items_food_item ON event_items(foodItemId)",
+                    // Foreign keys are not enforced, so links are removed with their rows here
+                    "CREATE TRIGGER IF NOT EXISTS event_items_event_delete AFTER DELETE ON events BEGIN "
+                            + "DELETE FROM event_items WHERE eventId = old.id; END",
+                    "CREATE TRIGGER IF NOT EXISTS event_items_food_item_delete AFTER DELETE ON food_items BEGIN "
+                            + "DELETE FROM event_items WHERE foodItemId = old.id; END",
+                    // A service's events in a time window are one range scan;
+                    // the composite index also serves plain serviceId lookups
+                    "CREATE INDEX IF NOT EXISTS idx_events_service_start ON events(serviceId, startTime)",
+                    "DROP INDEX IF EXISTS idx_events_service",
+                    "CREATE INDEX IF NOT EXISTS idx_events_user ON events(userId)");
+        }));
+
+        list.add(new Migration(9, "Unique service names", conn -> execute(conn,
+                // Services are identified by name, but older databases may hold
+                // several rows per name. The lowest id is the row lookups
+                // already picked; events move to it and the rest are dropped.
+                """
+                CREATE TEMP TABLE service_duplicates AS
+                SELECT id AS duplicateId, keeperId FROM (
+                    SELECT id, MIN(id) OVER (PARTITION BY name) AS keeperId FROM services)
+                WHERE id <> keeperId
+                """,
+                "UPDATE events SET serviceId = (SELECT keeperId FROM service_duplicates WHERE duplicateId = events.serviceId) "
+                        + "WHERE serviceId IN (SELECT duplicateId FROM service_duplicates)",
+                "DELETE FROM operating_hours WHERE serviceId IN (SELECT duplicateId FROM service_duplicates)",
+                "DELETE FROM accepted_items WHERE serviceId IN (SELECT duplicateId FROM service_duplicates)",
+                "DELETE FROM non_accepted_items WHERE serviceId IN (SELECT duplicateId FROM service_duplicates)",
+                "DELETE FROM donation_guidelines WHERE serviceId IN (SELECT duplicateId FROM service_duplicates)",
+                "DELETE FROM services WHERE id IN (SELECT duplicateId FROM service_duplicates)",
+                "DROP TABLE service_duplicates",
+                "DROP INDEX IF EXISTS idx_services_name",
+                "CREATE UNIQUE INDEX IF NOT EXISTS idx_services_name ON services(name)")));
+
+        return list;
+    }
+
+    /**
+     * Run every migration newer than the database's current version
+     *
+     * @param connection The writer connection
+     * @return The schema version after migrating
+     * @throws SQLException if a migration fails; that migration is rolled back
+     */
+    public int migrate(Connection connection) throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("""
+                CREATE TABLE IF NOT EXISTS schema_version (
+                    version INTEGER PRIMARY KEY,
+                    description TEXT,
+                    appliedAt TEXT
+                )
+            """);
+        }
+
+        int current = getCurrentVersion(connection);
+        boolean previousAutoCommit = connection.getAutoCommit();
+        try {
+            connection.setAutoCommit(false);
+            for (Migration migration : migrations) {
+                if (migration.version() <= current) {
+                    continue;
+                }
+                try {
+                    migration.step().apply(connection);
+                    try (PreparedStatement pstmt = connection.prepareStatement(
+                            "INSERT INTO schema_version (version, description, appliedAt) VALUES (?, ?, ?)")) {
+                        pstmt.setInt(1, migration.version());
+                        pstmt.setString(2, migration.description());
+                        pstmt.setString(3, LocalDateTime.now().toString());
+                        pstmt.executeUpdate();
+                    }
+                    connection.commit();
+                    current = migration.version();
+                    LOGGER.log(Level.INFO, "Applied schema migration {0}: {1}",
+                            new Object[] {current, migration.description()});
+                } catch (SQLException e) {
+                    connection.rollback();
+                    throw new SQLException("Schema migration " + migration.version() + " failed: " + e.getMessage(), e);
+                }
+            }
+        } finally {
+            connection.setAutoCommit(previousAutoCommit);
+        }
+        return current;
+    }
+
+    /**
+     * Get the highest migration version applied to the database
+     *
+     * @param connection The connection to query
+     * @return The current version, or 0 if no migration has run
+     * @throws SQLException if the version table cannot be read
+     */
+    public static int getCurrentVersion(Connection connection) throws SQLException {
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COALESCE(MAX(version), 0) FROM schema_version")) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    /**
+     * Recompute user_stats from food_items, replacing its contents
+     *
+     * @param connection The writer connection, inside a transaction
+     * @throws SQLException if the table cannot be rebuilt
+     */
+    public static void rebuildUserStats(Connection connection) throws SQLException {
+        execute(connection,
+                "DELETE FROM user_stats",
+                "INSERT INTO user_stats (userId, category, status, itemCount, weightKg, withExpiry, withCreatedAt, createdAtSum) "
+                        + EXPECTED_USER_STATS);
+    }
+
+    /**
+     * Compare user_stats with a full aggregation of food_items
+     *
+     * @param connection The connection to query
+     * @return The number of (user, category, status) groups that differ; 0 if consistent
+     * @throws SQLException if the comparison fails
+     */
+    public static int countUserStatsMismatches(Connection connection) throws SQLException {
+        // Weights are rounded because the triggers add and subtract
+        // floating point values in a different order than SUM does
+        String actual = "SELECT userId, category, status, itemCount, round(weightKg, 6), withExpiry, withCreatedAt, createdAtSum FROM user_stats";
+        String expected = "SELECT userId, category, status, itemCount, round(weightKg, 6), withExpiry, withCreatedAt, createdAtSum FROM ("
+                + EXPECTED_USER_STATS + ")";
+        String sql = "SELECT (SELECT COUNT(*) FROM (" + actual + " EXCEPT " + expected + "))"
+                + " + (SELECT COUNT(*) FROM (" + expected + " EXCEPT " + actual + "))";
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    /**
+     * Weight of a food_items row in kg: kg and g units convert, others count as 0
+     */
+    private static String weightKg(String row) {
+        return "CASE WHEN lower(" + row + ".quantityUnit) LIKE '%kg%' THEN " + row + ".quantity"
+                + " WHEN lower(" + row + ".quantityUnit) LIKE '%g%' THEN " + row + ".quantity / 1000.0"
+                + " ELSE 0 END";
+    }
+
+    /**
+     * Trigger statement adding a food_items row (new or old) to its user_stats group
+     */
+    private static String addToUserStats(String row) {
+        return "INSERT INTO user_stats (userId, category, status, itemCount, weightKg, withExpiry, withCreatedAt, createdAtSum) "
+                + "SELECT " + row + ".userId, " + row + ".category, " + row + ".status, 1, " + weightKg(row) + ", "
+                + row + ".expirationDate IS NOT NULL, " + row + ".createdAt IS NOT NULL, COALESCE(" + row + ".createdAt, 0) "
+                + "WHERE " + row + ".userId IS NOT NULL "
+                + "ON CONFLICT (userId, category, status) DO UPDATE SET "
+                + "itemCount = itemCount + excluded.itemCount, "
+                + "weightKg = weightKg + excluded.weightKg, "
+                + "withExpiry = withExpiry + excluded.withExpiry, "
+                + "withCreatedAt = withCreatedAt + excluded.withCreatedAt, "
+                + "createdAtSum = createdAtSum + excluded.createdAtSum;";
+    }
+
+    /**
+     * Trigger statements removing a food_items row from its user_stats
+     * group, dropping the group once it is empty
+     */
+    private static String removeFromUserStats(String row) {
+        String group = " WHERE userId = " + row + ".userId AND category = " + row + ".category AND status = " + row + ".status";
+        return "UPDATE user_stats SET "
+                + "itemCount = itemCount - 1, "
+                + "weightKg = weightKg - (" + weightKg(row) + "), "
+                + "withExpiry = withExpiry - (" + row + ".expirationDate IS NOT NULL), "
+                + "withCreatedAt = withCreatedAt - (" + row + ".createdAt IS NOT NULL), "
+                + "createdAtSum = createdAtSum - COALESCE(" + row + ".createdAt, 0)"
+                + group + "; "
+                + "DELETE FROM user_stats" + group + " AND itemCount <= 0;";
+    }
+
+    /**
+     * Add a column unless the table already has it
+     */
+    private static void addColumnIfMissing(Connection connection, String table, String column, String definition)
+            throws SQLException {
+        if (getDeclaredType(connection, table, column) == null) {
+            execute(connection, "ALTER TABLE " + table + " ADD COLUMN " + column + " " + definition);
+        }
+    }
+
+    /**
+     * Give every row without a uuid a fresh random one
+     */
+    private static void assignUuids(Connection connection, String table) throws SQLException {
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT id FROM " + table + " WHERE uuid IS NULL");
+             PreparedStatement pstmt = connection.prepareStatement("UPDATE " + table + " SET uuid = ? WHERE id = ?")) {
+            while (rs.next()) {
+                pstmt.setString(1, UUID.randomUUID().toString());
+                pstmt.setLong(2, rs.getLong("id"));
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+        }
+    }
+
+    /**
+     * Replace TEXT LocalDateTime columns with INTEGER epoch-millisecond
+     * columns of the same name. Tables created with INTEGER columns are left
+     * alone. Indexes on the columns must be dropped beforehand.
+     */
+    private static void convertToEpochMillis(Connection connection, String table, String... columns) throws SQLException {
+        if (!"TEXT".equalsIgnoreCase(getDeclaredType(connection, table, columns[0]))) {
+            return;
+        }
+
+        List<String> assignments = new ArrayList<>();
+        for (String column : columns) {
+            execute(connection, "ALTER TABLE " + table + " ADD COLUMN " + column + "Ms INTEGER");
+            assignments.add(column + "Ms = ?");
+        }
+
+        String select = "SELECT id, " + String.join(", ", columns) + " FROM " + table;
+        String update = "UPDATE " + table + " SET " + String.join(", ", assignments) + " WHERE id = ?";
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery(select);
+             PreparedStatement pstmt = connection.prepareStatement(update)) {
+            int pending = 0;
+            while (rs.next()) {
+                for (int i = 0; i < columns.length; i++) {
+                    Long millis = parseEpochMillis(rs.getString(i + 2));
+                    if (millis != null) {
+                        pstmt.setLong(i + 1, millis);
+                    } else {
+                        pstmt.setNull(i + 1, Types.INTEGER);
+                    }
+                }
+                pstmt.setLong(columns.length + 1, rs.getLong("id"));
+                pstmt.addBatch();
+                if (++pending == 1000) {
+                    pstmt.executeBatch();
+                    pending = 0;
+                }
+            }
+            if (pending > 0) {
+                pstmt.executeBatch();
+            }
+        }
+
+        for (String column : columns) {
+            execute(connection,
+                    "ALTER TABLE " + table + " DROP COLUMN " + column,
+                    "ALTER TABLE " + table + " RENAME COLUMN " + column + "Ms TO " + column);
+        }
+    }
+
+    private static Long parseEpochMillis(String text) {
+        if (text == null || text.isEmpty()) {
+            return null;
+        }
+        try {
+            return Timestamps.toEpochMillis(LocalDateTime.parse(text));
+        } catch (DateTimeParseException e) {
+            System.err.println("Dropping unparseable timestamp during migration: " + text);
+            return null;
+        }
+    }
+
+    private static String getDeclaredType(Connection connection, String table, String column) throws SQLException {
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("PRAGMA table_info(" + table + ")")) {
+            while (rs.next()) {
+                if (column.equals(rs.getString("name"))) {
+                    return rs.getString("type");
+                }
+            }
+        }
+        return null;
+    }
+
+    private static void execute(Connection connection, String... statements) throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            for (String sql : statements) {
+                stmt.execute(sql);
+            }
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.greencompost.model;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.greencompost.service.LocalService;
+import com.greencompost.service.LocalService.ServiceType;
+import com.greencompost.service.OperatingHours;
+
+/**
+ * Loads local services together with their operating hours, accepted items,
+ * non-accepted items and donation guidelines. Each child table is read once
+ * for the whole catalog, so a load costs a fixed number of queries no matter
+ * how many services match.
+ */
+public class ServiceCatalogLoader {
+    private final ConnectionPool.Lease lease;
+    private int queryCount;
+
+    /**
+     * Create a loader that reads through the given connection lease
+     *
+     * @param lease The leased connection to query
+     */
+    public ServiceCatalogLoader(ConnectionPool.Lease lease) {
+        this.lease = lease;
+    }
+
+    /**
+     * Load every service in the catalog
+     *
+     * @return The services in id order
+     * @throws SQLException if a query fails
+     */
+    public List<LocalService> loadAll() throws SQLException {
+        return load(null);
+    }
+
+    /**
+     * Load the services with the given name
+     *
+     * @param name The service name
+     * @return The matching services in id order
+     * @throws SQLException if a query fails
+     */
+    public List<LocalService> loadByName(String name) throws SQLException {
+        return load("name = ?", name);
+    }
+
+    /**
+     * Load the services whose id the given subquery selects, such as the
+     * services referenced by a set of events
+     *
+     * @param idQuery SQL selecting service ids
+     * @param params Values for the subquery's parameters
+     * @return The matching services in id order
+     * @throws SQLException if a query fails
+     */
+    public List<LocalService> loadByIdQuery(String idQuery, Object... params) throws SQLException {
+        return load("id IN (" + idQuery + ")", params);
+    }
+
+    /**
+     * Get the number of queries issued by this loader so far
+     *
+     * @return The query count
+     */
+    public int getQueryCount() {
+        return queryCount;
+    }
+
+    private List<LocalService> load(String filter, Object... params) throws SQLException {
+        String where = filter != null ? " WHERE " + filter : "";
+        String childWhere = filter != null
+                ? " WHERE serviceId IN (SELECT id FROM services WHERE " + filter + ")"
+                : "";
+
+        Map<Long, LocalService> byId = new LinkedHashMap<>();
+        try (ResultSet rs = query("SELECT * FROM services" + where + " ORDER BY id", params)) {
+            while (rs.next()) {
+                LocalService service = new LocalService();
+                service.setName(rs.getString("name"));
+                service.setDescription(rs.getString("description"));
+                service.setAddress(rs.getString("address"));
+                service.setContactInfo(rs.getString("contactInfo"));
+                service.setLatitude(rs.getDouble("latitude"));
+                service.setLongitude(rs.getDouble("longitude"));
+                service.setPickupAvailable(rs.getInt("pickupAvailable") == 1);
+                service.setPickupRadius(rs.getDouble("pickupRadius"));
+                service.setType(ServiceType.valueOf(rs.getString("serviceType")));
+                service.setAcceptsFoodDonations(rs.getInt("acceptsFoodDonations") == 1);
+                service.clearDirtyFields();
+                // Stored hours replace the constructor's default weekday hours
+                service.setHours(new OperatingHours());
+                service.setDatabaseId(rs.getLong("id"));
+                byId.put(service.getDatabaseId(), service);
+            }
+        }
+
+        if (byId.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        String hoursSql = "SELECT serviceId, dayOfWeek, openTime, closeTime FROM operating_hours"
+                + childWhere + " ORDER BY serviceId, id";
+        try (ResultSet rs = query(hoursSql, params)) {
+            while (rs.next()) {
+                LocalService service = byId.get(rs.getLong("serviceId"));
+                if (service != null) {
+                    OperatingHours.TimeSlot slot = new OperatingHours.TimeSlot(
+                            rs.getString("openTime"), rs.getString("closeTime"));
+                    service.getHours().setTimeSlotForDay(rs.getInt("dayOfWeek"), slot);
+                }
+            }
+        }
+
+        String acceptedSql = "SELECT serviceId, itemName FROM accepted_items"
+                + childWhere + " ORDER BY serviceId, id";
+        try (ResultSet rs = query(acceptedSql, params)) {
+            while (rs.next()) {
+                LocalService service = byId.get(rs.getLong("serviceId"));
+                if (service != null) {
+                    service.addAcceptedItem(rs.getString("itemName"));
+                }
+            }
+        }
+
+        String nonAcceptedSql = "SELECT serviceId, itemName FROM non_accepted_items"
+                + childWhere + " ORDER BY serviceId, id";
+        try (ResultSet rs = query(nonAcceptedSql, params)) {
+            while (rs.next()) {
+                LocalService service = byId.get(rs.getLong("serviceId"));
+                if (service != null) {
+                    service.addNonAcceptedItem(rs.getString("itemName"));
+                }
+            }
+        }
+
+        String guidelinesSql = "SELECT serviceId, guideline FROM donation_guidelines"
+                + childWhere + " ORDER BY serviceId, id";
+        try (ResultSet rs = query(guidelinesSql, params)) {
+            while (rs.next()) {
+                LocalService service = byId.get(rs.getLong("serviceId"));
+                if (service != null) {
+                    service.addDonationGuideline(rs.getString("guideline"));
+                }
+            }
+        }
+
+        return new ArrayList<>(byId.values());
+    }
+
+    private ResultSet query(String sql, Object... params) throws SQLException {
+        queryCount++;
+        return lease.query(sql, params);
+    }
+}
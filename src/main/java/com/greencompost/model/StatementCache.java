@@ -0,0 +1,110 @@
+package com.greencompost.model;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded LRU cache of prepared statements for a single connection, keyed by
+ * SQL text. Statements handed out by the cache stay open and must not be
+ * closed by the caller; the cache closes them on eviction or when it is
+ * closed. A cache is only ever used by the thread holding its connection.
+ */
+public class StatementCache implements AutoCloseable {
+    private static final String GENERATED_KEYS_PREFIX = "keys:";
+
+    private final Connection connection;
+    private final LongAdder hits;
+    private final LongAdder misses;
+    private final Map<String, PreparedStatement> statements;
+
+    /**
+     * Create a statement cache for a connection
+     *
+     * @param connection The connection statements are prepared on
+     * @param maxSize Maximum number of statements kept open
+     * @param hits Counter incremented on every cache hit
+     * @param misses Counter incremented on every cache miss
+     */
+    public StatementCache(Connection connection, int maxSize, LongAdder hits, LongAdder misses) {
+        this.connection = connection;
+        this.hits = hits;
+        this.misses = misses;
+        this.statements = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+                if (size() > maxSize) {
+                    closeQuietly(eldest.getValue());
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Get a cached prepared statement for the SQL, preparing it on a miss
+     *
+     * @param sql The SQL text
+     * @return An open prepared statement with cleared parameters and batch
+     * @throws SQLException if the statement cannot be prepared
+     */
+    public PreparedStatement prepare(String sql) throws SQLException {
+        return prepare(sql, sql, Statement.NO_GENERATED_KEYS);
+    }
+
+    /**
+     * Get a cached prepared statement that returns generated keys
+     *
+     * @param sql The SQL text
+     * @return An open prepared statement with cleared parameters and batch
+     * @throws SQLException if the statement cannot be prepared
+     */
+    public PreparedStatement prepareReturningKeys(String sql) throws SQLException {
+        return prepare(GENERATED_KEYS_PREFIX + sql, sql, Statement.RETURN_GENERATED_KEYS);
+    }
+
+    private PreparedStatement prepare(String key, String sql, int autoGeneratedKeys) throws SQLException {
+        PreparedStatement pstmt = statements.get(key);
+        if (pstmt != null && !pstmt.isClosed()) {
+            hits.increment();
+            pstmt.clearParameters();
+            pstmt.clearBatch();
+            return pstmt;
+        }
+
+        misses.increment();
+        pstmt = connection.prepareStatement(sql, autoGeneratedKeys);
+        statements.put(key, pstmt);
+        return pstmt;
+    }
+
+    /**
+     * Get the number of statements currently cached
+     *
+     * @return The cache size
+     */
+    public int size() {
+        return statements.size();
+    }
+
+    @Override
+    public void close() {
+        for (PreparedStatement pstmt : statements.values()) {
+            closeQuietly(pstmt);
+        }
+        statements.clear();
+    }
+
+    private static void closeQuietly(PreparedStatement pstmt) {
+        try {
+            pstmt.close();
+        } catch (SQLException e) {
+            System.err.println("Error closing cached statement: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.greencompost.model;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * Conversions between LocalDateTime and the epoch-millisecond INTEGER values
+ * stored in the database. Local times are interpreted in the system time zone.
+ */
+public final class Timestamps {
+
+    private Timestamps() {
+    }
+
+    /**
+     * Convert a local date-time to epoch milliseconds
+     *
+     * @param dateTime The date-time, may be null
+     * @return Epoch milliseconds, or null if dateTime is null
+     */
+    public static Long toEpochMillis(LocalDateTime dateTime) {
+        if (dateTime == null) {
+            return null;
+        }
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    /**
+     * Convert epoch milliseconds to a local date-time
+     *
+     * @param epochMillis Epoch milliseconds
+     * @return The local date-time in the system time zone
+     */
+    public static LocalDateTime fromEpochMillis(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+}
@@ -0,0 +1,175 @@
+package com.greencompost.model;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.greencompost.User;
+
+/**
+ * Identity map of loaded users with LRU eviction. Each stored user is
+ * represented by at most one User instance, reachable by username or
+ * email (case-insensitive). The username index defines the LRU order; the
+ * email index follows it.
+ */
+public class UserCache {
+
+    private record Entry(User user, String emailKey) {
+    }
+
+    private final int maxSize;
+    private final Map<String, Entry> byUsername;
+    private final Map<String, Entry> byEmail = new HashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Create a cache holding at most maxSize users
+     *
+     * @param maxSize The maximum number of cached users
+     */
+    public UserCache(int maxSize) {
+        this.maxSize = maxSize;
+        this.byUsername = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                if (size() > UserCache.this.maxSize) {
+                    removeEmailKey(eldest.getValue());
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Look up a user by username
+     *
+     * @param username The username
+     * @return The cached user, or null on a miss
+     */
+    public synchronized User getByUsername(String username) {
+        return count(byUsername.get(username));
+    }
+
+    /**
+     * Look up a user by email, ignoring case
+     *
+     * @param email The email address
+     * @return The cached user, or null on a miss
+     */
+    public synchronized User getByEmail(String email) {
+        Entry entry = email != null ? byEmail.get(email.toLowerCase(Locale.ROOT)) : null;
+        if (entry != null) {
+            byUsername.get(entry.user().getUsername()); // Refresh LRU position
+        }
+        return count(entry);
+    }
+
+    private User count(Entry entry) {
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry.user();
+    }
+
+    /**
+     * Return the cached instance for a freshly loaded user, caching the
+     * loaded one if there is none, so callers always share one instance
+     *
+     * @param loaded A user just read from the database
+     * @return The canonical instance for that username
+     */
+    public synchronized User resolve(User loaded) {
+        if (loaded == null || loaded.getUsername() == null) {
+            return loaded;
+        }
+        Entry entry = byUsername.get(loaded.getUsername());
+        if (entry != null) {
+            return entry.user();
+        }
+        put(loaded);
+        return loaded;
+    }
+
+    /**
+     * Cache a user, replacing any entry for the same username and
+     * re-indexing its email. Called after every save.
+     *
+     * @param user The user to cache
+     */
+    public synchronized void put(User user) {
+        if (user.getUsername() == null) {
+            return;
+        }
+        Entry previous = byUsername.remove(user.getUsername());
+        if (previous != null) {
+            removeEmailKey(previous);
+        }
+        String emailKey = user.getEmail() != null ? user.getEmail().toLowerCase(Locale.ROOT) : null;
+        Entry entry = new Entry(user, emailKey);
+        byUsername.put(user.getUsername(), entry);
+        if (emailKey != null) {
+            byEmail.put(emailKey, entry);
+        }
+    }
+
+    /**
+     * Drop a user so the next lookup reloads it
+     *
+     * @param username The username to evict
+     */
+    public synchronized void invalidate(String username) {
+        Entry entry = byUsername.remove(username);
+        if (entry != null) {
+            removeEmailKey(entry);
+        }
+    }
+
+    /**
+     * Drop every cached user
+     */
+    public synchronized void clear() {
+        byUsername.clear();
+        byEmail.clear();
+    }
+
+    private void removeEmailKey(Entry entry) {
+        if (entry.emailKey() != null) {
+            byEmail.remove(entry.emailKey(), entry);
+        }
+    }
+
+    public synchronized int size() {
+        return byUsername.size();
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    /**
+     * Get the fraction of lookups answered from the cache
+     *
+     * @return The hit rate between 0 and 1, or 0 before any lookup
+     */
+    public double getHitRate() {
+        long hitCount = hits.sum();
+        long total = hitCount + misses.sum();
+        return total == 0 ? 0 : (double) hitCount / total;
+    }
+}
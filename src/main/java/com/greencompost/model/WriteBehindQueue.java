@@ -0,0 +1,297 @@
+package com.greencompost.model;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import com.greencompost.User;
+import com.greencompost.controller.FoodItem;
+import com.greencompost.service.ScheduledEvent;
+
+/**
+ * Asynchronous write-behind queue for user, food item and event saves,
+ * narrow food item updates and food item deletes. Pending writes are coalesced per entity (the
+ * latest state wins) and flushed in a single transaction every flush
+ * interval, or as soon as the batch size is reached. A write that fails is
+ * rolled back to its own savepoint and the rest of the batch still commits.
+ *
+ * A failed write, or a whole batch whose commit failed, is queued again for
+ * the next flush unless a newer write for the same entity arrived meanwhile.
+ * After {@value #MAX_ATTEMPTS} failed flushes the write is dropped with an
+ * error. {@link #flush()} blocks until everything queued before the call
+ * is on disk or queued again after a failure; {@link #close()} retries
+ * until every write is stored or dropped.
+ */
+public class WriteBehindQueue implements AutoCloseable {
+    static final int MAX_ATTEMPTS = 3;
+
+    private final DatabaseManager database;
+    private final ConnectionPool pool;
+    private final int maxBatchRows;
+    private final ScheduledExecutorService flusher;
+    private final Object flushLock = new Object();
+    private Map<Object, QueuedWrite> pending = new LinkedHashMap<>();
+    private boolean closed;
+
+    /**
+     * Queue key for a narrow update, kept apart from the item's full save
+     */
+    private record ChangesKey(FoodItem item) {
+    }
+
+    /**
+     * A pending write and the number of flushes it has already failed in
+     */
+    private record QueuedWrite(Runnable write, int failures) {
+    }
+
+    private WriteBehindQueue(DatabaseManager database, ConnectionPool pool, int maxBatchRows) {
+        this.database = database;
+        this.pool = pool;
+        this.maxBatchRows = maxBatchRows;
+        this.flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "db-write-behind");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Create a queue and start its background flusher
+     *
+     * @param database The manager whose save methods perform the writes
+     * @param pool The pool providing the writer connection
+     * @param flushIntervalMs How often pending writes are flushed
+     * @param maxBatchRows Number of pending writes that triggers an early flush
+     * @return The running queue
+     */
+    public static WriteBehindQueue start(DatabaseManager database, ConnectionPool pool, long flushIntervalMs,
+                                         int maxBatchRows) {
+        WriteBehindQueue queue = new WriteBehindQueue(database, pool, maxBatchRows);
+        queue.flusher.scheduleWithFixedDelay(queue::flush, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+        return queue;
+    }
+
+    /**
+     * Queue a user save. Users are coalesced by username.
+     *
+     * @param user The user to save
+     */
+    public void enqueueUser(User user) {
+        enqueue("user:" + user.getUsername(), () -> database.saveUser(user));
+    }
+
+    /**
+     * Queue a food item save. Repeated saves of the same item are coalesced.
+     *
+     * @param item The food item to save
+     */
+    public void enqueueFoodItem(FoodItem item) {
+        enqueue(item, () -> database.saveFoodItem(item));
+    }
+
+    /**
+     * Queue a write of just the item's changed columns, e.g. a status flip.
+     * Repeated calls for the same item are coalesced, and the columns are
+     * read when the queue flushes.
+     *
+     * @param item The food item to flush
+     */
+    public void enqueueChanges(FoodItem item) {
+        enqueueChanges(List.of(item));
+    }
+
+    /**
+     * Queue narrow updates for several items, e.g. every item of an event,
+     * so they are written in the same transaction
+     *
+     * @param items The food items to flush
+     */
+    public void enqueueChanges(Collection<FoodItem> items) {
+        Map<Object, Runnable> writes = new LinkedHashMap<>();
+        for (FoodItem item : items) {
+            writes.put(new ChangesKey(item), () -> database.flushChanges(item));
+        }
+        enqueue(writes);
+    }
+
+    /**
+     * Queue a food item delete. It replaces any pending save or update of
+     * the item, which would otherwise write the row back.
+     *
+     * @param item The food item to delete
+     */
+    public void enqueueDelete(FoodItem item) {
+        enqueue(Map.of(item, () -> database.deleteFoodItem(item)), List.of(new ChangesKey(item)));
+    }
+
+    /**
+     * Queue an event save. Repeated saves of the same event are coalesced.
+     *
+     * @param event The event to save
+     */
+    public void enqueueEvent(ScheduledEvent event) {
+        enqueue(event, () -> database.saveEvent(event));
+    }
+
+    private void enqueue(Object key, Runnable write) {
+        enqueue(Map.of(key, write));
+    }
+
+    private void enqueue(Map<Object, Runnable> writes) {
+        enqueue(writes, List.of());
+    }
+
+    /**
+     * Queue writes, dropping the pending writes under the superseded keys
+     */
+    private void enqueue(Map<Object, Runnable> writes, Collection<?> superseded) {
+        int size;
+        synchronized (this) {
+            if (!closed) {
+                pending.keySet().removeAll(superseded);
+                // Re-putting an existing key keeps its original position, so
+                // a user queued before their items is still written first
+                writes.forEach((key, write) -> pending.put(key, new QueuedWrite(write, 0)));
+                size = pending.size();
+            } else {
+                size = -1;
+            }
+        }
+
+        if (size < 0) {
+            // Queue already shut down: fall back to synchronous writes
+            writes.values().forEach(Runnable::run);
+        } else if (size >= maxBatchRows) {
+            try {
+                flusher.execute(this::flush);
+            } catch (RejectedExecutionException e) {
+                // Closed concurrently; close() flushes whatever is left
+            }
+        }
+    }
+
+    /**
+     * Get the number of writes waiting to be flushed
+     *
+     * @return The pending write count
+     */
+    public synchronized int getPendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * Write every pending change in one transaction. Blocks until done.
+     * Writes that fail are queued again for the next flush.
+     */
+    public void flush() {
+        synchronized (flushLock) {
+            Map<Object, QueuedWrite> batch;
+            synchronized (this) {
+                if (pending.isEmpty()) {
+                    return;
+                }
+                batch = pending;
+                pending = new LinkedHashMap<>();
+            }
+
+            Map<Object, QueuedWrite> failed = new LinkedHashMap<>();
+            try (ConnectionPool.Lease lease = pool.writer()) {
+                Connection connection = lease.connection();
+                boolean previousAutoCommit = true;
+                try {
+                    previousAutoCommit = connection.getAutoCommit();
+                    connection.setAutoCommit(false);
+                    for (Map.Entry<Object, QueuedWrite> entry : batch.entrySet()) {
+                        // Each write gets a savepoint, so a failure undoes just
+                        // that entity's rows instead of committing half of it
+                        Savepoint savepoint = connection.setSavepoint();
+                        int mark = pool.commitActionMark();
+                        try {
+                            entry.getValue().write().run();
+                            connection.releaseSavepoint(savepoint);
+                        } catch (RuntimeException e) {
+                            // One bad entity must not sink the batch or kill the flusher
+                            pool.discardCommitActions(mark);
+                            connection.rollback(savepoint);
+                            connection.releaseSavepoint(savepoint);
+                            System.err.println("Error in queued write: " + e.getMessage());
+                            failed.put(entry.getKey(), entry.getValue());
+                        }
+                    }
+                    connection.commit();
+                    // Entities are marked clean only now that their rows are on disk
+                    pool.runCommitActions();
+                } catch (SQLException e) {
+                    try {
+                        pool.discardCommitActions(0);
+                        connection.rollback();
+                    } catch (SQLException rollbackEx) {
+                        System.err.println("Error during rollback: " + rollbackEx.getMessage());
+                    }
+                    System.err.println("Error flushing write-behind queue: " + e.getMessage());
+                    failed = batch;
+                } finally {
+                    try {
+                        connection.setAutoCommit(previousAutoCommit);
+                    } catch (SQLException e) {
+                        System.err.println("Error resetting auto-commit: " + e.getMessage());
+                    }
+                }
+            }
+            requeue(failed);
+        }
+    }
+
+    /**
+     * Queue failed writes again behind any newer writes for the same
+     * entities, dropping those that have failed too often
+     */
+    private synchronized void requeue(Map<Object, QueuedWrite> failed) {
+        for (Map.Entry<Object, QueuedWrite> entry : failed.entrySet()) {
+            Object key = entry.getKey();
+            QueuedWrite write = entry.getValue();
+            // A newer full save or delete of the item supersedes its column update
+            boolean superseded = key instanceof ChangesKey changes && pending.containsKey(changes.item());
+            if (write.failures() + 1 >= MAX_ATTEMPTS) {
+                // The error itself was logged by the failed flush
+                String entity = key instanceof String userKey ? userKey : key.getClass().getSimpleName();
+                System.err.println("Dropping queued write of " + entity + " after " + MAX_ATTEMPTS + " failed flushes");
+            } else if (!superseded) {
+                pending.putIfAbsent(key, new QueuedWrite(write.write(), write.failures() + 1));
+            }
+        }
+    }
+
+    /**
+     * Stop the background flusher and write everything still pending.
+     * Saves queued after close are written synchronously.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        }
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // Each failed flush counts against MAX_ATTEMPTS, so this ends
+        for (int attempt = 0; attempt < MAX_ATTEMPTS && getPendingCount() > 0; attempt++) {
+            flush();
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.greencompost.service;
 
 import com.greencompost.User;
+import com.greencompost.model.ChangeTracked;
 
 import java.time.DayOfWeek;
 import java.time.LocalTime;
@@ -8,13 +9,15 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Objects;
 import java.util.UUID;
 
 /**
  * Represents a local service that accepts food waste for composting or donation
  */
-public class LocalService {
+public class LocalService implements ChangeTracked {
     private UUID id;
+    private Long databaseId; // Row id in the services table, null until stored
     private String name;
     private String description;
     private String address;
@@ -31,7 +34,21 @@ public class LocalService {
     private boolean acceptsFoodDonations;
     private List<String> donationGuidelines;
     private double calculatedDistance; // For storing distance calculated during searches
-    public static final List<LocalService> availableServices = new ArrayList<>();
+
+    // Persisted scalar fields, as bits in the dirty mask (see ChangeTracked).
+    // A stored service is keyed by its databaseId, so a rename is written
+    // like any other column; child lists are written by saveLocalService.
+    public static final int FIELD_DESCRIPTION = 1;
+    public static final int FIELD_ADDRESS = 1 << 1;
+    public static final int FIELD_CONTACT_INFO = 1 << 2;
+    public static final int FIELD_LATITUDE = 1 << 3;
+    public static final int FIELD_LONGITUDE = 1 << 4;
+    public static final int FIELD_PICKUP_AVAILABLE = 1 << 5;
+    public static final int FIELD_PICKUP_RADIUS = 1 << 6;
+    public static final int FIELD_ACCEPTS_FOOD_DONATIONS = 1 << 7;
+    public static final int FIELD_TYPE = 1 << 8;
+    public static final int FIELD_NAME = 1 << 9;
+    private int dirtyFields;
     private static final double EARTH_RADIUS_KM = 6371.0; // Earth's radius in kilometers
 
     /**
@@ -77,7 +94,6 @@ public class LocalService {
         this.name = "Default Service";
         this.type = ServiceType.FOOD_BANK; // Default type
         this.acceptsFoodDonations = false;
-        availableServices.add(this);
     }
 
     /**
@@ -143,10 +159,10 @@ public class LocalService {
     /**
      * Get all available services
      * 
-     * @return List of all services
+     * @return List of all services registered with the ServiceRegistry
      */
     public static List<LocalService> getAllServices() {
-        return Collections.unmodifiableList(availableServices);
+        return ServiceRegistry.getInstance().getAll();
     }
 
     /**
@@ -171,7 +187,7 @@ public class LocalService {
         List<LocalService> result = new ArrayList<>();
         String userCity = user.getCity(); // Using city instead of coordinates
         
-        for (LocalService service : availableServices) {
+        for (LocalService service : ServiceRegistry.getInstance().getAll()) {
             // Simplified distance calculation based on city matching
             double distance = calculateSimplifiedDistance(userCity, service.getCity());
             
@@ -272,14 +288,12 @@ public class LocalService {
         double userLat = user.getLatitude();
         double userLon = user.getLongitude();
 
-        for (LocalService service : availableServices) {
-            if (service.getType() == type) {
-                double distance = calculateDistance(userLat, userLon,
-                                                 service.getLatitude(), service.getLongitude());
-                if (distance < minDistance) {
-                    minDistance = distance;
-                    closest = service;
-                }
+        for (LocalService service : ServiceRegistry.getInstance().findByType(type)) {
+            double distance = calculateDistance(userLat, userLon,
+                                             service.getLatitude(), service.getLongitude());
+            if (distance < minDistance) {
+                minDistance = distance;
+                closest = service;
             }
         }
         return closest;
@@ -345,9 +359,22 @@ public class LocalService {
      * @param description The new description
      */
     public void setDescription(String description) {
+        if (!Objects.equals(this.description, description)) {
+            dirtyFields |= FIELD_DESCRIPTION;
+        }
         this.description = description;
     }
 
+    @Override
+    public int getDirtyFields() {
+        return dirtyFields;
+    }
+
+    @Override
+    public void clearDirtyFields() {
+        dirtyFields = 0;
+    }
+
     @Override
     public String toString() {
         return String.format("%s - %s", name, operatingHours);
@@ -358,13 +385,23 @@ public class LocalService {
         if (name == null || name.trim().isEmpty()) {
             throw new IllegalArgumentException("Name cannot be null or empty");
         }
-        this.name = name.trim();
+        // The registry indexes by name, type and city, so it applies the change
+        String trimmed = name.trim();
+        ServiceRegistry.getInstance().rename(this, trimmed, () -> {
+            if (!trimmed.equals(this.name)) {
+                dirtyFields |= FIELD_NAME;
+            }
+            this.name = trimmed;
+        });
     }
 
     public void setAddress(String address) {
         if (address == null || address.trim().isEmpty()) {
             throw new IllegalArgumentException("Address cannot be null or empty");
         }
+        if (!Objects.equals(this.address, address.trim())) {
+            dirtyFields |= FIELD_ADDRESS;
+        }
         this.address = address.trim();
     }
 
@@ -372,6 +409,9 @@ public class LocalService {
         if (contactInfo == null || contactInfo.trim().isEmpty()) {
             throw new IllegalArgumentException("Contact info cannot be null or empty");
         }
+        if (!Objects.equals(this.contactInfo, contactInfo.trim())) {
+            dirtyFields |= FIELD_CONTACT_INFO;
+        }
         this.contactInfo = contactInfo.trim();
     }
 
@@ -379,6 +419,9 @@ public class LocalService {
         if (latitude < -90 || latitude > 90) {
             throw new IllegalArgumentException("Latitude must be between -90 and 90 degrees");
         }
+        if (Double.compare(this.latitude, latitude) != 0) {
+            dirtyFields |= FIELD_LATITUDE;
+        }
         this.latitude = latitude;
     }
 
@@ -386,6 +429,9 @@ public class LocalService {
         if (longitude < -180 || longitude > 180) {
             throw new IllegalArgumentException("Longitude must be between -180 and 180 degrees");
         }
+        if (Double.compare(this.longitude, longitude) != 0) {
+            dirtyFields |= FIELD_LONGITUDE;
+        }
         this.longitude = longitude;
     }
 
@@ -393,7 +439,13 @@ public class LocalService {
         if (type == null) {
             throw new IllegalArgumentException("Service type cannot be null");
         }
-        this.type = type;
+        if (this.type == type) {
+            return;
+        }
+        ServiceRegistry.getInstance().update(this, () -> {
+            dirtyFields |= FIELD_TYPE;
+            this.type = type;
+        });
     }
 
     public String getAddress() {
@@ -419,7 +471,7 @@ public class LocalService {
      * @param city The city
      */
     public void setCity(String city) {
-        this.city = city;
+        ServiceRegistry.getInstance().update(this, () -> this.city = city);
     }
     
     /**
@@ -441,6 +493,24 @@ public class LocalService {
     public UUID getId() {
         return id;
     }
+
+    /**
+     * Get the row id of this service in the services table
+     *
+     * @return The row id, or null if the service was never stored
+     */
+    public Long getDatabaseId() {
+        return databaseId;
+    }
+
+    /**
+     * Record the row id after loading or saving this service
+     *
+     * @param databaseId The row id
+     */
+    public void setDatabaseId(Long databaseId) {
+        this.databaseId = databaseId;
+    }
     
     /**
      * Get the calculated distance during search operations
@@ -465,6 +535,9 @@ public class LocalService {
     }
 
     public void setPickupAvailable(boolean pickupAvailable) {
+        if (this.pickupAvailable != pickupAvailable) {
+            dirtyFields |= FIELD_PICKUP_AVAILABLE;
+        }
         this.pickupAvailable = pickupAvailable;
     }
 
@@ -476,6 +549,9 @@ public class LocalService {
         if (pickupRadius < 0) {
             throw new IllegalArgumentException("Pickup radius cannot be negative");
         }
+        if (Double.compare(this.pickupRadius, pickupRadius) != 0) {
+            dirtyFields |= FIELD_PICKUP_RADIUS;
+        }
         this.pickupRadius = pickupRadius;
     }
 
@@ -524,6 +600,9 @@ public class LocalService {
      * @param acceptsFoodDonations true if the service accepts food donations
      */
     public void setAcceptsFoodDonations(boolean acceptsFoodDonations) {
+        if (this.acceptsFoodDonations != acceptsFoodDonations) {
+            dirtyFields |= FIELD_ACCEPTS_FOOD_DONATIONS;
+        }
         this.acceptsFoodDonations = acceptsFoodDonations;
     }
 
@@ -563,7 +642,7 @@ public class LocalService {
      * @return List of services that accept food donations
      */
     public static List<LocalService> findFoodDonationServices() {
-        return availableServices.stream()
+        return ServiceRegistry.getInstance().getAll().stream()
                 .filter(service -> service.acceptsFoodDonations() || 
                         service.getType() == ServiceType.FOOD_BANK || 
                         service.getType() == ServiceType.FOOD_DONATION_CENTER || 
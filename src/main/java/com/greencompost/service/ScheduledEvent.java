@@ -2,6 +2,7 @@ package com.greencompost.service;
 
 import com.greencompost.User;
 import com.greencompost.controller.FoodItem;
+import com.greencompost.model.DatabaseManager;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -210,6 +211,15 @@ public class ScheduledEvent {
         return id;
     }
 
+    /**
+     * Set the identifier, used when loading a stored event
+     *
+     * @param id The event's UUID
+     */
+    public void setId(UUID id) {
+        this.id = id;
+    }
+
     /**
      * Get the user who scheduled this event
      *
@@ -219,6 +229,15 @@ public class ScheduledEvent {
         return user;
     }
 
+    /**
+     * Set the user who scheduled this event
+     *
+     * @param user The user
+     */
+    public void setUser(User user) {
+        this.user = user;
+    }
+
     /**
      * Get the service associated with this event
      *
@@ -310,6 +329,16 @@ public class ScheduledEvent {
         item.setStatus(FoodItem.ItemStatus.SCHEDULED_FOR_PICKUP);
     }
 
+    /**
+     * Replace the food items without changing their status, used when
+     * loading a stored event
+     *
+     * @param items The food items
+     */
+    public void setFoodItems(List<FoodItem> items) {
+        this.foodItems = new ArrayList<>(items);
+    }
+
     /**
      * Remove a food item from this event
      *
@@ -400,6 +429,8 @@ public class ScheduledEvent {
         for (FoodItem item : foodItems) {
             item.setStatus(newItemStatus);
         }
+        // Each item costs one narrow status UPDATE, all in one background transaction
+        DatabaseManager.getInstance().getWriteBehindQueue().enqueueChanges(foodItems);
     }
 
     /**
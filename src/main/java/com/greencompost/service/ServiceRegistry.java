@@ -0,0 +1,198 @@
+package com.greencompost.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import com.greencompost.service.LocalService.ServiceType;
+
+/**
+ * The service catalog shown by the app. Services are added and removed
+ * explicitly; creating a LocalService does not register it. Services are
+ * keyed by name, the same key the services table uses, so registering a
+ * service with a registered name replaces the older instance instead of
+ * growing the catalog. Renaming a registered service to another registered
+ * service's name is rejected.
+ *
+ * Reads are lock-free: every change builds a new immutable snapshot with
+ * indexes by type and city, and readers use whichever snapshot is current.
+ * Changes are rare (catalog loads), so copying on write is cheap overall.
+ */
+public class ServiceRegistry {
+    private static final ServiceRegistry instance = new ServiceRegistry();
+
+    private record Snapshot(List<LocalService> all,
+                            Map<String, LocalService> byName,
+                            Map<ServiceType, List<LocalService>> byType,
+                            Map<String, List<LocalService>> byCity) {
+    }
+
+    private volatile Snapshot snapshot = build(new LinkedHashMap<>());
+
+    /**
+     * Get the application-wide registry
+     *
+     * @return The registry instance
+     */
+    public static ServiceRegistry getInstance() {
+        return instance;
+    }
+
+    /**
+     * Add a service, replacing any registered service with the same name
+     *
+     * @param service The service to add
+     */
+    public void register(LocalService service) {
+        registerAll(List.of(service));
+    }
+
+    /**
+     * Add several services with one snapshot rebuild
+     *
+     * @param services The services to add
+     */
+    public synchronized void registerAll(Collection<LocalService> services) {
+        Map<String, LocalService> byName = new LinkedHashMap<>(snapshot.byName());
+        for (LocalService service : services) {
+            byName.put(service.getName(), service);
+        }
+        snapshot = build(byName);
+    }
+
+    /**
+     * Remove a service
+     *
+     * @param service The service to remove
+     * @return true if the service was registered
+     */
+    public synchronized boolean deregister(LocalService service) {
+        if (!isRegistered(service)) {
+            return false;
+        }
+        Map<String, LocalService> byName = new LinkedHashMap<>(snapshot.byName());
+        byName.remove(service.getName());
+        snapshot = build(byName);
+        return true;
+    }
+
+    /**
+     * Remove every service
+     */
+    public synchronized void clear() {
+        snapshot = build(new LinkedHashMap<>());
+    }
+
+    /**
+     * Apply a change to a service's name, type or city, re-indexing the
+     * service if it is registered. Called by LocalService's setters.
+     *
+     * @param service The service being changed
+     * @param change Assigns the new field values
+     */
+    synchronized void update(LocalService service, Runnable change) {
+        if (!isRegistered(service)) {
+            change.run();
+            return;
+        }
+        Map<String, LocalService> byName = new LinkedHashMap<>(snapshot.byName());
+        byName.remove(service.getName());
+        change.run();
+        byName.put(service.getName(), service);
+        snapshot = build(byName);
+    }
+
+    /**
+     * Rename a service, re-indexing it if it is registered. Called by
+     * LocalService.setName.
+     *
+     * @param service The service being renamed
+     * @param newName The name the change assigns
+     * @param change Assigns the new name
+     * @throws IllegalArgumentException if the service is registered and
+     *         another registered service already has the new name
+     */
+    synchronized void rename(LocalService service, String newName, Runnable change) {
+        LocalService holder = snapshot.byName().get(newName);
+        if (holder != null && holder != service && isRegistered(service)) {
+            throw new IllegalArgumentException("Another service is already registered as " + newName);
+        }
+        update(service, change);
+    }
+
+    private boolean isRegistered(LocalService service) {
+        return snapshot.byName().get(service.getName()) == service;
+    }
+
+    private static Snapshot build(Map<String, LocalService> byName) {
+        List<LocalService> all = new ArrayList<>(byName.values());
+        Map<ServiceType, List<LocalService>> byType = new EnumMap<>(ServiceType.class);
+        Map<String, List<LocalService>> byCity = new HashMap<>();
+        for (LocalService service : all) {
+            if (service.getType() != null) {
+                byType.computeIfAbsent(service.getType(), t -> new ArrayList<>()).add(service);
+            }
+            String cityKey = cityKey(service.getCity());
+            if (cityKey != null) {
+                byCity.computeIfAbsent(cityKey, c -> new ArrayList<>()).add(service);
+            }
+        }
+        byType.replaceAll((type, services) -> Collections.unmodifiableList(services));
+        byCity.replaceAll((city, services) -> Collections.unmodifiableList(services));
+        return new Snapshot(Collections.unmodifiableList(all), byName, byType, byCity);
+    }
+
+    private static String cityKey(String city) {
+        return city != null && !city.isEmpty() ? city.toLowerCase(Locale.ROOT) : null;
+    }
+
+    /**
+     * Get every registered service
+     *
+     * @return An unmodifiable snapshot, in registration order
+     */
+    public List<LocalService> getAll() {
+        return snapshot.all();
+    }
+
+    /**
+     * Look up a service by name
+     *
+     * @param name The service name
+     * @return The service, or null if none is registered
+     */
+    public LocalService get(String name) {
+        return snapshot.byName().get(name);
+    }
+
+    /**
+     * Find services of one type
+     *
+     * @param type The service type
+     * @return An unmodifiable snapshot, in registration order
+     */
+    public List<LocalService> findByType(ServiceType type) {
+        return snapshot.byType().getOrDefault(type, List.of());
+    }
+
+    /**
+     * Find services in a city, ignoring case
+     *
+     * @param city The city
+     * @return An unmodifiable snapshot, in registration order
+     */
+    public List<LocalService> findByCity(String city) {
+        String cityKey = cityKey(city);
+        return cityKey != null ? snapshot.byCity().getOrDefault(cityKey, List.of()) : List.of();
+    }
+
+    public int size() {
+        return snapshot.all().size();
+    }
+}
@@ -770,17 +770,9 @@ public class CompostController implements Initializable {
         LocalService facility = isHomeComposting ? null : facilityComboBox.getValue();
         
         try {
-            // Process each selected food item
-            for (FoodItem item : selectedFoodItems) {
-                // Add new items to user's collection if they're not already there
-                if (newFoodItems.contains(item)) {
-                    currentUser.addFoodItem(item);
-                    FoodItem.allFoodItems.add(item);
-                }
-                
-                // Update status
-                item.setStatus(ItemStatus.COMPOSTED);
-            }
+            // New items are added to the user and saved; the rest get a
+            // status update, both written off the FX thread
+            FoodItem.updateStatus(currentUser, selectedFoodItems, newFoodItems, ItemStatus.COMPOSTED);
             
             // Create a scheduled event for the composting if facility pickup requested
             if (!isHomeComposting && requestPickupRadio.isSelected() && facility != null) {
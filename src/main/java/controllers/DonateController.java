@@ -679,17 +679,9 @@ public class DonateController implements Initializable {
         LocalService foodBank = foodBankComboBox.getValue();
         
         try {
-            // Process each selected food item
-            for (FoodItem item : selectedFoodItems) {
-                // Add new items to user's collection if they're not already there
-                if (newFoodItems.contains(item)) {
-                    currentUser.addFoodItem(item);
-                    FoodItem.allFoodItems.add(item);
-                }
-                
-                // Update status
-                item.setStatus(ItemStatus.SCHEDULED_FOR_PICKUP);
-            }
+            // New items are added to the user and saved; the rest get a
+            // status update, both written off the FX thread
+            FoodItem.updateStatus(currentUser, selectedFoodItems, newFoodItems, ItemStatus.SCHEDULED_FOR_PICKUP);
             
             // Create a scheduled event for the donation if pickup requested
             if (requestPickupRadio.isSelected()) {
@@ -4,6 +4,7 @@ import com.greencompost.User;
 import com.greencompost.model.DatabaseManager;
 import com.greencompost.service.LocalService;
 import com.greencompost.service.LocalService.ServiceType;
+import com.greencompost.service.ServiceRegistry;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
@@ -522,7 +523,8 @@ public class FindNearbyServicesController implements Initializable {
         System.out.println("Creating services for ALL CITIES");
         
         // Clear existing services
-        LocalService.availableServices.clear();
+        ServiceRegistry registry = ServiceRegistry.getInstance();
+        registry.clear();
         
         // Dublin (3 services)
         LocalService service1 = new LocalService("Dublin Food Bank", "123 Main St, Dublin", "info@dub.ie", "Dublin", ServiceType.FOOD_BANK);
@@ -614,7 +616,10 @@ public class FindNearbyServicesController implements Initializable {
         LocalService service27 = new LocalService("Manhattan Compost Project", "22 Washington Square, New York", "compost@nyc.org", "New York", ServiceType.COMPOSTING_FACILITY);
         service27.setCalculatedDistance(5095.0);
         
-        System.out.println("Created total of " + LocalService.availableServices.size() + " services across all cities");
+        registry.registerAll(List.of(service1, service2, service3, service4, service5, service6, service7, service8, service9,
+                service10, service11, service12, service13, service14, service15, service16, service17, service18,
+                service19, service20, service21, service22, service23, service24, service25, service26, service27));
+        System.out.println("Created total of " + registry.size() + " services across all cities");
     }
     
     /**
@@ -2,9 +2,10 @@
 package controllers;
 
 import com.greencompost.User;
-import com.greencompost.model.DatabaseManager;
+import com.greencompost.model.AsyncDatabaseManager;
 import com.greencompost.service.LocalService;
 import com.greencompost.service.LocalService.ServiceType;
+import com.greencompost.service.ServiceRegistry;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
@@ -25,6 +26,7 @@ import java.util.Arrays;
 import java.util.List;
 import java.util.ResourceBundle;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Controller for the find services view - allows users to filter and select services
@@ -81,6 +83,9 @@ public class FindServicesController implements Initializable {
     private ObservableList<LocalService> services;
     private ObservableList<LocalService> allServices;
     
+    // Database load in progress, cancelled when the view is left
+    private CompletableFuture<List<LocalService>> pendingServiceLoad;
+    
     // Cities for filtering
     private final List<String> cities = new ArrayList<>(Arrays.asList(
         "Cork", "Dublin", "Galway", "Limerick", "Belfast", "San Francisco",
@@ -121,6 +126,13 @@ public class FindServicesController implements Initializable {
         // Setup table columns
         setupTableColumns();
         
+        // Cancel any pending database load when the view is navigated away from
+        servicesTable.sceneProperty().addListener((observable, oldScene, newScene) -> {
+            if (newScene == null) {
+                AsyncDatabaseManager.cancel(pendingServiceLoad);
+            }
+        });
+        
         // Initialize services list
         services = FXCollections.observableArrayList();
         servicesTable.setItems(services);
@@ -291,8 +303,9 @@ public class FindServicesController implements Initializable {
      * This ensures we always have services to display
      */
     private void createSampleServices() {
-        // Only create if the static list is empty
-        if (!LocalService.availableServices.isEmpty()) {
+        // Only create if the registry is empty
+        ServiceRegistry registry = ServiceRegistry.getInstance();
+        if (registry.size() > 0) {
             System.out.println("Services already exist, not creating samples");
             return; // Don't create duplicates
         }
@@ -352,6 +365,7 @@ public class FindServicesController implements Initializable {
             foodBank.setPickupRadius(5.0);
             foodBank.addAcceptedItem("Canned goods");
             foodBank.addAcceptedItem("Fresh produce");
+            registry.register(foodBank);
             
             // 2. Composting Facility
             LocalService compost = new LocalService(
@@ -365,6 +379,7 @@ public class FindServicesController implements Initializable {
             compost.setPickupAvailable(false);
             compost.addAcceptedItem("Food scraps");
             compost.addAcceptedItem("Yard waste");
+            registry.register(compost);
             
             // 3. Community Garden
             LocalService garden = new LocalService(
@@ -377,6 +392,7 @@ public class FindServicesController implements Initializable {
             );
             garden.setPickupAvailable(false);
             garden.addAcceptedItem("Compost materials");
+            registry.register(garden);
             
             // 4. For major cities add a food donation center
             if ("Dublin".equals(city) || "San Francisco".equals(city) || "Cork".equals(city)) {
@@ -393,10 +409,11 @@ public class FindServicesController implements Initializable {
                 donationCenter.addAcceptedItem("Non-perishable food");
                 donationCenter.addAcceptedItem("Fresh produce");
                 donationCenter.setAcceptsFoodDonations(true);
+                registry.register(donationCenter);
             }
         }
         
-        System.out.println("Created " + LocalService.availableServices.size() + " sample services");
+        System.out.println("Created " + registry.size() + " sample services");
     }
     
     
@@ -663,23 +680,39 @@ public class FindServicesController implements Initializable {
         System.out.println("Displaying all available services");
         
         // Make sure we're using the most comprehensive list of services
-        // First check static list since that's initialized at startup
-        if (!LocalService.availableServices.isEmpty()) {
-            // Use static list if it has services
-            allServices = FXCollections.observableArrayList(LocalService.availableServices);
+        // First check the registry since that's initialized at startup
+        if (ServiceRegistry.getInstance().size() > 0) {
+            // Use the registry if it has services
+            allServices = FXCollections.observableArrayList(ServiceRegistry.getInstance().getAll());
             System.out.println("Using services from static list: " + allServices.size());
         }
         
-        // If allServices is still empty, try checking database as fallback
+        // If allServices is still empty, load from the database off the FX thread
+        AsyncDatabaseManager.cancel(pendingServiceLoad);
         if (allServices.isEmpty()) {
-            DatabaseManager dbManager = DatabaseManager.getInstance();
-            List<LocalService> dbServices = dbManager.getAllLocalServices();
-            if (!dbServices.isEmpty()) {
-                allServices = FXCollections.observableArrayList(dbServices);
-                System.out.println("Using services from database: " + allServices.size());
-            }
+            resultsLabel.setText("Loading services...");
+            pendingServiceLoad = AsyncDatabaseManager.getInstance().getAllLocalServices();
+            AsyncDatabaseManager.onFxThread(pendingServiceLoad, dbServices -> {
+                if (!dbServices.isEmpty()) {
+                    ServiceRegistry.getInstance().registerAll(dbServices);
+                    allServices = FXCollections.observableArrayList(dbServices);
+                    System.out.println("Using services from database: " + allServices.size());
+                }
+                showServiceList();
+            }, error -> {
+                System.err.println("Error loading services: " + error.getMessage());
+                showServiceList();
+            });
+            return;
         }
         
+        showServiceList();
+    }
+    
+    /**
+     * Show every service in allServices in the table, unfiltered
+     */
+    private void showServiceList() {
         // Check if we have any services to display
         if (allServices.isEmpty()) {
             System.err.println("ERROR: No services available to display");
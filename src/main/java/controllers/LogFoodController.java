@@ -2,6 +2,7 @@ package controllers;
 
 import com.greencompost.User;
 import com.greencompost.controller.FoodItem;
+import com.greencompost.model.DatabaseManager;
 import com.greencompost.service.LocalService;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
@@ -128,6 +129,8 @@ public class LogFoodController implements Initializable {
             // Set description if entered
             if (!descriptionArea.getText().trim().isEmpty()) {
                 currentItem.setDescription(descriptionArea.getText().trim());
+                // The save queued by addFoodItem may already have been written
+                DatabaseManager.getInstance().getWriteBehindQueue().enqueueChanges(currentItem);
             }
             
             // Show success message
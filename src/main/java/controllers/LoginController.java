@@ -3,6 +3,7 @@ package controllers;
 import java.util.HashMap;
 import java.util.Map;
 import com.greencompost.User;
+import com.greencompost.model.AsyncDatabaseManager;
 import com.greencompost.model.DatabaseManager;
 import com.greencompost.main.Main;
 import javafx.fxml.FXML;
@@ -17,6 +18,7 @@ import javafx.stage.Stage;
 import java.io.IOException;
 import java.net.URL;
 import java.util.ResourceBundle;
+import java.util.concurrent.CompletableFuture;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -42,6 +44,9 @@ public class LoginController implements Initializable {
     // In a real application, this would connect to a database
     private UserRepository userRepository;
     
+    // Database lookup for the login in progress, cancelled on navigation
+    private CompletableFuture<com.greencompost.User> pendingLogin;
+    
     @Override
     public void initialize(URL location, ResourceBundle resources) {
         // Initialize user repository
@@ -113,16 +118,36 @@ public class LoginController implements Initializable {
             return;
         }
         
-        // Try database authentication first (real app functionality)
-        com.greencompost.User dbUser = com.greencompost.User.findByUsername(username);
+        // Try database authentication first (real app functionality),
+        // looking the user up off the FX thread
+        AsyncDatabaseManager.cancel(pendingLogin);
+        loginButton.setDisable(true);
+        pendingLogin = AsyncDatabaseManager.getInstance().findUserByUsername(username);
+        AsyncDatabaseManager.onFxThread(pendingLogin,
+                dbUser -> completeLogin(username, password, dbUser),
+                error -> {
+                    LOGGER.log(Level.WARNING, "Error looking up user", error);
+                    completeLogin(username, password, null);
+                });
+    }
+    
+    /**
+     * Finish a login once the database lookup has returned
+     *
+     * @param username The entered username
+     * @param password The entered password
+     * @param dbUser The stored user, or null if not found
+     */
+    private void completeLogin(String username, String password, com.greencompost.User dbUser) {
+        loginButton.setDisable(false);
         if (dbUser != null && dbUser.getPassword().equals(password)) {
             showStatus("Login successful!", false);
             
             // Store if "Remember Me" is selected
             if (rememberMeCheckbox.isSelected()) {
                 dbUser.setRememberMe(true);
-                // Save to database
-                com.greencompost.model.DatabaseManager.getInstance().saveUser(dbUser);
+                // Save to database without blocking the UI thread
+                com.greencompost.model.DatabaseManager.getInstance().getWriteBehindQueue().enqueueUser(dbUser);
             }
             
             // Set current user in Main
@@ -185,6 +210,7 @@ public class LoginController implements Initializable {
      */
     @FXML
     private void switchToRegister() {
+        AsyncDatabaseManager.cancel(pendingLogin);
         try {
             URL registerViewURL = getClass().getResource("/views/RegisterView.fxml");
             if (registerViewURL == null) {
@@ -208,6 +234,7 @@ public class LoginController implements Initializable {
      */
     @FXML
     private void showResetPassword() {
+        AsyncDatabaseManager.cancel(pendingLogin);
         try {
             URL resetPasswordViewURL = getClass().getResource("/views/ResetPasswordView.fxml");
             if (resetPasswordViewURL == null) {
@@ -327,7 +354,7 @@ public class LoginController implements Initializable {
                 dbUser.setLatitude(51.9);
                 dbUser.setLongitude(-8.47);
                 
-                DatabaseManager.getInstance().saveUser(dbUser);
+                DatabaseManager.getInstance().getWriteBehindQueue().enqueueUser(dbUser);
                 LOGGER.log(Level.INFO, "Created demo user in database");
             }
         } catch (Exception e) {
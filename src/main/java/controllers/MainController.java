@@ -2,6 +2,7 @@ package controllers;
 
 import com.greencompost.User;
 import com.greencompost.controller.FoodItem;
+import com.greencompost.model.AsyncDatabaseManager;
 import com.greencompost.service.LocalService;
 import javafx.scene.Scene;
 import javafx.stage.Stage;
@@ -19,8 +20,10 @@ import javafx.scene.layout.VBox;
 
 import java.io.IOException;
 import java.net.URL;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.ResourceBundle;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Controller for the main dashboard view
@@ -141,6 +144,8 @@ public class MainController implements Initializable {
     private User currentUser;
     private ObservableList<FoodItem> expiringSoonItems;
     private ObservableList<LocalService> nearbyServices;
+    private CompletableFuture<Integer> pendingItemCount;
+    private CompletableFuture<Integer> pendingExpiringCount;
 
     // Child views
     private Parent logFoodView;
@@ -428,20 +433,23 @@ public class MainController implements Initializable {
      * Refresh dashboard data
      */
     private void refreshDashboard() {
-        // Update statistics
-        List<FoodItem> userItems = currentUser.getFoodItems();
-        int totalItems = userItems.size();
-        totalItemsLabel.setText(String.valueOf(totalItems));
+        // Update statistics from user_stats and the expiry index, off the FX thread
+        AsyncDatabaseManager.cancel(pendingItemCount);
+        pendingItemCount = AsyncDatabaseManager.getInstance().getFoodItemCount(currentUser);
+        AsyncDatabaseManager.onFxThread(pendingItemCount,
+            count -> totalItemsLabel.setText(String.valueOf(count)),
+            error -> System.err.println("Error counting items: " + error.getMessage()));
+
+        LocalDateTime now = LocalDateTime.now();
+        AsyncDatabaseManager.cancel(pendingExpiringCount);
+        pendingExpiringCount = AsyncDatabaseManager.getInstance()
+            .countItemsExpiringBetween(currentUser, now, now.plusHours(48));
+        AsyncDatabaseManager.onFxThread(pendingExpiringCount,
+            count -> expiringSoonLabel.setText(String.valueOf(count)),
+            error -> System.err.println("Error counting expiring items: " + error.getMessage()));
 
         // Find expiring soon items
-        List<FoodItem> expiring = FoodItem.findExpiringSoon();
-        int expiringSoon = 0;
-        for (FoodItem item : expiring) {
-            if (userItems.contains(item)) {
-                expiringSoon++;
-            }
-        }
-        expiringSoonLabel.setText(String.valueOf(expiringSoon));
+        List<FoodItem> expiring = FoodItem.findExpiringSoon(currentUser);
 
         // Find nearby services
         List<LocalService> services = LocalService.findNearbyServicesForUser(currentUser, 10);
@@ -2,6 +2,8 @@ package controllers;
 
 import com.greencompost.User;
 import com.greencompost.controller.FoodItem;
+import com.greencompost.model.AsyncDatabaseManager;
+import javafx.animation.PauseTransition;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
@@ -12,10 +14,16 @@ import javafx.scene.control.*;
 import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.scene.layout.GridPane;
 import javafx.scene.layout.VBox;
+import javafx.util.Duration;
 
 import java.net.URL;
 import java.time.format.DateTimeFormatter;
+import java.util.HashSet;
+import java.util.List;
 import java.util.ResourceBundle;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Predicate;
 
 /**
@@ -23,6 +31,9 @@ import java.util.function.Predicate;
  */
 public class MyItemsController implements Initializable {
 
+    // Quiet time after the last keystroke before the search runs
+    private static final Duration SEARCH_DELAY = Duration.millis(250);
+
     @FXML private ComboBox<String> filterComboBox;
     @FXML private TextField searchField;
     @FXML private TableView<FoodItem> itemsTable;
@@ -51,6 +62,10 @@ public class MyItemsController implements Initializable {
     private User currentUser;
     private ObservableList<FoodItem> allItems;
     private FilteredList<FoodItem> filteredItems;
+    private final PauseTransition searchDelay = new PauseTransition(SEARCH_DELAY);
+    private CompletableFuture<List<UUID>> pendingSearch;
+    // Ids matching the current search text, or null when there is no search text
+    private Set<UUID> searchMatches;
     
     @Override
     public void initialize(URL location, ResourceBundle resources) {
@@ -177,27 +192,64 @@ public class MyItemsController implements Initializable {
     }
     
     /**
-     * Setup search field
+     * Setup search field. Typing restarts a short delay, and the full-text
+     * search runs once the delay passes without another keystroke.
      */
     private void setupSearchField() {
+        searchDelay.setOnFinished(event -> runSearch());
+        
         // Use explicit implementation without lambda to avoid parameter warnings
         searchField.textProperty().addListener(
             new javafx.beans.value.ChangeListener<String>() {
                 @Override
                 public void changed(javafx.beans.value.ObservableValue<? extends String> observable, 
                                   String oldValue, String newValue) {
-                    applyFilters();
+                    searchDelay.playFromStart();
                 }
             }
         );
+        
+        // Stop a pending search when the view is navigated away from
+        itemsTable.sceneProperty().addListener((observable, oldScene, newScene) -> {
+            if (newScene == null) {
+                searchDelay.stop();
+                AsyncDatabaseManager.cancel(pendingSearch);
+            }
+        });
+    }
+    
+    /**
+     * Search the user's items through the full-text index off the FX thread.
+     * Queued saves are written first, so items logged moments ago are found.
+     * Each word matches as a word prefix. A newer search cancels an older one,
+     * and the table keeps its current filter until the result arrives.
+     */
+    private void runSearch() {
+        String searchText = searchField.getText().trim();
+        AsyncDatabaseManager.cancel(pendingSearch);
+        if (searchText.isEmpty() || allItems.isEmpty()) {
+            searchMatches = null;
+            applyFilters();
+            return;
+        }
+        
+        // Every held item may match; read the size here, on the FX thread
+        int limit = allItems.size();
+        AsyncDatabaseManager database = AsyncDatabaseManager.getInstance();
+        pendingSearch = database.flushWrites()
+            .thenCompose(written -> database.searchFoodItemIds(currentUser, searchText, limit));
+        AsyncDatabaseManager.onFxThread(pendingSearch, ids -> {
+            searchMatches = new HashSet<>(ids);
+            applyFilters();
+        }, error -> System.err.println("Error searching items: " + error.getMessage()));
     }
     
     /**
-     * Apply filters based on category and search text
+     * Apply filters based on category and the latest search result
      */
     private void applyFilters() {
         String category = filterComboBox.getValue();
-        String searchText = searchField.getText().toLowerCase().trim();
+        Set<UUID> matches = searchMatches;
         
         // Create predefined predicates to avoid lambda parameter warnings
         final Predicate<FoodItem> ALWAYS_TRUE = new Predicate<FoodItem>() {
@@ -215,12 +267,10 @@ public class MyItemsController implements Initializable {
         }
         
         Predicate<FoodItem> searchFilter;
-        if (searchText.isEmpty()) {
+        if (matches == null) {
             searchFilter = ALWAYS_TRUE;
         } else {
-            searchFilter = item -> 
-                item.getName().toLowerCase().contains(searchText) ||
-                item.getDescription().toLowerCase().contains(searchText);
+            searchFilter = item -> matches.contains(item.getId());
         }
         
         filteredItems.setPredicate(categoryFilter.and(searchFilter));
@@ -307,7 +357,7 @@ public class MyItemsController implements Initializable {
             return;
         }
         
-        selectedItem.setStatus(FoodItem.ItemStatus.DONATED);
+        FoodItem.updateStatus(currentUser, List.of(selectedItem), List.of(), FoodItem.ItemStatus.DONATED);
         itemsTable.refresh();
         showItemDetails(selectedItem);
     }
@@ -322,7 +372,7 @@ public class MyItemsController implements Initializable {
             return;
         }
         
-        selectedItem.setStatus(FoodItem.ItemStatus.COMPOSTED);
+        FoodItem.updateStatus(currentUser, List.of(selectedItem), List.of(), FoodItem.ItemStatus.COMPOSTED);
         itemsTable.refresh();
         showItemDetails(selectedItem);
     }
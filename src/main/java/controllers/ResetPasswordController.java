@@ -13,7 +13,8 @@ import javafx.stage.Stage;
 import java.io.IOException;
 import java.net.URL;
 import java.util.ResourceBundle;
-import com.greencompost.model.DatabaseManager;
+import java.util.concurrent.CompletableFuture;
+import com.greencompost.model.AsyncDatabaseManager;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -36,6 +37,9 @@ public class ResetPasswordController implements Initializable {
     @FXML private Button backToLoginFromResetButton;
     @FXML private Label statusLabel;
     
+    // Password update in progress, cancelled on navigation
+    private CompletableFuture<Boolean> pendingReset;
+    
     @Override
     public void initialize(URL location, ResourceBundle resources) {
         // Configure password fields and their text field equivalents
@@ -147,50 +151,17 @@ public class ResetPasswordController implements Initializable {
             // Log the attempt
             LOGGER.log(Level.INFO, "Attempting to reset password for username: {0}", username); 
             
-            // Try direct SQL query to bypass any potential issues in the higher-level API
-            java.sql.Connection conn = DatabaseManager.getInstance().getConnection();
-            
-            // Check if username exists first
-            String checkSql = "SELECT username FROM users WHERE username = ?";
-            try (java.sql.PreparedStatement checkStmt = conn.prepareStatement(checkSql)) {
-                checkStmt.setString(1, username);
-                java.sql.ResultSet rs = checkStmt.executeQuery();
-                
-                if (rs.next()) {
-                    LOGGER.log(Level.INFO, "Found user with username: {0}", username);
-                    
-                    // Update password directly with SQL
-                    String updateSql = "UPDATE users SET password = ? WHERE username = ?";
-                    try (java.sql.PreparedStatement updateStmt = conn.prepareStatement(updateSql)) {
-                        updateStmt.setString(1, newPassword);
-                        updateStmt.setString(2, username);
-                        int rowsAffected = updateStmt.executeUpdate();
-                        
-                        if (rowsAffected > 0) {
-                            LOGGER.log(Level.INFO, "Password reset successful for user: {0}", username);
-                            showStatus("Password reset successful! You can now log in with your new password.", false);
-                            
-                            // Clear fields
-                            resetUsernameField.setText("");
-                            resetNewPasswordField.setText("");
-                            resetNewPasswordTextField.setText("");
-                            resetConfirmPasswordField.setText("");
-                            resetConfirmPasswordTextField.setText("");
-                            
-                            // Wait a moment before navigating to login so user can see the success message
-                            javafx.animation.PauseTransition pause = new javafx.animation.PauseTransition(javafx.util.Duration.seconds(2));
-                            pause.setOnFinished(event -> navigateToLogin());
-                            pause.play();
-                        } else {
-                            LOGGER.log(Level.WARNING, "No rows affected when updating password");
-                            showStatus("Error updating password in database", true);
-                        }
-                    }
-                } else {
-                    LOGGER.log(Level.WARNING, "No user found with username: {0}", username);
-                    showStatus("No account found with that username", true);
-                }
-            }
+            // Update the password off the FX thread
+            AsyncDatabaseManager.cancel(pendingReset);
+            resetPasswordSubmitButton.setDisable(true);
+            pendingReset = AsyncDatabaseManager.getInstance().updateUserPassword(username, newPassword);
+            AsyncDatabaseManager.onFxThread(pendingReset,
+                    updated -> completeReset(username, updated),
+                    error -> {
+                        resetPasswordSubmitButton.setDisable(false);
+                        LOGGER.log(Level.SEVERE, "Error resetting password", error);
+                        showStatus("Error resetting password: " + error.getMessage(), true);
+                    });
         } catch (Exception e) {
             LOGGER.log(Level.SEVERE, "Error resetting password", e);
             showStatus("Error resetting password: " + e.getMessage(), true);
@@ -198,11 +169,41 @@ public class ResetPasswordController implements Initializable {
         }
     }
     
+    /**
+     * Finish a reset once the database update has returned
+     *
+     * @param username The username that was reset
+     * @param updated Whether a stored user was updated
+     */
+    private void completeReset(String username, boolean updated) {
+        resetPasswordSubmitButton.setDisable(false);
+        if (updated) {
+            LOGGER.log(Level.INFO, "Password reset successful for user: {0}", username);
+            showStatus("Password reset successful! You can now log in with your new password.", false);
+            
+            // Clear fields
+            resetUsernameField.setText("");
+            resetNewPasswordField.setText("");
+            resetNewPasswordTextField.setText("");
+            resetConfirmPasswordField.setText("");
+            resetConfirmPasswordTextField.setText("");
+            
+            // Wait a moment before navigating to login so user can see the success message
+            javafx.animation.PauseTransition pause = new javafx.animation.PauseTransition(javafx.util.Duration.seconds(2));
+            pause.setOnFinished(event -> navigateToLogin());
+            pause.play();
+        } else {
+            LOGGER.log(Level.WARNING, "No user found with username: {0}", username);
+            showStatus("No account found with that username", true);
+        }
+    }
+    
     /**
      * Navigate back to login view
      */
     @FXML
     private void navigateToLogin() {
+        AsyncDatabaseManager.cancel(pendingReset);
         try {
             URL loginViewURL = getClass().getResource("/views/LoginView.fxml");
             if (loginViewURL == null) {
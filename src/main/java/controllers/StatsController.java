@@ -2,6 +2,8 @@ package controllers;
 
 import com.greencompost.User;
 import com.greencompost.controller.FoodItem;
+import com.greencompost.model.AsyncDatabaseManager;
+import com.greencompost.model.FoodItemStats;
 import javafx.beans.property.SimpleDoubleProperty;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
@@ -21,8 +23,9 @@ import java.io.FileWriter;
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.net.URL;
+import java.time.LocalDateTime;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Controller for the statistics view
@@ -55,7 +58,8 @@ public class StatsController implements Initializable {
     @FXML private Button printButton;
     
     private User currentUser;
-    private List<FoodItem> userItems;
+    private FoodItemStats stats;
+    private CompletableFuture<FoodItemStats> pendingStats;
     
     /**
      * Static class to hold category statistics
@@ -94,22 +98,24 @@ public class StatsController implements Initializable {
             // Initialize with empty data first to prevent null pointer exceptions
             initializeEmptyData();
             
-            if (currentUser != null) {
-                userItems = currentUser.getFoodItems();
-                
-                // If user has no items, use sample data for demonstration
-                if (userItems == null || userItems.isEmpty()) {
-                    System.out.println("User has no food items, using sample data");
-                    userItems = createSampleFoodItems();
+            // Cancel a pending statistics load when the view is navigated away from
+            statsTable.sceneProperty().addListener((observable, oldScene, newScene) -> {
+                if (newScene == null) {
+                    AsyncDatabaseManager.cancel(pendingStats);
                 }
-                
-                // Load statistics with actual or sample data
-                loadStatistics();
+            });
+            
+            if (currentUser != null) {
+                // Aggregate in the database off the FX thread
+                pendingStats = AsyncDatabaseManager.getInstance().getFoodItemStats(currentUser);
+                AsyncDatabaseManager.onFxThread(pendingStats, this::showStatistics, error -> {
+                    System.err.println("Error loading statistics: " + error.getMessage());
+                    showErrorMessage();
+                });
             } else {
                 System.err.println("Warning: Current user is null in StatsController");
                 // Use sample data when user is null
-                userItems = createSampleFoodItems();
-                loadStatistics();
+                loadStatistics(FoodItemStats.of(createSampleFoodItems(), LocalDateTime.now()));
             }
         } catch (Exception e) {
             System.err.println("Error initializing StatsController: " + e.getMessage());
@@ -117,8 +123,7 @@ public class StatsController implements Initializable {
             
             // Even if an error occurs, try to show some content
             try {
-                userItems = createSampleFoodItems();
-                loadStatistics();
+                loadStatistics(FoodItemStats.of(createSampleFoodItems(), LocalDateTime.now()));
             } catch (Exception ex) {
                 System.err.println("Failed to load fallback statistics: " + ex.getMessage());
                 // Show error message in UI
@@ -149,6 +154,17 @@ public class StatsController implements Initializable {
         compostedLabel.setText("0");
     }
     
+    /**
+     * Show the user's statistics, or sample data if the user has no items
+     */
+    private void showStatistics(FoodItemStats userStats) {
+        if (userStats.getTotalItems() == 0) {
+            System.out.println("User has no food items, using sample data");
+            userStats = FoodItemStats.of(createSampleFoodItems(), LocalDateTime.now());
+        }
+        loadStatistics(userStats);
+    }
+    
     /**
      * Show error message when statistics cannot be loaded
      */
@@ -303,7 +319,9 @@ public class StatsController implements Initializable {
     /**
      * Load statistics
      */
-    private void loadStatistics() {
+    private void loadStatistics(FoodItemStats stats) {
+        this.stats = stats;
+        
         // Initialize charts and metrics
         updateCategoryChart();
         updateExpiryChart();
@@ -315,20 +333,12 @@ public class StatsController implements Initializable {
      * Update the category pie chart
      */
     private void updateCategoryChart() {
-        // Count items by category
-        Map<FoodItem.FoodCategory, Integer> categoryCounts = new EnumMap<>(FoodItem.FoodCategory.class);
-        
-        for (FoodItem item : userItems) {
-            FoodItem.FoodCategory category = item.getCategory();
-            categoryCounts.put(category, categoryCounts.getOrDefault(category, 0) + 1);
-        }
-        
         // Create pie chart data
         ObservableList<PieChart.Data> pieChartData = FXCollections.observableArrayList();
-        for (Map.Entry<FoodItem.FoodCategory, Integer> entry : categoryCounts.entrySet()) {
+        for (Map.Entry<FoodItem.FoodCategory, FoodItemStats.CategoryTotals> entry : stats.getCategoryTotals().entrySet()) {
             pieChartData.add(new PieChart.Data(
                 formatCategoryName(entry.getKey().toString()), 
-                entry.getValue()
+                entry.getValue().count()
             ));
         }
         
@@ -340,38 +350,11 @@ public class StatsController implements Initializable {
      * Update the expiry timeline bar chart
      */
     private void updateExpiryChart() {
-        // Group items by expiry timeline
-        Map<String, Integer> expiryGroups = new LinkedHashMap<>();
-        expiryGroups.put("Expired", 0);
-        expiryGroups.put("Today", 0);
-        expiryGroups.put("Tomorrow", 0);
-        expiryGroups.put("This Week", 0);
-        expiryGroups.put("Next Week", 0);
-        expiryGroups.put("Later", 0);
-        
-        for (FoodItem item : userItems) {
-            long days = item.getDaysUntilExpiry();
-            
-            if (days <= 0) {
-                expiryGroups.put("Expired", expiryGroups.get("Expired") + 1);
-            } else if (days == 0) {
-                expiryGroups.put("Today", expiryGroups.get("Today") + 1);
-            } else if (days == 1) {
-                expiryGroups.put("Tomorrow", expiryGroups.get("Tomorrow") + 1);
-            } else if (days <= 7) {
-                expiryGroups.put("This Week", expiryGroups.get("This Week") + 1);
-            } else if (days <= 14) {
-                expiryGroups.put("Next Week", expiryGroups.get("Next Week") + 1);
-            } else {
-                expiryGroups.put("Later", expiryGroups.get("Later") + 1);
-            }
-        }
-        
         // Create bar chart data
         XYChart.Series<String, Number> series = new XYChart.Series<>();
         series.setName("Food Items");
         
-        for (Map.Entry<String, Integer> entry : expiryGroups.entrySet()) {
+        for (Map.Entry<String, Integer> entry : stats.getExpiryBuckets().entrySet()) {
             series.getData().add(new XYChart.Data<>(entry.getKey(), entry.getValue()));
         }
         
@@ -383,107 +366,43 @@ public class StatsController implements Initializable {
      * Update summary metrics
      */
     private void updateSummaryMetrics() {
-        int totalItems = userItems.size();
-        totalItemsLabel.setText(String.valueOf(totalItems));
+        totalItemsLabel.setText(String.valueOf(stats.getTotalItems()));
         
-        // Calculate total weight (convert to kg if possible)
-        double totalWeight = 0;
-        for (FoodItem item : userItems) {
-            String unit = item.getQuantityUnit().toLowerCase();
-            if (unit.contains("kg")) {
-                totalWeight += item.getQuantity();
-            } else if (unit.contains("g") && !unit.contains("kg")) {
-                // Convert grams to kg
-                totalWeight += item.getQuantity() / 1000.0;
-            }
-            // Other units are ignored for weight calculation
-        }
-        totalWeightLabel.setText(String.format("%.1f kg", totalWeight));
+        // Only items measured in kg or g count towards the weight
+        totalWeightLabel.setText(String.format("%.1f kg", stats.getTotalWeightKg()));
+        avgAgeLabel.setText(String.format("%.1f days", stats.getAverageAgeDays()));
+        expiringSoonLabel.setText(String.valueOf(stats.getExpiringSoonCount()));
         
-        // Calculate average item age
-        double totalAge = 0;
-        for (FoodItem item : userItems) {
-            totalAge += (System.currentTimeMillis() - item.getCreatedAt().toInstant(java.time.ZoneOffset.UTC).toEpochMilli()) / (1000.0 * 60 * 60 * 24);
-        }
-        double avgAge = totalItems > 0 ? totalAge / totalItems : 0;
-        avgAgeLabel.setText(String.format("%.1f days", avgAge));
-        
-        // Count expiring soon
-        int expiringSoon = 0;
-        for (FoodItem item : userItems) {
-            if (item.isExpiringSoon()) {
-                expiringSoon++;
-            }
-        }
-        expiringSoonLabel.setText(String.valueOf(expiringSoon));
-        
-        // Count by status
-        int donated = 0;
-        int composted = 0;
-        
-        for (FoodItem item : userItems) {
-            if (item.getStatus() == FoodItem.ItemStatus.DONATED) {
-                donated++;
-            } else if (item.getStatus() == FoodItem.ItemStatus.COMPOSTED) {
-                composted++;
-            }
-        }
-        
-        donatedLabel.setText(String.valueOf(donated));
-        compostedLabel.setText(String.valueOf(composted));
+        donatedLabel.setText(String.valueOf(stats.getStatusCount(FoodItem.ItemStatus.DONATED)));
+        compostedLabel.setText(String.valueOf(stats.getStatusCount(FoodItem.ItemStatus.COMPOSTED)));
     }
     
     /**
      * Update detailed statistics
      */
     private void updateDetailedStats() {
-        // Group items by category
-        Map<FoodItem.FoodCategory, List<FoodItem>> categoryGroups = userItems.stream()
-            .collect(Collectors.groupingBy(FoodItem::getCategory));
-        
         // Calculate stats for each category
-        ObservableList<CategoryStat> stats = FXCollections.observableArrayList();
+        ObservableList<CategoryStat> categoryStats = FXCollections.observableArrayList();
         
-        for (Map.Entry<FoodItem.FoodCategory, List<FoodItem>> entry : categoryGroups.entrySet()) {
-            List<FoodItem> items = entry.getValue();
-            int count = items.size();
-            
-            // Calculate total weight (convert to kg if possible)
-            double weight = 0;
-            for (FoodItem item : items) {
-                String unit = item.getQuantityUnit().toLowerCase();
-                if (unit.contains("kg")) {
-                    weight += item.getQuantity();
-                } else if (unit.contains("g") && !unit.contains("kg")) {
-                    // Convert grams to kg
-                    weight += item.getQuantity() / 1000.0;
-                }
-                // Other units are ignored for weight calculation
-            }
-            
-            // Calculate average days until expiry
-            double totalDays = 0;
-            for (FoodItem item : items) {
-                totalDays += item.getDaysUntilExpiry();
-            }
-            double avgDays = count > 0 ? totalDays / count : 0;
+        for (Map.Entry<FoodItem.FoodCategory, FoodItemStats.CategoryTotals> entry : stats.getCategoryTotals().entrySet()) {
+            FoodItemStats.CategoryTotals totals = entry.getValue();
             
             // Calculate percent of total
-            double percent = (double) count / userItems.size();
+            double percent = (double) totals.count() / stats.getTotalItems();
             
-            stats.add(new CategoryStat(
+            categoryStats.add(new CategoryStat(
                 formatCategoryName(entry.getKey().toString()),
-                count,
-                weight,
-                avgDays,
+                totals.count(),
+                totals.weightKg(),
+                totals.avgDaysUntilExpiry(),
                 percent
             ));
         }
         
         // Sort by count (descending)
-        stats.sort(Comparator.comparing(CategoryStat::getCount).reversed());
+        categoryStats.sort(Comparator.comparing(CategoryStat::getCount).reversed());
         
-        statsTable.setItems(stats);
+        statsTable.setItems(categoryStats);
     }
     
     /**
@@ -503,6 +422,10 @@ public class StatsController implements Initializable {
      */
     @FXML
     private void handleExportCsv() {
+        if (stats == null) {
+            return;
+        }
+        
         FileChooser fileChooser = new FileChooser();
         fileChooser.setTitle("Save Statistics");
         fileChooser.getExtensionFilters().add(
@@ -530,23 +453,9 @@ public class StatsController implements Initializable {
                 // Write summary
                 writer.println();
                 writer.println("Summary Statistics,");
-                writer.printf("Total Items,%d\n", userItems.size());
-                
-                double totalWeight = 0;
-                for (FoodItem item : userItems) {
-                    if (item.getQuantityUnit().toLowerCase().contains("kg")) {
-                        totalWeight += item.getQuantity();
-                    }
-                }
-                writer.printf("Total Weight,%.2f kg\n", totalWeight);
-                
-                int expiringSoon = 0;
-                for (FoodItem item : userItems) {
-                    if (item.isExpiringSoon()) {
-                        expiringSoon++;
-                    }
-                }
-                writer.printf("Items Expiring Soon,%d\n", expiringSoon);
+                writer.printf("Total Items,%d\n", stats.getTotalItems());
+                writer.printf("Total Weight,%.2f kg\n", stats.getTotalWeightKg());
+                writer.printf("Items Expiring Soon,%d\n", stats.getExpiringSoonCount());
                 
                 // Show success message
                 Alert alert = new Alert(Alert.AlertType.INFORMATION);
@@ -0,0 +1,144 @@
+package com.greencompost;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.List;
+import java.util.Locale;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class UserRegistryTest {
+    private final UserRegistry registry = UserRegistry.getInstance();
+
+    @BeforeEach
+    void clearRegistry() {
+        registry.getAll().forEach(registry::remove);
+    }
+
+    private static User user(String username, String location) {
+        User user = new User();
+        user.setUsername(username);
+        user.setEmail(username + "@example.com");
+        user.setLocation(location);
+        return user;
+    }
+
+    private static List<String> usernames(List<User> users) {
+        return users.stream().map(User::getUsername).toList();
+    }
+
+    @Test
+    void usernameAndEmailLookupsFollowChanges() {
+        User user = user("alice", "Cork");
+        assertSame(user, registry.findByUsername("alice"));
+        assertSame(user, registry.findByEmail("ALICE@example.com"));
+
+        user.setUsername("alice2");
+        user.setEmail("new@example.com");
+        assertNull(registry.findByUsername("alice"));
+        assertNull(registry.findByEmail("alice@example.com"));
+        assertSame(user, registry.findByUsername("alice2"));
+        assertSame(user, registry.findByEmail("new@example.com"));
+    }
+
+    @Test
+    void wholeWordsAreMatchedIgnoringCase() {
+        user("city", "12 Main Street, Dublin");
+        user("district", "Dublin 8");
+        user("elsewhere", "Cork");
+
+        assertEquals(List.of("city", "district"), usernames(registry.findByLocation("dublin")));
+        assertEquals(List.of("city"), usernames(registry.findByLocation("Main Street")));
+    }
+
+    @Test
+    void wholeWordAndSubstringMatchesAreBothFound() {
+        user("city", "Cork, Ireland");
+        user("suburb", "Corkstown");
+        user("elsewhere", "Galway");
+
+        assertEquals(List.of("city", "suburb"), usernames(registry.findByLocation("cork")));
+        assertEquals(List.of("city", "suburb"), usernames(registry.findByLocation("Co")));
+    }
+
+    @Test
+    void partialWordsMatchLikeASubstring() {
+        user("city", "12 Main Street, Dublin");
+        user("district", "Dublin 8");
+        user("elsewhere", "Cork");
+
+        assertEquals(List.of("city", "district"), usernames(registry.findByLocation("ubl")));
+        assertEquals(List.of("city"), usernames(registry.findByLocation("Main St")));
+        assertEquals(List.of("city"), usernames(registry.findByLocation("Street, Dub")));
+    }
+
+    @Test
+    void wordsMustAppearInOrderLikeASubstring() {
+        user("city", "12 Main Street, Dublin");
+
+        assertEquals(List.of(), registry.findByLocation("Street Main"));
+        assertEquals(List.of(), registry.findByLocation("Galway"));
+        assertEquals(List.of(), registry.findByLocation(""));
+        assertEquals(List.of(), registry.findByLocation(null));
+    }
+
+    @Test
+    void locationChangesAreReindexed() {
+        User user = user("mover", "Galway");
+        User neighbour = user("neighbour", "Limerick city");
+        user.setLocation("Limerick");
+
+        assertEquals(List.of(), registry.findByLocation("Galway"));
+        // Still in registration order, although the mover was re-indexed last
+        assertEquals(List.of(user, neighbour), registry.findByLocation("Limerick"));
+        assertEquals(List.of(user, neighbour), registry.findByLocation("meric"));
+    }
+
+    private List<User> scanByLocation(String keyword) {
+        String lower = keyword.toLowerCase(Locale.ROOT);
+        return registry.getAll().stream()
+                .filter(user -> user.getLocation() != null && user.getLocation().toLowerCase(Locale.ROOT).contains(lower))
+                .toList();
+    }
+
+    @Test
+    void locationLookupOnlyChecksIndexedUsers() {
+        for (int i = 0; i < 10_000; i++) {
+            user("user" + i, i % 1000 == 0 ? "Kinsale, Cork" : "Town " + i);
+        }
+
+        for (String keyword : List.of("Kinsale", "insal", "e, Co")) {
+            List<User> indexed = registry.findByLocation(keyword);
+            // Only the ten users under the keyword's rarest trigram were checked
+            assertEquals(10, registry.getLastLocationCandidateCount(), keyword);
+            assertEquals(scanByLocation(keyword), indexed);
+            assertEquals(10, indexed.size());
+        }
+
+        // Too short for a trigram, so every user is checked
+        assertEquals(scanByLocation("Ki"), registry.findByLocation("Ki"));
+        assertEquals(10_000, registry.getLastLocationCandidateCount());
+    }
+
+    @Test
+    void loginLookupsFindTheUserInAGrowingRegistry() {
+        int[] sizes = {10_000, 200_000};
+        for (int size : sizes) {
+            for (int i = registry.size(); i < size; i++) {
+                user("user" + i, "Town");
+            }
+            long start = System.nanoTime();
+            for (int i = 0; i < 1000; i++) {
+                int n = (int) ((long) i * size / 1000);
+                assertEquals("user" + n, registry.findByUsername("user" + n).getUsername());
+                assertEquals("user" + n, registry.findByEmail("USER" + n + "@example.com").getUsername());
+            }
+            // Printed for reference only; wall-clock ratios are too noisy to assert on
+            System.out.printf("Username and email lookup at %d users: %d ns%n",
+                    size, (System.nanoTime() - start) / 1000);
+        }
+    }
+}
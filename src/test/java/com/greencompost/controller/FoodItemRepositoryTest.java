@@ -0,0 +1,212 @@
+package com.greencompost.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.greencompost.User;
+import com.greencompost.controller.FoodItem.FoodCategory;
+import com.greencompost.controller.FoodItem.ItemStatus;
+
+class FoodItemRepositoryTest {
+    private static final LocalDateTime BASE = LocalDateTime.of(2030, 4, 1, 12, 0);
+
+    private final FoodItemRepository repository = FoodItemRepository.getInstance();
+
+    @BeforeEach
+    void clearRepository() {
+        repository.clear();
+    }
+
+    private static User user(String username) {
+        User user = new User();
+        user.setUsername(username);
+        return user;
+    }
+
+    private FoodItem added(String name, User owner, LocalDateTime expiry) {
+        FoodItem item = new FoodItem(name, 1, "kg", expiry, FoodCategory.DAIRY);
+        item.setOwner(owner);
+        repository.add(item);
+        return item;
+    }
+
+    private static List<String> names(List<FoodItem> items) {
+        return items.stream().map(FoodItem::getName).toList();
+    }
+
+    @Test
+    void addedItemIsFoundByItsExpiry() {
+        FoodItem milk = added("Milk", user("alice"), BASE.plusDays(1));
+
+        assertEquals(List.of(milk), repository.findExpiringBetween(BASE, BASE.plusDays(2)));
+        assertEquals(List.of(), repository.findExpiringBetween(BASE.plusDays(2), BASE.plusDays(3)));
+    }
+
+    @Test
+    void rangeIsHalfOpenAndOrderedByExpiry() {
+        User owner = user("bob");
+        added("Day 3", owner, BASE.plusDays(3));
+        added("Day 0", owner, BASE);
+        added("Day 2", owner, BASE.plusDays(2));
+        added("Day 1", owner, BASE.plusDays(1));
+        added("No expiry", owner, null);
+
+        assertEquals(List.of("Day 0", "Day 1"), names(repository.findExpiringBetween(BASE, BASE.plusDays(2))));
+        assertEquals(List.of(), repository.findExpiringBetween(BASE.plusDays(1), BASE.plusDays(1)));
+        assertEquals(List.of(), repository.findExpiringBetween(BASE.plusDays(2), BASE));
+    }
+
+    @Test
+    void itemsExpiringAtTheSameTimeAreAllFound() {
+        User owner = user("carol");
+        for (int i = 0; i < 5; i++) {
+            added("Same " + i, owner, BASE);
+        }
+        assertEquals(5, repository.findExpiringBetween(BASE, BASE.plusSeconds(1)).size());
+    }
+
+    @Test
+    void perOwnerRangeOnlyReturnsThatOwnersItems() {
+        User alice = user("alice");
+        User bob = user("bob");
+        added("Alice's cheese", alice, BASE.plusHours(1));
+        added("Bob's cheese", bob, BASE.plusHours(2));
+
+        assertEquals(List.of("Alice's cheese"), names(repository.findExpiringBetween(alice, BASE, BASE.plusDays(1))));
+        assertEquals(List.of("Bob's cheese"), names(repository.findExpiringBetween(bob, BASE, BASE.plusDays(1))));
+        assertEquals(List.of(), repository.findExpiringBetween(user("nobody"), BASE, BASE.plusDays(1)));
+    }
+
+    @Test
+    void changingTheExpiryOrOwnerReindexesTheItem() {
+        User alice = user("alice");
+        User bob = user("bob");
+        FoodItem yogurt = added("Yogurt", alice, BASE.plusHours(1));
+
+        yogurt.setExpiryDate(BASE.plusDays(5));
+        assertEquals(List.of(), repository.findExpiringBetween(BASE, BASE.plusDays(1)));
+        assertEquals(List.of(yogurt), repository.findExpiringBetween(alice, BASE.plusDays(5), BASE.plusDays(6)));
+
+        yogurt.setOwner(bob);
+        assertEquals(List.of(), repository.findExpiringBetween(alice, BASE, BASE.plusDays(10)));
+        assertEquals(List.of(yogurt), repository.findExpiringBetween(bob, BASE, BASE.plusDays(10)));
+        assertEquals(List.of(yogurt), repository.findByOwner(bob));
+    }
+
+    @Test
+    void statusAndCategoryChangesMoveBetweenBuckets() {
+        FoodItem bread = added("Bread", user("dave"), BASE);
+        bread.setStatus(ItemStatus.DONATED);
+        bread.setCategory(FoodCategory.GRAIN);
+
+        assertEquals(List.of(), repository.findByStatus(ItemStatus.AVAILABLE));
+        assertEquals(List.of(bread), repository.findByStatus(ItemStatus.DONATED));
+        assertEquals(List.of(), repository.findByCategory(FoodCategory.DAIRY));
+        assertEquals(List.of(bread), repository.findByCategory(FoodCategory.GRAIN));
+    }
+
+    @Test
+    void removedItemsLeaveEveryIndex() {
+        User owner = user("erin");
+        FoodItem butter = added("Butter", owner, BASE);
+
+        assertTrue(repository.remove(butter));
+        assertEquals(List.of(), repository.findExpiringBetween(BASE, BASE.plusDays(1)));
+        assertEquals(List.of(), repository.findExpiringBetween(owner, BASE, BASE.plusDays(1)));
+        assertEquals(List.of(), repository.findByOwner(owner));
+        assertEquals(0, repository.size());
+    }
+
+    @Test
+    void unregisteredItemsChangeWithoutWaitingForTheLock() throws Exception {
+        FoodItem indexed = added("Indexed", user("gail"), BASE);
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicBoolean heldUntilTimeout = new AtomicBoolean();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            // Holds the write lock until released
+            Future<?> holder = executor.submit(() -> repository.update(indexed, () -> {
+                locked.countDown();
+                try {
+                    heldUntilTimeout.set(!release.await(2, TimeUnit.SECONDS));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }));
+            assertTrue(locked.await(5, TimeUnit.SECONDS));
+
+            // What mapping a database row does
+            FoodItem mapped = new FoodItem();
+            mapped.setName("Mapped");
+            mapped.setCategory(FoodCategory.GRAIN);
+            mapped.setStatus(ItemStatus.DONATED);
+            mapped.setExpiryDate(BASE.plusDays(1));
+            mapped.setOwner(user("hal"));
+            assertEquals(FoodCategory.GRAIN, mapped.getCategory());
+            // Had a setter waited for the lock, the holder would have timed out first
+            assertFalse(heldUntilTimeout.get());
+
+            release.countDown();
+            holder.get(5, TimeUnit.SECONDS);
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+        assertEquals(List.of(indexed), repository.findByCategory(FoodCategory.DAIRY));
+        assertEquals(List.of(), repository.findByCategory(FoodCategory.GRAIN));
+    }
+
+    private List<FoodItem> scanWindow(LocalDateTime from, LocalDateTime to) {
+        List<FoodItem> found = new ArrayList<>();
+        for (FoodItem item : repository.getAll()) {
+            LocalDateTime expiry = item.getExpiryDate();
+            if (expiry != null && !expiry.isBefore(from) && expiry.isBefore(to)) {
+                found.add(item);
+            }
+        }
+        found.sort(Comparator.comparing(FoodItem::getExpiryDate));
+        return found;
+    }
+
+    @Test
+    void expiryWindowsMatchAFullScan() {
+        User owner = user("scaling");
+        // One item per minute, with every tenth item expiring alongside its neighbour
+        List<FoodItem> items = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            FoodItem item = new FoodItem("Item " + i, 1, "kg", BASE.plusMinutes(i - i % 10 / 9), FoodCategory.DAIRY);
+            item.setOwner(owner);
+            items.add(item);
+        }
+        repository.addAll(items);
+
+        int[][] windows = {{0, 50}, {5_000, 5_050}, {9_999, 10_001}, {19_950, 20_100}, {-10, 0}, {30_000, 30_050}};
+        for (int[] window : windows) {
+            LocalDateTime from = BASE.plusMinutes(window[0]);
+            LocalDateTime to = BASE.plusMinutes(window[1]);
+            List<FoodItem> expected = scanWindow(from, to);
+            List<FoodItem> found = repository.findExpiringBetween(from, to);
+            assertEquals(expected.size(), found.size(), window[0] + ".." + window[1]);
+            assertEquals(new HashSet<>(expected), new HashSet<>(found), window[0] + ".." + window[1]);
+            assertEquals(expected.stream().map(FoodItem::getExpiryDate).toList(),
+                    found.stream().map(FoodItem::getExpiryDate).toList());
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.greencompost.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.greencompost.User;
+import com.greencompost.controller.FoodItem.FoodCategory;
+import com.greencompost.controller.FoodItem.ItemStatus;
+import com.greencompost.model.AsyncDatabaseManager;
+import com.greencompost.model.DatabaseManager;
+import com.greencompost.model.FoodItemStats;
+
+/**
+ * The paths the item controllers take when items are logged, confirmed in a
+ * compost or donation plan, or removed, checked against the database counts
+ * the stats screen and the dashboard show
+ */
+class ItemStatusUpdateTest {
+    @TempDir
+    static Path dir;
+
+    private static DatabaseManager db;
+
+    @BeforeAll
+    static void openDatabase() {
+        DatabaseManager.setDatabaseUrl(dir.resolve("status.db").toString());
+        db = DatabaseManager.getInstance();
+    }
+
+    @AfterAll
+    static void closeDatabase() {
+        db.closeConnection();
+    }
+
+    private static User loggedInUser(String username) {
+        User user = new User();
+        user.setUsername(username);
+        user.setPassword("secret");
+        db.getWriteBehindQueue().enqueueUser(user);
+        return user;
+    }
+
+    /**
+     * An item typed into the compost or donate form: no owner until the plan is confirmed
+     */
+    private static FoodItem formItem(String name) {
+        return new FoodItem(name, 0.5, "kg", LocalDateTime.now().plusDays(4), FoodCategory.VEGETABLE);
+    }
+
+    /**
+     * The counts as the screens see them once the queued writes are flushed
+     */
+    private static FoodItemStats stats(User user) {
+        AsyncDatabaseManager async = AsyncDatabaseManager.getInstance();
+        return async.flushWrites().thenCompose(written -> async.getFoodItemStats(user)).join();
+    }
+
+    private static int dashboardItemCount(User user) {
+        AsyncDatabaseManager async = AsyncDatabaseManager.getInstance();
+        return async.flushWrites().thenCompose(written -> async.getFoodItemCount(user)).join();
+    }
+
+    private static int dashboardExpiringCount(User user) {
+        LocalDateTime now = LocalDateTime.now();
+        AsyncDatabaseManager async = AsyncDatabaseManager.getInstance();
+        return async.flushWrites()
+                .thenCompose(written -> async.countItemsExpiringBetween(user, now, now.plusHours(48))).join();
+    }
+
+    @Test
+    void compostedItemsAreCountedByTheStatsQuery() {
+        User user = loggedInUser("composter");
+        FoodItem logged = new FoodItem().addFoodItem(user, "Carrots", 1, "kg",
+                LocalDateTime.now().plusDays(2), FoodCategory.VEGETABLE);
+        FoodItem typed = formItem("Peelings");
+
+        FoodItem.updateStatus(user, List.of(logged, typed), List.of(typed), ItemStatus.COMPOSTED);
+
+        assertSame(user, typed.getOwner());
+        assertEquals(List.of(logged, typed), user.getFoodItems());
+        FoodItemStats stats = stats(user);
+        assertEquals(2, stats.getTotalItems());
+        assertEquals(2, stats.getStatusCount(ItemStatus.COMPOSTED));
+        assertEquals(2, db.getFoodItemCount(user));
+    }
+
+    @Test
+    void donatedItemsAreCountedByTheStatsQuery() {
+        User user = loggedInUser("donor");
+        FoodItem typed = formItem("Tinned beans");
+
+        FoodItem.updateStatus(user, List.of(typed), List.of(typed), ItemStatus.SCHEDULED_FOR_PICKUP);
+        assertEquals(1, stats(user).getStatusCount(ItemStatus.SCHEDULED_FOR_PICKUP));
+
+        // Confirming again changes only the status of the now stored item
+        FoodItem.updateStatus(user, List.of(typed), List.of(), ItemStatus.DONATED);
+        FoodItemStats stats = stats(user);
+        assertEquals(1, stats.getTotalItems());
+        assertEquals(1, stats.getStatusCount(ItemStatus.DONATED));
+        assertEquals(List.of(typed), user.getFoodItems());
+    }
+
+    @Test
+    void dashboardCountsFollowLoggedAndRemovedItems() {
+        User user = loggedInUser("dashboard");
+        FoodItem logger = new FoodItem();
+        FoodItem milk = logger.addFoodItem(user, "Milk", 1, "liters", LocalDateTime.now().plusDays(1), FoodCategory.DAIRY);
+        logger.addFoodItem(user, "Rice", 2, "kg", LocalDateTime.now().plusDays(30), FoodCategory.GRAIN);
+        FoodItem typed = formItem("Scraps");
+        FoodItem.updateStatus(user, List.of(typed), List.of(typed), ItemStatus.COMPOSTED);
+
+        assertEquals(3, dashboardItemCount(user));
+        assertEquals(1, dashboardExpiringCount(user));
+
+        // A status change still queued for the item must not write it back
+        FoodItem.updateStatus(user, List.of(milk), List.of(), ItemStatus.DONATED);
+        user.removeFoodItem(milk);
+        assertEquals(2, dashboardItemCount(user));
+        assertEquals(0, dashboardExpiringCount(user));
+    }
+}
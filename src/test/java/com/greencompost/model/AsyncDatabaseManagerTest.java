@@ -0,0 +1,110 @@
+package com.greencompost.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import com.greencompost.User;
+import com.greencompost.controller.FoodItem;
+import com.greencompost.controller.FoodItem.FoodCategory;
+
+class AsyncDatabaseManagerTest {
+    private static DatabaseManager db;
+
+    // Stands in for the FX thread: callbacks run only when drained
+    private final Queue<Runnable> fxQueue = new ArrayDeque<>();
+    private final List<Object> delivered = new ArrayList<>();
+
+    @BeforeAll
+    static void openDatabase() {
+        DatabaseManager.setDatabaseUrl(":memory:");
+        db = DatabaseManager.getInstance();
+    }
+
+    private void drainFxQueue() {
+        while (!fxQueue.isEmpty()) {
+            fxQueue.poll().run();
+        }
+    }
+
+    @Test
+    void resultIsDeliveredOnTheFxThread() {
+        CompletableFuture<String> future = new CompletableFuture<>();
+        AsyncDatabaseManager.onThread(future, delivered::add, delivered::add, fxQueue::add);
+        future.complete("done");
+        assertEquals(List.of(), delivered);
+
+        drainFxQueue();
+        assertEquals(List.of("done"), delivered);
+    }
+
+    @Test
+    void cancellingAfterTheResultArrivedDropsTheQueuedCallback() {
+        CompletableFuture<String> future = new CompletableFuture<>();
+        AsyncDatabaseManager.onThread(future, delivered::add, delivered::add, fxQueue::add);
+        future.complete("stale");
+        assertEquals(1, fxQueue.size());
+
+        AsyncDatabaseManager.cancel(future);
+        drainFxQueue();
+        assertEquals(List.of(), delivered);
+    }
+
+    @Test
+    void cancellingBeforeTheResultSkipsBothCallbacks() {
+        CompletableFuture<String> future = new CompletableFuture<>();
+        AsyncDatabaseManager.onThread(future, delivered::add, delivered::add, fxQueue::add);
+        AsyncDatabaseManager.cancel(future);
+        future.complete("late");
+        drainFxQueue();
+        assertTrue(future.isCancelled());
+        assertEquals(List.of(), delivered);
+    }
+
+    @Test
+    void cancellingInterruptsTheWorker() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        CompletableFuture<Void> future = AsyncDatabaseManager.getInstance().supply(database -> {
+            started.countDown();
+            try {
+                Thread.sleep(10_000);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+            }
+            return null;
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        AsyncDatabaseManager.cancel(future);
+        assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void searchAfterFlushWritesSeesItemsThatWereQueued() throws Exception {
+        User owner = new User();
+        owner.setUsername("search-owner");
+        owner.setPassword("secret");
+        db.saveUser(owner);
+        FoodItem item = new FoodItem("Sourdough loaf", 1, "loaf", LocalDateTime.now().plusDays(2), FoodCategory.GRAIN);
+        item.setOwner(owner);
+        db.getWriteBehindQueue().enqueueFoodItem(item);
+
+        AsyncDatabaseManager async = AsyncDatabaseManager.getInstance();
+        List<UUID> ids = async.flushWrites()
+                .thenCompose(written -> async.searchFoodItemIds(owner, "sourdough", 10))
+                .get(5, TimeUnit.SECONDS);
+        assertEquals(List.of(item.getId()), ids);
+    }
+}
@@ -0,0 +1,155 @@
+package com.greencompost.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.greencompost.service.LocalService;
+import com.greencompost.service.LocalService.ServiceType;
+import com.greencompost.service.ServiceRegistry;
+
+class CatalogSnapshotTest {
+    @TempDir
+    static Path dir;
+
+    private static DatabaseManager db;
+
+    @BeforeAll
+    static void openDatabase() {
+        DatabaseManager.setDatabaseUrl(dir.resolve("catalog.db").toString());
+        db = DatabaseManager.getInstance();
+    }
+
+    @AfterAll
+    static void closeDatabase() {
+        db.closeConnection();
+    }
+
+    @BeforeEach
+    void clearRegistry() {
+        ServiceRegistry.getInstance().clear();
+    }
+
+    private static List<LocalService> services(String prefix, int count) {
+        List<LocalService> services = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            LocalService service = new LocalService(prefix + " " + i, i + " Quay St, Galway", "091 555 " + i,
+                    "Galway", ServiceType.values()[i % ServiceType.values().length]);
+            service.setDescription("Service " + i);
+            service.getHours().addHours(DayOfWeek.MONDAY, LocalTime.of(9, 0), LocalTime.of(17, 30));
+            service.addAcceptedItem("Vegetables");
+            service.addAcceptedItem("Bread " + i);
+            service.addNonAcceptedItem("Meat");
+            service.addDonationGuideline("Guideline " + i);
+            services.add(service);
+        }
+        return services;
+    }
+
+    @Test
+    void restoreRebuildsAndRegistersTheWrittenCatalog() throws IOException {
+        List<LocalService> written = services("Round trip", 3);
+        Path file = dir.resolve("round-trip.snap");
+        CatalogSnapshot.write(file, written);
+
+        List<LocalService> restored = CatalogSnapshot.restore(file);
+        assertEquals(3, restored.size());
+        for (int i = 0; i < 3; i++) {
+            LocalService expected = written.get(i);
+            LocalService actual = restored.get(i);
+            assertEquals(expected.getName(), actual.getName());
+            assertEquals(expected.getDescription(), actual.getDescription());
+            assertEquals(expected.getAddress(), actual.getAddress());
+            assertEquals(expected.getCity(), actual.getCity());
+            assertEquals(expected.getType(), actual.getType());
+            assertEquals(expected.getAcceptedItems(), actual.getAcceptedItems());
+            assertEquals(expected.getNonAcceptedItems(), actual.getNonAcceptedItems());
+            assertEquals(expected.getDonationGuidelines(), actual.getDonationGuidelines());
+            assertEquals(expected.getHours().getHours(DayOfWeek.MONDAY).toString(),
+                    actual.getHours().getHours(DayOfWeek.MONDAY).toString());
+            assertSame(actual, ServiceRegistry.getInstance().get(actual.getName()));
+        }
+    }
+
+    @Test
+    void missingOrCorruptSnapshotsAreIgnored() throws IOException {
+        assertEquals(List.of(), CatalogSnapshot.restore(dir.resolve("missing.snap")));
+
+        Path corrupt = dir.resolve("corrupt.snap");
+        Files.write(corrupt, new byte[] {1, 2, 3});
+        assertEquals(List.of(), CatalogSnapshot.restore(corrupt));
+        assertEquals(0, ServiceRegistry.getInstance().size());
+    }
+
+    @Test
+    void hugeServiceCountFallsBackInsteadOfAllocating() throws IOException {
+        Path file = dir.resolve("huge-count.snap");
+        CatalogSnapshot.write(file, services("Huge", 1));
+        byte[] bytes = Files.readAllBytes(file);
+        // The count follows the magic number and the format version
+        ByteBuffer.wrap(bytes).putInt(8, Integer.MAX_VALUE);
+        Files.write(file, bytes);
+
+        assertEquals(List.of(), CatalogSnapshot.restore(file));
+        assertEquals(0, ServiceRegistry.getInstance().size());
+
+        ByteBuffer.wrap(bytes).putInt(8, -1);
+        Files.write(file, bytes);
+        assertEquals(List.of(), CatalogSnapshot.restore(file));
+        assertEquals(0, ServiceRegistry.getInstance().size());
+    }
+
+    @Test
+    void databaseRefreshReplacesRestoredServicesByName() throws Exception {
+        List<LocalService> catalog = services("Refresh", 20);
+        db.saveLocalServices(catalog);
+        Path file = dir.resolve("refresh.snap");
+        CatalogSnapshot.write(file, catalog);
+
+        List<LocalService> restored = CatalogSnapshot.restore(file);
+        List<LocalService> loaded = AsyncDatabaseManager.getInstance().refreshServiceRegistry()
+                .get(10, TimeUnit.SECONDS);
+
+        ServiceRegistry registry = ServiceRegistry.getInstance();
+        assertEquals(loaded.size(), registry.size());
+        LocalService first = registry.get("Refresh 0");
+        assertNotSame(restored.get(0), first);
+        assertTrue(loaded.contains(first));
+        assertEquals(catalog.get(0).getAcceptedItems(), first.getAcceptedItems());
+    }
+
+    @Test
+    void warmStartIsServedFromTheFileAlone() throws IOException {
+        // None of these services is in the database, so everything restored came from the snapshot
+        List<LocalService> catalog = services("Snapshot only", 2000);
+        Path file = dir.resolve("startup.snap");
+        CatalogSnapshot.write(file, catalog);
+
+        List<LocalService> restored = CatalogSnapshot.restore(file);
+        ServiceRegistry registry = ServiceRegistry.getInstance();
+        assertEquals(2000, restored.size());
+        assertEquals(2000, registry.size());
+        LocalService last = registry.get("Snapshot only 1999");
+        assertEquals(List.of("Vegetables", "Bread 1999"), last.getAcceptedItems());
+        assertEquals(List.of("Guideline 1999"), last.getDonationGuidelines());
+        assertEquals(List.of(), db.getAllLocalServices().stream()
+                .filter(service -> service.getName().startsWith("Snapshot only")).toList());
+    }
+}
@@ -0,0 +1,247 @@
+package com.greencompost.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.greencompost.User;
+import com.greencompost.controller.FoodItem;
+import com.greencompost.controller.FoodItem.FoodCategory;
+import com.greencompost.controller.FoodItem.ItemStatus;
+import com.greencompost.service.LocalService;
+import com.greencompost.service.LocalService.ServiceType;
+import com.greencompost.service.ScheduledEvent;
+
+class ChangeTrackingTest {
+    @TempDir
+    static Path dir;
+
+    private static DatabaseManager db;
+
+    @BeforeAll
+    static void openDatabase() {
+        DatabaseManager.setDatabaseUrl(dir.resolve("changes.db").toString());
+        db = DatabaseManager.getInstance();
+    }
+
+    @AfterAll
+    static void closeDatabase() {
+        db.closeConnection();
+    }
+
+    private static User savedUser(String username) {
+        User user = new User();
+        user.setUsername(username);
+        user.setPassword("secret");
+        db.saveUser(user);
+        return user;
+    }
+
+    private static FoodItem savedItem(User owner, String name) {
+        FoodItem item = new FoodItem(name, 1, "kg", LocalDateTime.now().plusDays(2), FoodCategory.DAIRY);
+        item.setOwner(owner);
+        db.saveFoodItem(item);
+        return item;
+    }
+
+    private static long userRowId(String username) throws SQLException {
+        try (ConnectionPool.Lease lease = db.getPool().reader();
+             ResultSet rs = lease.query("SELECT id FROM users WHERE username = ?", username)) {
+            return rs.next() ? rs.getLong(1) : -1;
+        }
+    }
+
+    private static int countUsers(String... usernames) throws SQLException {
+        int count = 0;
+        for (String username : usernames) {
+            count += userRowId(username) != -1 ? 1 : 0;
+        }
+        return count;
+    }
+
+    private static String storedColumn(FoodItem item, String column) throws SQLException {
+        try (ConnectionPool.Lease lease = db.getPool().reader();
+             ResultSet rs = lease.query("SELECT " + column + " FROM food_items WHERE uuid = ?", item.getId().toString())) {
+            return rs.getString(1);
+        }
+    }
+
+    @Test
+    void renameIsFlushedToTheSameRow() throws SQLException {
+        User user = savedUser("before-flush");
+        long rowId = userRowId("before-flush");
+
+        user.setUsername("after-flush");
+        user.setPassword("changed");
+        assertTrue(user.isDirty());
+        db.flushChanges(user);
+
+        assertFalse(user.isDirty());
+        assertEquals(rowId, userRowId("after-flush"));
+        assertEquals(1, countUsers("before-flush", "after-flush"));
+        assertEquals("after-flush", user.getStoredUsername());
+        assertEquals(user, db.getUserByUsername("after-flush"));
+    }
+
+    @Test
+    void renameIsSavedToTheSameRow() throws SQLException {
+        User user = savedUser("before-save");
+        long rowId = userRowId("before-save");
+
+        user.setUsername("after-save");
+        db.saveUser(user);
+
+        assertEquals(rowId, userRowId("after-save"));
+        assertEquals(1, countUsers("before-save", "after-save"));
+    }
+
+    @Test
+    void serviceRenameIsFlushedToTheSameRow() throws SQLException {
+        LocalService service = new LocalService("Old Yard", "2 Yard Rd, Cork", "021 555 0000",
+                "Cork", ServiceType.COMPOSTING_FACILITY);
+        db.saveLocalService(service);
+        long rowId = service.getDatabaseId();
+
+        service.setName("New Yard");
+        service.setContactInfo("021 555 0001");
+        assertEquals(LocalService.FIELD_NAME | LocalService.FIELD_CONTACT_INFO, service.getDirtyFields());
+        db.flushChanges(service);
+
+        assertFalse(service.isDirty());
+        try (ConnectionPool.Lease lease = db.getPool().reader();
+             ResultSet rs = lease.query("SELECT id, contactInfo FROM services WHERE name IN ('Old Yard', 'New Yard')")) {
+            assertTrue(rs.next());
+            assertEquals(rowId, rs.getLong(1));
+            assertEquals("021 555 0001", rs.getString(2));
+            assertFalse(rs.next());
+        }
+    }
+
+    @Test
+    void statusFlipWritesOnlyTheStatusColumn() throws SQLException {
+        FoodItem item = savedItem(savedUser("narrow-owner"), "Yogurt");
+        // Change another column behind the item's back; a full-row write would undo this
+        try (ConnectionPool.Lease lease = db.getPool().writer();
+             Statement stmt = lease.connection().createStatement()) {
+            stmt.execute("UPDATE food_items SET name = 'Renamed elsewhere' WHERE uuid = '" + item.getId() + "'");
+        }
+
+        item.setStatus(ItemStatus.COMPOSTED);
+        assertEquals(FoodItem.FIELD_STATUS, item.getDirtyFields());
+        db.flushChanges(item);
+
+        assertEquals("COMPOSTED", storedColumn(item, "status"));
+        assertEquals("Renamed elsewhere", storedColumn(item, "name"));
+        assertFalse(item.isDirty());
+    }
+
+    @Test
+    void flushingAnUnsavedItemInsertsIt() throws SQLException {
+        FoodItem item = new FoodItem("Never saved", 1, "kg", null, FoodCategory.GRAIN);
+        item.setOwner(savedUser("unsaved-owner"));
+        item.setStatus(ItemStatus.DONATED);
+        db.flushChanges(item);
+
+        assertEquals("DONATED", storedColumn(item, "status"));
+        assertEquals("Never saved", storedColumn(item, "name"));
+    }
+
+    @Test
+    void anItemSkippedForMissingOwnerStaysDirtyUntilWritten() throws SQLException {
+        FoodItem item = new FoodItem("Ownerless", 1, "kg", null, FoodCategory.FRUIT);
+        item.setStatus(ItemStatus.COMPOSTED);
+        db.flushChanges(item);
+        assertTrue(item.isDirty());
+
+        item.setOwner(savedUser("late-owner"));
+        db.flushChanges(item);
+        assertFalse(item.isDirty());
+        assertEquals("COMPOSTED", storedColumn(item, "status"));
+    }
+
+    /**
+     * Make every commit that inserts or updates a food item fail: the
+     * triggers add a row breaking a deferred foreign key, which SQLite
+     * only checks at commit time
+     */
+    private static void failCommitsOfItemWrites(boolean fail) throws SQLException {
+        try (ConnectionPool.Lease lease = db.getPool().writer();
+             Statement stmt = lease.connection().createStatement()) {
+            if (fail) {
+                stmt.execute("PRAGMA foreign_keys = ON");
+                stmt.execute("CREATE TEMP TABLE commit_guard_parent (id INTEGER PRIMARY KEY)");
+                stmt.execute("CREATE TEMP TABLE commit_guard (parentId INTEGER "
+                        + "REFERENCES commit_guard_parent(id) DEFERRABLE INITIALLY DEFERRED)");
+                stmt.execute("CREATE TEMP TRIGGER guard_item_insert AFTER INSERT ON food_items "
+                        + "BEGIN INSERT INTO commit_guard VALUES (-1); END");
+                stmt.execute("CREATE TEMP TRIGGER guard_item_update AFTER UPDATE ON food_items "
+                        + "BEGIN INSERT INTO commit_guard VALUES (-1); END");
+            } else {
+                stmt.execute("DROP TRIGGER guard_item_insert");
+                stmt.execute("DROP TRIGGER guard_item_update");
+                stmt.execute("DROP TABLE commit_guard");
+                stmt.execute("DROP TABLE commit_guard_parent");
+                stmt.execute("PRAGMA foreign_keys = OFF");
+            }
+        }
+    }
+
+    @Test
+    void itemsStayDirtyWhenTheCommitFails() throws SQLException {
+        User owner = savedUser("commit-owner");
+        FoodItem batched = new FoodItem("Batched", 1, "kg", null, FoodCategory.GRAIN);
+        batched.setOwner(owner);
+        FoodItem queued = savedItem(owner, "Queued");
+        queued.setStatus(ItemStatus.DONATED);
+
+        failCommitsOfItemWrites(true);
+        try {
+            db.saveFoodItems(List.of(batched));
+            db.getWriteBehindQueue().enqueueChanges(queued);
+            db.getWriteBehindQueue().flush();
+        } finally {
+            failCommitsOfItemWrites(false);
+        }
+        assertTrue(batched.isDirty());
+        assertTrue(queued.isDirty());
+        assertEquals("AVAILABLE", storedColumn(queued, "status"));
+
+        // The changes are still pending, so the next writes store them
+        db.saveFoodItems(List.of(batched));
+        db.flushChanges(queued);
+        assertFalse(batched.isDirty());
+        assertFalse(queued.isDirty());
+        assertEquals("Batched", storedColumn(batched, "name"));
+        assertEquals("DONATED", storedColumn(queued, "status"));
+    }
+
+    @Test
+    void completingAnEventWritesItemStatusesThroughTheQueue() throws SQLException {
+        User user = savedUser("event-owner");
+        LocalService facility = new LocalService("Compost Yard", "1 Yard Rd, Dublin", "01 555 0000",
+                "Dublin", ServiceType.COMPOSTING_FACILITY);
+        ScheduledEvent event = new ScheduledEvent("Drop-off", "Bring scraps", LocalDateTime.now().plusDays(1),
+                facility, user);
+        List<FoodItem> items = List.of(savedItem(user, "Peel 1"), savedItem(user, "Peel 2"), savedItem(user, "Peel 3"));
+        items.forEach(event::addFoodItem);
+
+        event.markCompleted();
+        db.getWriteBehindQueue().flush();
+        for (FoodItem item : items) {
+            assertEquals("COMPOSTED", storedColumn(item, "status"));
+            assertFalse(item.isDirty());
+        }
+    }
+}
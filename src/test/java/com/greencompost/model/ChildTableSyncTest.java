@@ -0,0 +1,121 @@
+package com.greencompost.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import com.greencompost.service.LocalService;
+import com.greencompost.service.LocalService.ServiceType;
+
+/**
+ * Saving a service diffs its operating hours, accepted items, non-accepted
+ * items and donation guidelines against the stored rows
+ */
+class ChildTableSyncTest {
+    private static DatabaseManager db;
+
+    @BeforeAll
+    static void openDatabase() {
+        DatabaseManager.setDatabaseUrl(":memory:");
+        db = DatabaseManager.getInstance();
+    }
+
+    private static LocalService service(String name) {
+        LocalService service = new LocalService(name, "5 Quay St, Galway", "091 555 000", "Galway", ServiceType.FOOD_BANK);
+        service.addAcceptedItem("Tins");
+        service.addAcceptedItem("Pasta");
+        service.addAcceptedItem("Rice");
+        service.addNonAcceptedItem("Alcohol");
+        service.addDonationGuideline("Unopened packaging only");
+        return service;
+    }
+
+    private static long totalChanges() throws SQLException {
+        try (ConnectionPool.Lease lease = db.getPool().writer();
+             ResultSet rs = lease.query("SELECT total_changes()")) {
+            return rs.getLong(1);
+        }
+    }
+
+    /**
+     * Stored accepted_items row ids by item name
+     */
+    private static Map<String, Long> acceptedRows(LocalService service) throws SQLException {
+        Map<String, Long> rows = new HashMap<>();
+        try (ConnectionPool.Lease lease = db.getPool().reader();
+             ResultSet rs = lease.query("SELECT itemName, id FROM accepted_items WHERE serviceId = ?", service.getDatabaseId())) {
+            while (rs.next()) {
+                rows.put(rs.getString(1), rs.getLong(2));
+            }
+        }
+        return rows;
+    }
+
+    @Test
+    void unchangedSaveWritesNothing() throws SQLException {
+        LocalService service = service("Unchanged");
+        db.saveLocalService(service);
+        Map<String, Long> before = acceptedRows(service);
+
+        long changes = totalChanges();
+        db.saveLocalService(service);
+        assertEquals(changes, totalChanges());
+        assertEquals(before, acceptedRows(service));
+    }
+
+    @Test
+    void onlyTheDifferenceIsDeletedAndInserted() throws SQLException {
+        LocalService service = service("Edited");
+        db.saveLocalService(service);
+        Map<String, Long> before = acceptedRows(service);
+
+        service.removeAcceptedItem("Pasta");
+        service.addAcceptedItem("Cereal");
+        db.saveLocalService(service);
+
+        // Kept rows keep their ids; a delete-and-reinsert would renumber them
+        Map<String, Long> after = acceptedRows(service);
+        assertEquals(before.get("Tins"), after.get("Tins"));
+        assertEquals(before.get("Rice"), after.get("Rice"));
+        assertEquals(List.of("Cereal", "Rice", "Tins"), after.keySet().stream().sorted().toList());
+    }
+
+    @Test
+    void duplicateRowsAreCounted() throws SQLException {
+        LocalService service = service("Duplicates");
+        service.addAcceptedItem("Tins");
+        db.saveLocalService(service);
+
+        service.removeAcceptedItem("Tins");
+        db.saveLocalService(service);
+
+        try (ConnectionPool.Lease lease = db.getPool().reader();
+             ResultSet rs = lease.query("SELECT COUNT(*) FROM accepted_items WHERE serviceId = ? AND itemName = 'Tins'",
+                     service.getDatabaseId())) {
+            assertEquals(1, rs.getInt(1));
+        }
+    }
+
+    @Test
+    void resavingAnUnchangedCatalogWritesNoRows() throws SQLException {
+        List<LocalService> catalog = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            catalog.add(service("Catalog " + i));
+        }
+        db.saveLocalServices(catalog);
+
+        long changes = totalChanges();
+        for (int round = 0; round < 3; round++) {
+            db.saveLocalServices(catalog);
+        }
+        assertEquals(changes, totalChanges());
+    }
+}
@@ -0,0 +1,188 @@
+package com.greencompost.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ConnectionPoolTest {
+    private static final int READERS = 4;
+
+    @TempDir
+    Path dir;
+
+    private ConnectionPool pool;
+
+    @BeforeEach
+    void openPool() throws SQLException {
+        pool = new ConnectionPool("jdbc:sqlite:" + dir.resolve("pool.db"), READERS);
+        try (ConnectionPool.Lease lease = pool.writer();
+             Statement stmt = lease.connection().createStatement()) {
+            stmt.execute("CREATE TABLE items (id INTEGER PRIMARY KEY, name TEXT)");
+        }
+    }
+
+    @AfterEach
+    void closePool() {
+        pool.close();
+    }
+
+    private static long count(ConnectionPool.Lease lease) throws SQLException {
+        try (ResultSet rs = lease.query("SELECT COUNT(*) FROM items")) {
+            return rs.next() ? rs.getLong(1) : -1;
+        }
+    }
+
+    private static String pragma(Connection conn, String name) throws SQLException {
+        try (Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery("PRAGMA " + name)) {
+            return rs.getString(1);
+        }
+    }
+
+    @Test
+    void everyConnectionUsesWalWithBusyTimeout() throws SQLException {
+        try (ConnectionPool.Lease lease = pool.writer()) {
+            assertEquals("wal", pragma(lease.connection(), "journal_mode"));
+            assertEquals("1", pragma(lease.connection(), "synchronous"));
+            assertEquals("5000", pragma(lease.connection(), "busy_timeout"));
+        }
+        try (ConnectionPool.Lease lease = pool.reader()) {
+            assertEquals("wal", pragma(lease.connection(), "journal_mode"));
+            assertEquals("5000", pragma(lease.connection(), "busy_timeout"));
+        }
+        assertEquals(READERS, pool.getReaderCount());
+    }
+
+    @Test
+    void readersRejectWrites() throws SQLException {
+        try (ConnectionPool.Lease lease = pool.reader();
+             Statement stmt = lease.connection().createStatement()) {
+            assertThrows(SQLException.class, () -> stmt.execute("INSERT INTO items (name) VALUES ('x')"));
+        }
+    }
+
+    @Test
+    void nestedReadsOnOneThreadShareAConnection() throws SQLException {
+        try (ConnectionPool.Lease outer = pool.reader();
+             ConnectionPool.Lease inner = pool.reader()) {
+            assertSame(outer, inner);
+        }
+    }
+
+    @Test
+    void writerThreadSeesItsOwnUncommittedRows() throws SQLException {
+        try (ConnectionPool.Lease writer = pool.writer()) {
+            Connection conn = writer.connection();
+            conn.setAutoCommit(false);
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute("INSERT INTO items (name) VALUES ('pending')");
+                try (ConnectionPool.Lease reader = pool.reader()) {
+                    assertSame(conn, reader.connection());
+                    assertEquals(1, count(reader));
+                }
+            } finally {
+                conn.rollback();
+                conn.setAutoCommit(true);
+            }
+        }
+    }
+
+    @Test
+    void readsAreNotBlockedByAnOpenWriteTransaction() throws Exception {
+        CountDownLatch written = new CountDownLatch(1);
+        CountDownLatch readDone = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> writer = executor.submit(() -> {
+                try (ConnectionPool.Lease lease = pool.writer()) {
+                    Connection conn = lease.connection();
+                    conn.setAutoCommit(false);
+                    try (Statement stmt = conn.createStatement()) {
+                        stmt.execute("INSERT INTO items (name) VALUES ('in flight')");
+                        written.countDown();
+                        assertTrue(readDone.await(5, TimeUnit.SECONDS));
+                        conn.commit();
+                    } finally {
+                        conn.setAutoCommit(true);
+                    }
+                }
+                return null;
+            });
+
+            assertTrue(written.await(5, TimeUnit.SECONDS));
+            try (ConnectionPool.Lease reader = pool.reader()) {
+                // The writer still holds its transaction open; WAL readers see the last commit
+                assertEquals(0, count(reader));
+            }
+            readDone.countDown();
+            writer.get(5, TimeUnit.SECONDS);
+
+            try (ConnectionPool.Lease reader = pool.reader()) {
+                assertEquals(1, count(reader));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void readersHoldSeparateConnectionsAtOnceWhileTheWriterCommits() throws Exception {
+        CyclicBarrier allLeased = new CyclicBarrier(READERS + 1);
+        CountDownLatch committed = new CountDownLatch(1);
+        Set<Connection> connections = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(READERS);
+        try {
+            List<Future<Long>> reads = new ArrayList<>();
+            for (int i = 0; i < READERS; i++) {
+                reads.add(executor.submit(() -> {
+                    try (ConnectionPool.Lease lease = pool.reader()) {
+                        connections.add(lease.connection());
+                        long before = count(lease);
+                        // Every reader holds its lease here at the same time, so none waits on another
+                        allLeased.await(5, TimeUnit.SECONDS);
+                        assertTrue(committed.await(5, TimeUnit.SECONDS));
+                        return before;
+                    }
+                }));
+            }
+
+            allLeased.await(5, TimeUnit.SECONDS);
+            try (ConnectionPool.Lease writer = pool.writer();
+                 Statement stmt = writer.connection().createStatement()) {
+                stmt.execute("INSERT INTO items (name) VALUES ('row')");
+            }
+            committed.countDown();
+
+            for (Future<Long> read : reads) {
+                assertEquals(0, read.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(READERS, connections.size());
+            try (ConnectionPool.Lease reader = pool.reader()) {
+                assertEquals(1, count(reader));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
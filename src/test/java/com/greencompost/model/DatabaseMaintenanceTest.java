@@ -0,0 +1,205 @@
+package com.greencompost.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Checkpoints, statistics and backups against a file database, run by hand
+ * instead of on the timers
+ */
+class DatabaseMaintenanceTest {
+    private static final long NEVER_MS = TimeUnit.HOURS.toMillis(1);
+
+    @TempDir
+    Path dir;
+
+    private Path file;
+    private ConnectionPool pool;
+    private DatabaseMaintenance maintenance;
+
+    @BeforeEach
+    void openDatabase() throws SQLException {
+        file = dir.resolve("maintained.db");
+        pool = new ConnectionPool("jdbc:sqlite:" + file, 1);
+        try (ConnectionPool.Lease lease = pool.writer();
+             Statement stmt = lease.connection().createStatement()) {
+            stmt.execute("CREATE TABLE items (id INTEGER PRIMARY KEY, name TEXT)");
+            stmt.execute("CREATE INDEX idx_items_name ON items(name)");
+        }
+        maintenance = DatabaseMaintenance.start("jdbc:sqlite:" + file, dir.resolve("backup.db"),
+                NEVER_MS, NEVER_MS, NEVER_MS);
+    }
+
+    @AfterEach
+    void closeDatabase() {
+        maintenance.close();
+        pool.close();
+    }
+
+    private void insert(int rows) throws SQLException {
+        try (ConnectionPool.Lease lease = pool.writer();
+             Statement stmt = lease.connection().createStatement()) {
+            for (int i = 0; i < rows; i++) {
+                stmt.execute("INSERT INTO items (name) VALUES ('Item " + i % 10 + "')");
+            }
+        }
+    }
+
+    private static long count(Path database, String sql) throws SQLException {
+        try (Connection conn = DriverManager.getConnection("jdbc:sqlite:" + database);
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            return rs.getLong(1);
+        }
+    }
+
+    private static String readString(Path database, String sql) throws SQLException {
+        try (Connection conn = DriverManager.getConnection("jdbc:sqlite:" + database);
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            return rs.getString(1);
+        }
+    }
+
+    /**
+     * Count the rows in a copy of the database file alone, leaving out
+     * whatever is still in the WAL
+     */
+    private long rowsInTheMainFile() throws IOException, SQLException {
+        Path copy = dir.resolve("main-only.db");
+        Files.copy(file, copy, StandardCopyOption.REPLACE_EXISTING);
+        try {
+            boolean hasTable = count(copy, "SELECT COUNT(*) FROM sqlite_master WHERE name = 'items'") > 0;
+            return hasTable ? count(copy, "SELECT COUNT(*) FROM items") : 0;
+        } finally {
+            Files.delete(copy);
+        }
+    }
+
+    private List<Path> leftoverTempFiles() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(path -> path.getFileName().toString().endsWith(".tmp")).toList();
+        }
+    }
+
+    @Test
+    void checkpointCopiesCommittedRowsIntoTheDatabaseFile() throws Exception {
+        insert(100);
+        assertEquals(0, rowsInTheMainFile());
+
+        maintenance.checkpoint();
+        assertEquals(100, rowsInTheMainFile());
+    }
+
+    @Test
+    void optimizeWritesPlannerStatistics() throws SQLException {
+        insert(500);
+        maintenance.optimize();
+
+        try (ConnectionPool.Lease lease = pool.reader();
+             ResultSet rs = lease.query("SELECT stat FROM sqlite_stat1 WHERE idx = 'idx_items_name'")) {
+            assertTrue(rs.next());
+            // Row count first, then the sampled rows per distinct name
+            assertTrue(rs.getString(1).startsWith("500 "), rs.getString(1));
+        }
+    }
+
+    @Test
+    void backupReplacesThePreviousFileInOneMove() throws Exception {
+        Path target = dir.resolve("backup.db");
+        Files.writeString(target, "previous backup");
+        insert(100);
+
+        assertTrue(maintenance.backup());
+        assertEquals(100, count(target, "SELECT COUNT(*) FROM items"));
+        assertTrue(maintenance.getLastBackupMillis() > 0);
+        assertEquals(List.of(), leftoverTempFiles());
+    }
+
+    @Test
+    void backupCompletesWhileRowsAreBeingWritten() throws Exception {
+        insert(2000);
+        AtomicBoolean running = new AtomicBoolean(true);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> writer = executor.submit(() -> {
+                while (running.get()) {
+                    insert(10);
+                }
+                return null;
+            });
+
+            Path target = dir.resolve("busy-backup.db");
+            for (int round = 0; round < 5; round++) {
+                assertTrue(maintenance.backupTo(target));
+                assertEquals("ok", readString(target, "PRAGMA integrity_check"));
+                assertTrue(count(target, "SELECT COUNT(*) FROM items") >= 2000);
+            }
+            running.set(false);
+            writer.get(10, TimeUnit.SECONDS);
+        } finally {
+            running.set(false);
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void backupGivesUpAndKeepsThePreviousFileWhileTheDatabaseIsLocked() throws Exception {
+        insert(10);
+        Path target = dir.resolve("backup.db");
+        assertTrue(maintenance.backup());
+
+        // An exclusive lock only sticks once no other connection has the database open
+        maintenance.close();
+        pool.close();
+        try (Connection locker = DriverManager.getConnection("jdbc:sqlite:" + file);
+             Statement stmt = locker.createStatement()) {
+            stmt.execute("PRAGMA locking_mode = EXCLUSIVE");
+            stmt.execute("INSERT INTO items (name) VALUES ('locked')");
+
+            DatabaseMaintenance blocked = DatabaseMaintenance.start("jdbc:sqlite:" + file, target,
+                    NEVER_MS, NEVER_MS, NEVER_MS);
+            try {
+                assertFalse(blocked.backup());
+                assertEquals(0, blocked.getLastBackupMillis());
+            } finally {
+                blocked.close();
+            }
+        }
+        assertEquals(10, count(target, "SELECT COUNT(*) FROM items"));
+        assertEquals(List.of(), leftoverTempFiles());
+    }
+
+    @Test
+    void closeRunsAFinalCheckpoint() throws Exception {
+        insert(50);
+        maintenance.close();
+        assertEquals(50, rowsInTheMainFile());
+
+        // A second close is a no-op
+        maintenance.close();
+    }
+}
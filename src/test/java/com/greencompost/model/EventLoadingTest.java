@@ -0,0 +1,132 @@
+package com.greencompost.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import com.greencompost.User;
+import com.greencompost.controller.FoodItem;
+import com.greencompost.controller.FoodItem.FoodCategory;
+import com.greencompost.service.LocalService;
+import com.greencompost.service.LocalService.ServiceType;
+import com.greencompost.service.ScheduledEvent;
+
+class EventLoadingTest {
+    private static DatabaseManager db;
+
+    @BeforeAll
+    static void openDatabase() {
+        DatabaseManager.setDatabaseUrl(":memory:");
+        db = DatabaseManager.getInstance();
+    }
+
+    private static User savedUser(String username) {
+        User user = new User();
+        user.setUsername(username);
+        user.setPassword("secret");
+        db.saveUser(user);
+        return user;
+    }
+
+    private static LocalService savedService(String name) {
+        LocalService service = new LocalService(name, "1 Yard Rd, Dublin", "01 555 0000", "Dublin",
+                ServiceType.COMPOSTING_FACILITY);
+        service.addAcceptedItem("Peelings");
+        db.saveLocalService(service);
+        return service;
+    }
+
+    private static FoodItem item(String name, User owner) {
+        FoodItem item = new FoodItem(name, 1, "kg", LocalDateTime.now().plusDays(2), FoodCategory.VEGETABLE);
+        item.setOwner(owner);
+        return item;
+    }
+
+    @Test
+    void eventsShareOneInstancePerServiceAndUser() {
+        User user = savedUser("event-loader");
+        LocalService north = savedService("North Yard");
+        LocalService south = savedService("South Yard");
+        LocalDateTime base = LocalDateTime.of(2032, 6, 1, 9, 0);
+        for (int i = 0; i < 200; i++) {
+            ScheduledEvent event = new ScheduledEvent("Drop-off " + i, "Bring scraps", base.plusHours(i),
+                    i % 2 == 0 ? north : south, user);
+            event.addFoodItem(item("Scraps " + i, user));
+            db.saveEvent(event);
+        }
+
+        long start = System.nanoTime();
+        List<ScheduledEvent> events = db.findEventsBetween(base, base.plusHours(200));
+        System.out.printf("Loaded %d events with services, users and items in %d ms%n",
+                events.size(), (System.nanoTime() - start) / 1_000_000);
+
+        assertEquals(200, events.size());
+        User loadedUser = db.getUserByUsername("event-loader");
+        LocalService loadedNorth = events.get(0).getService();
+        LocalService loadedSouth = events.get(1).getService();
+        assertEquals("North Yard", loadedNorth.getName());
+        assertEquals("South Yard", loadedSouth.getName());
+        assertEquals(List.of("Peelings"), loadedNorth.getAcceptedItems());
+        for (int i = 0; i < events.size(); i++) {
+            ScheduledEvent event = events.get(i);
+            assertSame(i % 2 == 0 ? loadedNorth : loadedSouth, event.getService());
+            assertSame(event.getService(), event.getHostingService());
+            assertSame(loadedUser, event.getUser());
+            assertSame(loadedUser, event.getFoodItems().get(0).getOwner());
+        }
+    }
+
+    @Test
+    void streamedEventsResolveTheirServices() {
+        User user = savedUser("event-streamer");
+        LocalService service = savedService("Stream Yard");
+        LocalDateTime time = LocalDateTime.of(2033, 1, 1, 9, 0);
+        db.saveEvent(new ScheduledEvent("Streamed", "Bring scraps", time, service, user));
+
+        try (Stream<ScheduledEvent> events = db.streamEvents("e.startTime = ?", Timestamps.toEpochMillis(time))) {
+            ScheduledEvent event = events.findFirst().orElseThrow();
+            assertEquals("Stream Yard", event.getService().getName());
+            assertEquals(List.of("Peelings"), event.getService().getAcceptedItems());
+            assertSame(db.getUserByUsername("event-streamer"), event.getUser());
+        }
+    }
+
+    @Test
+    void ownerlessItemsBelongToTheEventUser() {
+        User user = savedUser("event-owner");
+        LocalDateTime time = LocalDateTime.of(2034, 1, 1, 9, 0);
+        ScheduledEvent event = new ScheduledEvent("Ownerless", "Bring scraps", time, savedService("Owner Yard"), user);
+        FoodItem item = item("Ownerless scraps", null);
+        event.addFoodItem(item);
+        db.saveEvent(event);
+
+        assertSame(user, item.getOwner());
+        List<ScheduledEvent> loaded = db.findEventsBetween(time, time.plusMinutes(1));
+        assertEquals(1, loaded.size());
+        assertEquals(List.of("Ownerless scraps"),
+                loaded.get(0).getFoodItems().stream().map(FoodItem::getName).toList());
+    }
+
+    @Test
+    void ownerlessItemsWithoutAnEventUserAreNotSaved() throws SQLException {
+        LocalDateTime time = LocalDateTime.of(2035, 1, 1, 9, 0);
+        ScheduledEvent event = new ScheduledEvent("Nobody's", "Bring scraps", time, savedService("Empty Yard"), null);
+        event.addFoodItem(item("Nobody's scraps", null));
+        db.saveEvent(event);
+
+        assertTrue(db.findEventsBetween(time, time.plusMinutes(1)).isEmpty());
+        try (ConnectionPool.Lease lease = db.getPool().reader();
+             ResultSet rs = lease.query("SELECT COUNT(*) FROM food_items WHERE name = ?", "Nobody's scraps")) {
+            assertEquals(0, rs.getInt(1));
+        }
+    }
+}
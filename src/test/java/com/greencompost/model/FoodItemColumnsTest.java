@@ -0,0 +1,154 @@
+package com.greencompost.model;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import com.greencompost.User;
+import com.greencompost.controller.FoodItem;
+import com.greencompost.controller.FoodItem.FoodCategory;
+import com.greencompost.controller.FoodItem.ItemStatus;
+
+/**
+ * The column scans give the same answers as reading each item, and rows
+ * appended one at a time past the initial capacity are all counted
+ */
+class FoodItemColumnsTest {
+    private static final String[] UNITS = {"kg", "g", "liters", "pieces", null};
+
+    private static List<FoodItem> randomItems(List<User> owners, int count, LocalDateTime now) {
+        Random random = new Random(42);
+        FoodCategory[] categories = FoodCategory.values();
+        ItemStatus[] statuses = ItemStatus.values();
+        List<FoodItem> items = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            // Whole minutes, so no expiry lands exactly on a bucket edge
+            LocalDateTime expiry = random.nextInt(10) == 0 ? null
+                    : now.plusMinutes(random.nextInt(60 * 24 * 40) - 60 * 24 * 10).plusSeconds(30);
+            FoodItem item = new FoodItem("Item " + i, 1 + random.nextInt(2000),
+                    UNITS[random.nextInt(UNITS.length)], expiry, categories[random.nextInt(categories.length)]);
+            item.setOwner(owners.get(random.nextInt(owners.size())));
+            item.setStatus(statuses[random.nextInt(statuses.length)]);
+            item.setCreatedAt(now.minusHours(random.nextInt(24 * 30)));
+            items.add(item);
+        }
+        return items;
+    }
+
+    private static List<User> owners(int count) {
+        List<User> owners = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            User owner = new User();
+            owner.setUsername("owner" + i);
+            owners.add(owner);
+        }
+        return owners;
+    }
+
+    private static FoodItemStats itemByItem(List<FoodItem> items, LocalDateTime now) {
+        long nowMs = Timestamps.toEpochMillis(now);
+        FoodItemStats stats = new FoodItemStats(nowMs);
+        for (FoodItem item : items) {
+            Long expiry = Timestamps.toEpochMillis(item.getExpiryDate());
+            Long created = Timestamps.toEpochMillis(item.getCreatedAt());
+            stats.addTotals(item.getCategory(), item.getStatus(), 1,
+                    FoodItemStats.toKilograms(item.getQuantity(), item.getQuantityUnit()),
+                    expiry != null ? 1 : 0, created != null ? 1 : 0, created != null ? created : 0);
+            if (expiry != null && expiry >= nowMs) {
+                boolean soon = expiry > nowMs && expiry < nowMs + FoodItemStats.EXPIRING_SOON_MS;
+                stats.addUpcoming(item.getCategory(), FoodItemStats.upcomingBucket(expiry, nowMs), 1,
+                        (expiry - nowMs) / FoodItemStats.DAY_MS, soon ? 1 : 0);
+            }
+        }
+        return stats;
+    }
+
+    @Test
+    void appendedColumnsMatchPerItemStats() {
+        LocalDateTime now = LocalDateTime.now();
+        List<FoodItem> items = randomItems(owners(5), 5000, now);
+
+        FoodItemColumns columns = new FoodItemColumns(1);
+        for (FoodItem item : items) {
+            columns.add(item);
+        }
+        assertEquals(items.size(), columns.size());
+
+        FoodItemStats expected = itemByItem(items, now);
+        FoodItemStats actual = columns.stats(now);
+        assertEquals(expected.getTotalItems(), actual.getTotalItems());
+        assertEquals(expected.getTotalWeightKg(), actual.getTotalWeightKg(), 1e-6);
+        assertEquals(expected.getExpiringSoonCount(), actual.getExpiringSoonCount());
+        assertEquals(expected.getAverageAgeDays(), actual.getAverageAgeDays(), 1e-9);
+        for (ItemStatus status : ItemStatus.values()) {
+            assertEquals(expected.getStatusCount(status), actual.getStatusCount(status), status.toString());
+        }
+        assertEquals(expected.getExpiryBuckets(), actual.getExpiryBuckets());
+
+        Map<FoodCategory, FoodItemStats.CategoryTotals> expectedTotals = expected.getCategoryTotals();
+        Map<FoodCategory, FoodItemStats.CategoryTotals> actualTotals = actual.getCategoryTotals();
+        assertEquals(expectedTotals.keySet(), actualTotals.keySet());
+        for (FoodCategory category : expectedTotals.keySet()) {
+            assertEquals(expectedTotals.get(category).count(), actualTotals.get(category).count());
+            assertEquals(expectedTotals.get(category).weightKg(), actualTotals.get(category).weightKg(), 1e-6);
+            assertEquals(expectedTotals.get(category).avgDaysUntilExpiry(),
+                    actualTotals.get(category).avgDaysUntilExpiry(), 1e-9);
+        }
+    }
+
+    @Test
+    void scanKernelsMatchPerItemLoops() {
+        LocalDateTime now = LocalDateTime.now();
+        List<User> owners = owners(3);
+        List<FoodItem> items = randomItems(owners, 2000, now);
+        FoodItemColumns columns = FoodItemColumns.of(items);
+
+        int[] byCategory = new int[FoodCategory.values().length];
+        int[] byStatus = new int[ItemStatus.values().length];
+        double[] kgByCategory = new double[FoodCategory.values().length];
+        for (FoodItem item : items) {
+            byCategory[item.getCategory().ordinal()]++;
+            byStatus[item.getStatus().ordinal()]++;
+            kgByCategory[item.getCategory().ordinal()] +=
+                    FoodItemStats.toKilograms(item.getQuantity(), item.getQuantityUnit());
+        }
+        assertArrayEquals(byCategory, columns.countByCategory());
+        assertArrayEquals(byStatus, columns.countByStatus());
+        assertArrayEquals(kgByCategory, columns.sumKgByCategory(), 1e-6);
+
+        LocalDateTime from = now;
+        LocalDateTime to = now.plusHours(48);
+        long fromMs = Timestamps.toEpochMillis(from);
+        long toMs = Timestamps.toEpochMillis(to);
+        User owner = owners.get(1);
+        int expiring = 0;
+        int ownerExpiring = 0;
+        List<Integer> dairyAvailable = new ArrayList<>();
+        for (int i = 0; i < items.size(); i++) {
+            FoodItem item = items.get(i);
+            LocalDateTime expiry = item.getExpiryDate();
+            if (expiry != null && !expiry.isBefore(from) && expiry.isBefore(to)) {
+                expiring++;
+                if (item.getOwner() == owner) {
+                    ownerExpiring++;
+                }
+            }
+            if (item.getCategory() == FoodCategory.DAIRY && item.getStatus() == ItemStatus.AVAILABLE) {
+                dairyAvailable.add(i);
+            }
+        }
+        assertEquals(expiring, columns.countExpiringBetween(fromMs, toMs));
+        assertEquals(ownerExpiring, columns.countExpiringBetween(owner, fromMs, toMs));
+        assertEquals(0, columns.countExpiringBetween(new User(), fromMs, toMs));
+        assertArrayEquals(dairyAvailable.stream().mapToInt(Integer::intValue).toArray(),
+                columns.filter(FoodCategory.DAIRY, ItemStatus.AVAILABLE));
+        assertEquals(items.size(), columns.filter(null, null).length);
+    }
+}
@@ -0,0 +1,86 @@
+package com.greencompost.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import com.greencompost.User;
+import com.greencompost.controller.FoodItem;
+import com.greencompost.controller.FoodItem.FoodCategory;
+import com.greencompost.controller.FoodItem.ItemStatus;
+
+/**
+ * The in-memory aggregation used for sample data follows the same rules
+ * as the SQL statistics queries
+ */
+class FoodItemStatsTest {
+    private static DatabaseManager db;
+
+    @BeforeAll
+    static void openDatabase() {
+        DatabaseManager.setDatabaseUrl(":memory:");
+        db = DatabaseManager.getInstance();
+    }
+
+    private static FoodItem item(User owner, String name, double quantity, String unit, LocalDateTime expiry,
+                                 FoodCategory category, ItemStatus status, LocalDateTime now) {
+        FoodItem item = new FoodItem(name, quantity, unit, expiry, category);
+        item.setOwner(owner);
+        item.setStatus(status);
+        item.setCreatedAt(now.minusDays(3));
+        return item;
+    }
+
+    @Test
+    void inMemoryStatsMatchTheDatabase() {
+        User owner = new User();
+        owner.setUsername("stats-owner");
+        owner.setPassword("secret");
+        db.saveUser(owner);
+
+        // Expiry times sit half a day away from bucket edges, so the two
+        // calls' slightly different clocks fall in the same buckets
+        LocalDateTime now = LocalDateTime.now();
+        List<FoodItem> items = new ArrayList<>();
+        items.add(item(owner, "Milk", 2, "kg", now.plusHours(12), FoodCategory.DAIRY, ItemStatus.AVAILABLE, now));
+        items.add(item(owner, "Cheese", 500, "g", now.plusDays(1).plusHours(12), FoodCategory.DAIRY, ItemStatus.AVAILABLE, now));
+        items.add(item(owner, "Bread", 1, "loaf", now.plusDays(4).plusHours(12), FoodCategory.GRAIN, ItemStatus.DONATED, now));
+        items.add(item(owner, "Rice", 3, "kg", now.plusDays(10).plusHours(12), FoodCategory.GRAIN, ItemStatus.AVAILABLE, now));
+        items.add(item(owner, "Beans", 1, "kg", now.plusDays(40).plusHours(12), FoodCategory.PROTEIN, ItemStatus.AVAILABLE, now));
+        items.add(item(owner, "Apples", 2, "kg", now.minusDays(2).minusHours(12), FoodCategory.FRUIT, ItemStatus.COMPOSTED, now));
+        items.add(item(owner, "Stew", 1, "portion", null, FoodCategory.LEFTOVER_MEAL, ItemStatus.AVAILABLE, now));
+        for (FoodItem item : items) {
+            db.saveFoodItem(item);
+        }
+
+        FoodItemStats stored = db.getFoodItemStats(owner);
+        FoodItemStats inMemory = FoodItemStats.of(items, now);
+
+        assertEquals(items.size(), inMemory.getTotalItems());
+        assertEquals(stored.getTotalItems(), inMemory.getTotalItems());
+        assertEquals(stored.getTotalWeightKg(), inMemory.getTotalWeightKg(), 1e-9);
+        assertEquals(stored.getExpiringSoonCount(), inMemory.getExpiringSoonCount());
+        assertEquals(stored.getAverageAgeDays(), inMemory.getAverageAgeDays(), 0.01);
+        for (ItemStatus status : ItemStatus.values()) {
+            assertEquals(stored.getStatusCount(status), inMemory.getStatusCount(status), status.toString());
+        }
+        assertEquals(stored.getExpiryBuckets(), inMemory.getExpiryBuckets());
+        assertEquals(List.of(1, 1, 1, 1, 1, 2), List.copyOf(inMemory.getExpiryBuckets().values()));
+
+        Map<FoodCategory, FoodItemStats.CategoryTotals> storedTotals = stored.getCategoryTotals();
+        Map<FoodCategory, FoodItemStats.CategoryTotals> memoryTotals = inMemory.getCategoryTotals();
+        assertEquals(storedTotals.keySet(), memoryTotals.keySet());
+        for (FoodCategory category : memoryTotals.keySet()) {
+            assertEquals(storedTotals.get(category).count(), memoryTotals.get(category).count());
+            assertEquals(storedTotals.get(category).weightKg(), memoryTotals.get(category).weightKg(), 1e-9);
+            assertEquals(storedTotals.get(category).avgDaysUntilExpiry(),
+                    memoryTotals.get(category).avgDaysUntilExpiry(), 1e-9);
+        }
+    }
+}
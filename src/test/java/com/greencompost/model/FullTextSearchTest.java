@@ -0,0 +1,113 @@
+package com.greencompost.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.greencompost.User;
+import com.greencompost.controller.FoodItem;
+import com.greencompost.controller.FoodItem.FoodCategory;
+
+/**
+ * Keystroke searches are answered by the FTS5 index and a rowid lookup per
+ * match, never by scanning the stored items
+ */
+class FullTextSearchTest {
+    private static final int ITEM_COUNT = 5_000;
+    private static final int MATCH_COUNT = 20;
+    private static final String[] WORDS = {
+        "apple", "banana", "carrot", "yogurt", "cheddar", "lentil", "parsnip", "spinach", "barley", "tomato"
+    };
+
+    @TempDir
+    static Path dir;
+
+    private static DatabaseManager db;
+    private static User owner;
+    private static final Set<UUID> sourdoughIds = new HashSet<>();
+
+    @BeforeAll
+    static void openDatabase() {
+        DatabaseManager.setDatabaseUrl(dir.resolve("search.db").toString());
+        db = DatabaseManager.getInstance();
+
+        owner = new User();
+        owner.setUsername("searcher");
+        owner.setPassword("secret");
+        db.saveUser(owner);
+
+        LocalDateTime expiry = LocalDateTime.now().plusDays(7);
+        List<FoodItem> items = new ArrayList<>();
+        for (int i = 0; i < ITEM_COUNT; i++) {
+            boolean match = i % (ITEM_COUNT / MATCH_COUNT) == 0;
+            String name = match ? "Sourdough loaf " + i : WORDS[i % WORDS.length] + " " + WORDS[(i / 10) % WORDS.length];
+            FoodItem item = new FoodItem(name, 1, "kg", expiry, FoodCategory.GRAIN);
+            item.setOwner(owner);
+            item.setDescription("Batch " + i);
+            items.add(item);
+            if (match) {
+                sourdoughIds.add(item.getId());
+            }
+        }
+        db.saveFoodItems(items);
+    }
+
+    @AfterAll
+    static void closeDatabase() {
+        db.closeConnection();
+    }
+
+    private static List<String> queryPlan(String sql, Object... params) throws SQLException {
+        List<String> details = new ArrayList<>();
+        try (ConnectionPool.Lease lease = db.getPool().reader();
+             ResultSet rs = lease.query("EXPLAIN QUERY PLAN " + sql, params)) {
+            while (rs.next()) {
+                details.add(rs.getString("detail"));
+            }
+        }
+        return details;
+    }
+
+    @Test
+    void prefixSearchFindsOnlyTheMatchingItems() {
+        assertEquals(sourdoughIds, new HashSet<>(db.searchFoodItemIds(owner, "sour", 100)));
+        assertEquals(sourdoughIds, new HashSet<>(db.searchFoodItemIds(owner, "Sourdough LOAF", 100)));
+        assertEquals(5, db.searchFoodItemIds(owner, "sourdough", 5).size());
+        assertEquals(List.of(), db.searchFoodItemIds(owner, "ough", 100));
+    }
+
+    @Test
+    void searchIsAnsweredByTheIndexNotAScan() throws SQLException {
+        assertEquals(MATCH_COUNT, db.searchFoodItemIds(owner, "sour", 50).size());
+
+        // The same statement searchFoodItemIds runs
+        List<String> plan = queryPlan("""
+            SELECT f.uuid FROM food_items_fts
+            JOIN food_items f ON f.id = food_items_fts.rowid
+            WHERE food_items_fts MATCH ? AND f.userId = (SELECT id FROM users WHERE username = ?)
+            ORDER BY food_items_fts.rank
+            LIMIT ?
+        """, "\"sour\"*", owner.getUsername(), 50);
+        System.out.println("Search plan: " + plan);
+        assertTrue(plan.stream().anyMatch(detail -> detail.startsWith("SCAN food_items_fts VIRTUAL TABLE INDEX")),
+                plan.toString());
+        assertTrue(plan.stream().anyMatch(detail -> detail.startsWith("SEARCH f USING INTEGER PRIMARY KEY")),
+                plan.toString());
+        assertFalse(plan.stream().anyMatch(detail -> detail.matches("SCAN f\\b.*")), plan.toString());
+    }
+}
@@ -0,0 +1,126 @@
+package com.greencompost.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.greencompost.User;
+import com.greencompost.controller.FoodItem;
+import com.greencompost.controller.FoodItem.FoodCategory;
+
+/**
+ * Keyset pages cover every item exactly once, and a deep page seeks the
+ * index to its key instead of stepping over the rows before it
+ */
+class KeysetPagingTest {
+    private static final int ITEM_COUNT = 10_000;
+    private static final int PAGE_SIZE = 50;
+    private static final LocalDateTime BASE = LocalDateTime.of(2030, 1, 1, 0, 0);
+
+    @TempDir
+    static Path dir;
+
+    private static DatabaseManager db;
+    private static User owner;
+
+    @BeforeAll
+    static void openDatabase() {
+        DatabaseManager.setDatabaseUrl(dir.resolve("paging.db").toString());
+        db = DatabaseManager.getInstance();
+
+        owner = new User();
+        owner.setUsername("pager");
+        owner.setPassword("secret");
+        db.saveUser(owner);
+
+        List<FoodItem> items = new ArrayList<>();
+        for (int i = 0; i < ITEM_COUNT; i++) {
+            // Three items share each expiry time, so pages must break ties on the id
+            FoodItem item = new FoodItem("Item " + i, 1, "kg", BASE.plusMinutes(i / 3), FoodCategory.GRAIN);
+            item.setOwner(owner);
+            items.add(item);
+        }
+        db.saveFoodItems(items);
+    }
+
+    @AfterAll
+    static void closeDatabase() {
+        db.closeConnection();
+    }
+
+    private static FoodItemPage.Key lastKeyBefore(int row) throws SQLException {
+        try (ConnectionPool.Lease lease = db.getPool().reader();
+             ResultSet rs = lease.query("SELECT expirationDate, id FROM food_items"
+                     + " ORDER BY expirationDate, id LIMIT 1 OFFSET ?", row - 1)) {
+            return new FoodItemPage.Key(rs.getLong(1), rs.getLong(2));
+        }
+    }
+
+    @Test
+    void pagesCoverEveryItemOnceInOrder() {
+        Set<UUID> seen = new HashSet<>();
+        LocalDateTime previous = null;
+        FoodItemPage.Key key = null;
+        int pages = 0;
+        do {
+            FoodItemPage page = db.getFoodItemsByUser(owner, key, 1000, FoodItemPage.SortOrder.EXPIRY_ASC);
+            for (FoodItem item : page.items()) {
+                assertTrue(seen.add(item.getId()), "Item repeated: " + item.getName());
+                assertFalse(previous != null && item.getExpiryDate().isBefore(previous));
+                previous = item.getExpiryDate();
+            }
+            key = page.nextKey();
+            pages++;
+        } while (key != null);
+
+        assertEquals(ITEM_COUNT, seen.size());
+        assertEquals(ITEM_COUNT / 1000, pages);
+    }
+
+    @Test
+    void deepPagesSeekTheIndexInsteadOfSkippingRows() throws SQLException {
+        int depth = ITEM_COUNT - PAGE_SIZE;
+        FoodItemPage.Key deepKey = lastKeyBefore(depth);
+        FoodItemPage deep = db.getFoodItemsByUser(owner, deepKey, PAGE_SIZE, FoodItemPage.SortOrder.EXPIRY_ASC);
+        assertEquals(PAGE_SIZE, deep.items().size());
+        assertEquals("Item " + depth, deep.items().get(0).getName());
+        assertFalse(deep.hasNext());
+
+        // The same statement getFoodItemsByUser builds for a page after a key
+        List<String> plan = queryPlan("SELECT * FROM food_items"
+                + " WHERE userId = (SELECT id FROM users WHERE username = ?) AND expirationDate IS NOT NULL"
+                + " AND (expirationDate, id) > (?, ?) ORDER BY expirationDate ASC, id ASC LIMIT ?",
+                owner.getUsername(), deepKey.sortValue(), deepKey.id(), PAGE_SIZE);
+        System.out.println("Keyset page plan: " + plan);
+        assertTrue(plan.stream().anyMatch(detail -> detail.startsWith("SEARCH food_items USING INDEX")
+                && detail.contains("expirationDate>")), plan.toString());
+        assertFalse(plan.stream().anyMatch(detail -> detail.startsWith("SCAN food_items")), plan.toString());
+        assertFalse(plan.stream().anyMatch(detail -> detail.contains("TEMP B-TREE")), plan.toString());
+    }
+
+    private static List<String> queryPlan(String sql, Object... params) throws SQLException {
+        List<String> details = new ArrayList<>();
+        try (ConnectionPool.Lease lease = db.getPool().reader();
+             ResultSet rs = lease.query("EXPLAIN QUERY PLAN " + sql, params)) {
+            while (rs.next()) {
+                details.add(rs.getString("detail"));
+            }
+        }
+        return details;
+    }
+}
@@ -0,0 +1,234 @@
+package com.greencompost.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class SchemaMigratorTest {
+    /**
+     * Queries on the hot lookup paths that must be answered from an index
+     */
+    private static final List<String> HOT_QUERIES = List.of(
+            "SELECT * FROM users WHERE username = ?",
+            "SELECT * FROM users WHERE email = ?",
+            "SELECT * FROM food_items WHERE userId = (SELECT id FROM users WHERE username = ?)",
+            "SELECT * FROM food_items WHERE uuid = ?",
+            "SELECT * FROM food_items WHERE status = ?",
+            "SELECT * FROM food_items WHERE expirationDate < ?",
+            "SELECT category, status, COUNT(*), TOTAL(quantity) FROM food_items WHERE userId = ? GROUP BY category, status",
+            "SELECT category, COUNT(*) FROM food_items WHERE userId = ? AND expirationDate >= ? GROUP BY category",
+            "SELECT * FROM user_stats WHERE userId = ?",
+            "SELECT * FROM food_items WHERE userId = ? AND (expirationDate, id) > (?, ?) ORDER BY expirationDate, id LIMIT ?",
+            "SELECT * FROM food_items WHERE userId = ? AND (createdAt, id) < (?, ?) ORDER BY createdAt DESC, id DESC LIMIT ?",
+            "SELECT * FROM services WHERE name = ?",
+            "SELECT * FROM events WHERE serviceId = ? AND startTime >= ? AND startTime < ?",
+            "SELECT * FROM events WHERE uuid = ?",
+            "SELECT foodItemId FROM event_items WHERE eventId = ?",
+            "SELECT eventId FROM event_items WHERE foodItemId = ?",
+            "SELECT * FROM events WHERE startTime >= ? AND startTime < ?",
+            "SELECT dayOfWeek, openTime, closeTime FROM operating_hours WHERE serviceId = ?",
+            "SELECT itemName FROM accepted_items WHERE serviceId = ?",
+            "SELECT itemName FROM non_accepted_items WHERE serviceId = ?",
+            "SELECT guideline FROM donation_guidelines WHERE serviceId = ?"
+    );
+
+    @TempDir
+    static Path dir;
+
+    private static DatabaseManager db;
+
+    @BeforeAll
+    static void openDatabase() {
+        DatabaseManager.setDatabaseUrl(dir.resolve("schema.db").toString());
+        db = DatabaseManager.getInstance();
+    }
+
+    @AfterAll
+    static void closeDatabase() {
+        db.closeConnection();
+    }
+
+    @Test
+    void hotQueriesUseIndexes() throws SQLException {
+        List<String> scans = new ArrayList<>();
+        try (ConnectionPool.Lease lease = db.getPool().reader()) {
+            for (String sql : HOT_QUERIES) {
+                try (PreparedStatement pstmt = lease.connection().prepareStatement("EXPLAIN QUERY PLAN " + sql);
+                     ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        String detail = rs.getString("detail");
+                        if (detail.startsWith("SCAN")) {
+                            scans.add(sql + " -> " + detail);
+                        }
+                    }
+                }
+            }
+        }
+        assertEquals(List.of(), scans);
+    }
+
+    @Test
+    void startupAppliesEveryDefaultMigration() throws SQLException {
+        List<SchemaMigrator.Migration> migrations = SchemaMigrator.defaultMigrations();
+        try (ConnectionPool.Lease lease = db.getPool().reader()) {
+            assertEquals(migrations.get(migrations.size() - 1).version(),
+                    SchemaMigrator.getCurrentVersion(lease.connection()));
+        }
+    }
+
+    private static int countRows(Connection conn, String table) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM " + table)) {
+            return rs.getInt(1);
+        }
+    }
+
+    private static boolean tableExists(Connection conn, String table) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement("SELECT 1 FROM sqlite_master WHERE type = 'table' AND name = ?")) {
+            pstmt.setString(1, table);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next();
+            }
+        }
+    }
+
+    @Test
+    void migrationsRunOnceInOrder() throws SQLException {
+        List<SchemaMigrator.Migration> migrations = List.of(
+                new SchemaMigrator.Migration(1, "create", conn -> {
+                    try (Statement stmt = conn.createStatement()) {
+                        stmt.execute("CREATE TABLE log (step INTEGER)");
+                        stmt.execute("INSERT INTO log VALUES (1)");
+                    }
+                }),
+                new SchemaMigrator.Migration(2, "append", conn -> {
+                    try (Statement stmt = conn.createStatement()) {
+                        stmt.execute("INSERT INTO log VALUES (2)");
+                    }
+                }));
+
+        try (Connection conn = DriverManager.getConnection("jdbc:sqlite::memory:")) {
+            assertEquals(2, new SchemaMigrator(migrations).migrate(conn));
+            assertEquals(2, new SchemaMigrator(migrations).migrate(conn));
+            assertEquals(2, countRows(conn, "log"));
+            assertEquals(2, countRows(conn, "schema_version"));
+            assertTrue(conn.getAutoCommit());
+        }
+    }
+
+    @Test
+    void failedMigrationIsRolledBackAndStopsLaterOnes() throws SQLException {
+        List<SchemaMigrator.Migration> migrations = List.of(
+                new SchemaMigrator.Migration(1, "ok", conn -> {
+                    try (Statement stmt = conn.createStatement()) {
+                        stmt.execute("CREATE TABLE first (id INTEGER)");
+                    }
+                }),
+                new SchemaMigrator.Migration(2, "fails halfway", conn -> {
+                    try (Statement stmt = conn.createStatement()) {
+                        stmt.execute("CREATE TABLE second (id INTEGER)");
+                        stmt.execute("INSERT INTO missing VALUES (1)");
+                    }
+                }),
+                new SchemaMigrator.Migration(3, "never runs", conn -> {
+                    try (Statement stmt = conn.createStatement()) {
+                        stmt.execute("CREATE TABLE third (id INTEGER)");
+                    }
+                }));
+
+        try (Connection conn = DriverManager.getConnection("jdbc:sqlite::memory:")) {
+            assertThrows(SQLException.class, () -> new SchemaMigrator(migrations).migrate(conn));
+            assertEquals(1, SchemaMigrator.getCurrentVersion(conn));
+            assertTrue(tableExists(conn, "first"));
+            assertFalse(tableExists(conn, "second"));
+            assertFalse(tableExists(conn, "third"));
+        }
+    }
+
+    @Test
+    void duplicateServiceNamesCollapseOntoTheLowestId() throws SQLException {
+        SchemaMigrator uniqueNames = new SchemaMigrator(SchemaMigrator.defaultMigrations().stream()
+                .filter(migration -> migration.description().equals("Unique service names"))
+                .toList());
+
+        try (Connection conn = DriverManager.getConnection("jdbc:sqlite::memory:");
+             Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE TABLE services (id INTEGER PRIMARY KEY, name TEXT)");
+            stmt.execute("CREATE TABLE events (id INTEGER PRIMARY KEY, serviceId INTEGER)");
+            for (String child : List.of("operating_hours", "accepted_items", "non_accepted_items", "donation_guidelines")) {
+                stmt.execute("CREATE TABLE " + child + " (serviceId INTEGER)");
+                stmt.execute("INSERT INTO " + child + " VALUES (1), (2), (3)");
+            }
+            stmt.execute("INSERT INTO services VALUES (1, 'Yard'), (2, 'Yard'), (3, 'Bank')");
+            stmt.execute("INSERT INTO events VALUES (10, 2), (11, 3)");
+
+            uniqueNames.migrate(conn);
+
+            try (ResultSet rs = stmt.executeQuery("SELECT GROUP_CONCAT(id) FROM (SELECT id FROM services ORDER BY id)")) {
+                assertEquals("1,3", rs.getString(1));
+            }
+            try (ResultSet rs = stmt.executeQuery("SELECT serviceId FROM events WHERE id = 10")) {
+                assertEquals(1, rs.getInt(1));
+            }
+            assertEquals(2, countRows(conn, "accepted_items"));
+            assertThrows(SQLException.class, () -> stmt.execute("INSERT INTO services VALUES (4, 'Bank')"));
+        }
+    }
+
+    @Test
+    void duplicateFoodItemsCollapseBeforeGettingKeys() throws SQLException {
+        SchemaMigrator stableKeys = new SchemaMigrator(SchemaMigrator.defaultMigrations().stream()
+                .filter(migration -> migration.description().equals("Stable UUID key for food item upserts"))
+                .toList());
+
+        try (Connection conn = DriverManager.getConnection("jdbc:sqlite::memory:");
+             Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE TABLE food_items (id INTEGER PRIMARY KEY, name TEXT, category TEXT, "
+                    + "expirationDate INTEGER, userId INTEGER)");
+            stmt.execute("CREATE TABLE event_items (eventId INTEGER, foodItemId INTEGER, PRIMARY KEY (eventId, foodItemId))");
+            stmt.execute("INSERT INTO food_items VALUES (1, 'Milk', 'DAIRY', 100, 1), (2, 'Milk', 'DAIRY', 100, 1), "
+                    + "(3, 'Milk', 'DAIRY', 100, 2), (4, 'Milk', 'DAIRY', 200, 1), (5, 'Rice', 'GRAIN', NULL, 1), "
+                    + "(6, 'Rice', 'GRAIN', NULL, 1), (7, 'Milk', 'DAIRY', 100, 1)");
+            // Event 20 already links the kept row as well as a copy
+            stmt.execute("INSERT INTO event_items VALUES (10, 2), (20, 1), (20, 7), (30, 6)");
+
+            stableKeys.migrate(conn);
+
+            try (ResultSet rs = stmt.executeQuery("SELECT GROUP_CONCAT(id) FROM (SELECT id FROM food_items ORDER BY id)")) {
+                assertEquals("1,3,4,5", rs.getString(1));
+            }
+            try (ResultSet rs = stmt.executeQuery("SELECT GROUP_CONCAT(eventId || ':' || foodItemId) FROM "
+                    + "(SELECT * FROM event_items ORDER BY eventId, foodItemId)")) {
+                assertEquals("10:1,20:1,30:5", rs.getString(1));
+            }
+            try (ResultSet rs = stmt.executeQuery("SELECT COUNT(DISTINCT uuid), COUNT(uuid) FROM food_items")) {
+                assertEquals(4, rs.getInt(1));
+                assertEquals(4, rs.getInt(2));
+            }
+        }
+    }
+
+    @Test
+    void versionsMustIncrease() {
+        SchemaMigrator.MigrationStep noop = conn -> { };
+        assertThrows(IllegalArgumentException.class, () -> new SchemaMigrator(List.of(
+                new SchemaMigrator.Migration(2, "b", noop),
+                new SchemaMigrator.Migration(1, "a", noop))));
+    }
+}
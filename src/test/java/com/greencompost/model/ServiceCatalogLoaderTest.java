@@ -0,0 +1,87 @@
+package com.greencompost.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.sql.SQLException;
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import com.greencompost.service.LocalService;
+import com.greencompost.service.LocalService.ServiceType;
+
+class ServiceCatalogLoaderTest {
+    private static final int QUERIES_PER_LOAD = 5;
+
+    private static DatabaseManager db;
+
+    @BeforeAll
+    static void openDatabase() {
+        DatabaseManager.setDatabaseUrl(":memory:");
+        db = DatabaseManager.getInstance();
+    }
+
+    private static List<LocalService> services(String prefix, int count) {
+        List<LocalService> services = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            LocalService service = new LocalService(prefix + " " + i, i + " Main St, Dublin", "01 555 " + i,
+                    "Dublin", ServiceType.values()[i % ServiceType.values().length]);
+            service.addAcceptedItem("Vegetables " + i);
+            service.addAcceptedItem("Bread");
+            service.addNonAcceptedItem("Meat");
+            service.addDonationGuideline("Guideline " + i);
+            services.add(service);
+        }
+        return services;
+    }
+
+    @Test
+    void catalogLoadCostsTheSameNumberOfQueriesAtAnySize() {
+        db.saveLocalServices(services("Small", 3));
+        int smallSize = db.getAllLocalServices().size();
+        assertEquals(QUERIES_PER_LOAD, db.getLastCatalogQueryCount());
+
+        db.saveLocalServices(services("Large", 2000));
+        List<LocalService> loaded = db.getAllLocalServices();
+        assertEquals(smallSize + 2000, loaded.size());
+        assertEquals(QUERIES_PER_LOAD, db.getLastCatalogQueryCount());
+    }
+
+    @Test
+    void loaderAttachesChildRowsToTheirService() throws SQLException {
+        LocalService saved = services("Children", 1).get(0);
+        saved.getHours().addHours(DayOfWeek.SATURDAY, LocalTime.of(10, 0), LocalTime.of(14, 0));
+        db.saveLocalService(saved);
+
+        try (ConnectionPool.Lease lease = db.getPool().reader()) {
+            ServiceCatalogLoader loader = new ServiceCatalogLoader(lease);
+            List<LocalService> loaded = loader.loadByName("Children 0");
+            assertEquals(QUERIES_PER_LOAD, loader.getQueryCount());
+            assertEquals(1, loaded.size());
+
+            LocalService service = loaded.get(0);
+            assertEquals(saved.getDatabaseId(), service.getDatabaseId());
+            assertEquals(saved.getType(), service.getType());
+            assertEquals(List.of("Vegetables 0", "Bread"), service.getAcceptedItems());
+            assertEquals(List.of("Meat"), service.getNonAcceptedItems());
+            assertEquals(List.of("Guideline 0"), service.getDonationGuidelines());
+            assertEquals(LocalTime.of(9, 0), service.getHours().getTimeSlotForDay(0).getOpenTime());
+            assertEquals(LocalTime.of(14, 0), service.getHours().getTimeSlotForDay(5).getCloseTime());
+            assertNull(service.getHours().getTimeSlotForDay(6));
+        }
+    }
+
+    @Test
+    void loadingAnUnknownNameStopsAfterTheServicesQuery() throws SQLException {
+        try (ConnectionPool.Lease lease = db.getPool().reader()) {
+            ServiceCatalogLoader loader = new ServiceCatalogLoader(lease);
+            assertEquals(0, loader.loadByName("No such service").size());
+            assertEquals(1, loader.getQueryCount());
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package com.greencompost.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.greencompost.User;
+import com.greencompost.controller.FoodItem;
+import com.greencompost.controller.FoodItem.FoodCategory;
+import com.greencompost.service.ScheduledEvent;
+
+class TimestampsTest {
+    private static final LocalDateTime LEGACY_EXPIRY = LocalDateTime.parse("2030-01-02T10:15:30");
+    private static final LocalDateTime LEGACY_CREATED = LocalDateTime.parse("2029-12-01T08:00");
+    private static final LocalDateTime LEGACY_START = LocalDateTime.parse("2030-03-04T09:30");
+
+    @TempDir
+    static Path dir;
+
+    private static DatabaseManager db;
+
+    /**
+     * Open the manager on a database in the original schema, with dates
+     * stored as ISO text, so startup has to migrate it
+     */
+    @BeforeAll
+    static void openLegacyDatabase() throws SQLException {
+        Path file = dir.resolve("legacy.db");
+        try (Connection conn = DriverManager.getConnection("jdbc:sqlite:" + file);
+             Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE TABLE users (id INTEGER PRIMARY KEY AUTOINCREMENT, username TEXT UNIQUE NOT NULL, "
+                    + "password TEXT NOT NULL, name TEXT, email TEXT, location TEXT, latitude REAL, longitude REAL, "
+                    + "createdAt TEXT, remember_me INTEGER DEFAULT 0)");
+            stmt.execute("CREATE TABLE food_items (id INTEGER PRIMARY KEY AUTOINCREMENT, name TEXT NOT NULL, "
+                    + "category TEXT NOT NULL, quantity REAL NOT NULL, quantityUnit TEXT, expirationDate TEXT, "
+                    + "status TEXT NOT NULL, userId INTEGER, createdAt TEXT, description TEXT)");
+            stmt.execute("CREATE TABLE events (id INTEGER PRIMARY KEY AUTOINCREMENT, title TEXT NOT NULL, "
+                    + "description TEXT, location TEXT, startTime TEXT, endTime TEXT, serviceId INTEGER)");
+            stmt.execute("INSERT INTO users (username, password) VALUES ('legacy', 'secret')");
+            stmt.execute("INSERT INTO food_items (name, category, quantity, quantityUnit, expirationDate, status, userId, createdAt) "
+                    + "VALUES ('Old carrots', 'VEGETABLE', 2, 'kg', '" + LEGACY_EXPIRY + "', 'AVAILABLE', 1, '" + LEGACY_CREATED + "')");
+            stmt.execute("INSERT INTO food_items (name, category, quantity, status, userId, expirationDate) "
+                    + "VALUES ('Bad date', 'FRUIT', 1, 'AVAILABLE', 1, 'not a date')");
+            stmt.execute("INSERT INTO events (title, startTime, endTime) VALUES ('Old pickup', '" + LEGACY_START + "', '"
+                    + LEGACY_START.plusHours(1) + "')");
+        }
+
+        DatabaseManager.setDatabaseUrl(file.toString());
+        db = DatabaseManager.getInstance();
+    }
+
+    @AfterAll
+    static void closeDatabase() {
+        db.closeConnection();
+    }
+
+    private static String declaredType(String table, String column) throws SQLException {
+        try (ConnectionPool.Lease lease = db.getPool().reader();
+             ResultSet rs = lease.query("SELECT type FROM pragma_table_info(?) WHERE name = ?", table, column)) {
+            return rs.next() ? rs.getString(1) : null;
+        }
+    }
+
+    @Test
+    void migrationConvertsTextDatesToEpochMillis() throws SQLException {
+        assertEquals("INTEGER", declaredType("food_items", "expirationDate"));
+        assertEquals("INTEGER", declaredType("food_items", "createdAt"));
+        assertEquals("INTEGER", declaredType("events", "startTime"));
+        assertEquals("INTEGER", declaredType("events", "endTime"));
+
+        try (ConnectionPool.Lease lease = db.getPool().reader();
+             ResultSet rs = lease.query("SELECT expirationDate, createdAt FROM food_items WHERE name = 'Old carrots'")) {
+            assertEquals(Timestamps.toEpochMillis(LEGACY_EXPIRY), rs.getLong(1));
+            assertEquals(Timestamps.toEpochMillis(LEGACY_CREATED), rs.getLong(2));
+        }
+        try (ConnectionPool.Lease lease = db.getPool().reader();
+             ResultSet rs = lease.query("SELECT expirationDate FROM food_items WHERE name = 'Bad date'")) {
+            rs.getLong(1);
+            assertTrue(rs.wasNull());
+        }
+    }
+
+    @Test
+    void migratedRowsMapBackToTheOriginalTimes() {
+        List<FoodItem> items = db.findItemsExpiringBetween(LEGACY_EXPIRY, LEGACY_EXPIRY.plusSeconds(1));
+        assertEquals(1, items.size());
+        assertEquals(LEGACY_EXPIRY, items.get(0).getExpiryDate());
+        assertEquals(LEGACY_CREATED, items.get(0).getCreatedAt());
+
+        List<ScheduledEvent> events = db.findEventsBetween(LEGACY_START, LEGACY_START.plusMinutes(1));
+        assertEquals(1, events.size());
+        assertEquals("Old pickup", events.get(0).getTitle());
+        assertEquals(LEGACY_START.plusHours(1), events.get(0).getEndTime());
+    }
+
+    @Test
+    void expiryRangeIsHalfOpenAndOrdered() {
+        User owner = new User();
+        owner.setUsername("range-owner");
+        owner.setPassword("secret");
+        db.saveUser(owner);
+
+        LocalDateTime base = LocalDateTime.of(2031, 5, 1, 12, 0);
+        for (int day : new int[] {3, 0, 2, 1}) {
+            FoodItem item = new FoodItem("Day " + day, 1, "kg", base.plusDays(day), FoodCategory.FRUIT);
+            item.setOwner(owner);
+            db.saveFoodItem(item);
+        }
+
+        List<FoodItem> items = db.findItemsExpiringBetween(base, base.plusDays(2));
+        assertEquals(List.of("Day 0", "Day 1"), items.stream().map(FoodItem::getName).toList());
+        assertEquals(0, db.findItemsExpiringBetween(base.plusDays(2), base.plusDays(2)).size());
+    }
+
+    @Test
+    void nullTimesStayNull() {
+        assertNull(Timestamps.toEpochMillis(null));
+        LocalDateTime time = LocalDateTime.of(2024, 2, 29, 23, 59, 59, 123_000_000);
+        assertEquals(time, Timestamps.fromEpochMillis(Timestamps.toEpochMillis(time)));
+    }
+
+    @Test
+    void storedTimesAreNeverText() throws SQLException {
+        User owner = new User();
+        owner.setUsername("typed-owner");
+        owner.setPassword("secret");
+        db.saveUser(owner);
+        FoodItem item = new FoodItem("Typed", 1, "kg", LocalDateTime.of(2031, 7, 1, 8, 30), FoodCategory.FRUIT);
+        item.setOwner(owner);
+        db.saveFoodItem(item);
+
+        // Rows are read with getLong and never parsed, so no text value may be left behind
+        try (ConnectionPool.Lease lease = db.getPool().reader();
+             ResultSet rs = lease.query("SELECT (SELECT COUNT(*) FROM food_items"
+                     + " WHERE typeof(expirationDate) = 'text' OR typeof(createdAt) = 'text'),"
+                     + " (SELECT COUNT(*) FROM events WHERE typeof(startTime) = 'text' OR typeof(endTime) = 'text'),"
+                     + " (SELECT typeof(expirationDate) FROM food_items WHERE name = 'Typed')")) {
+            assertEquals(0, rs.getInt(1));
+            assertEquals(0, rs.getInt(2));
+            assertEquals("integer", rs.getString(3));
+        }
+    }
+
+    @Test
+    void epochMillisMatchTheIsoText() {
+        LocalDateTime start = LocalDateTime.of(2025, 1, 1, 0, 0, 0, 250_000_000);
+        for (int i = 0; i < 10_000; i++) {
+            LocalDateTime time = start.plusMinutes(i * 53L);
+            assertEquals(LocalDateTime.parse(time.toString()),
+                    Timestamps.fromEpochMillis(Timestamps.toEpochMillis(time)));
+        }
+    }
+}
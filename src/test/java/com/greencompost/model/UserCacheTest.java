@@ -0,0 +1,112 @@
+package com.greencompost.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import org.junit.jupiter.api.Test;
+
+import com.greencompost.User;
+
+class UserCacheTest {
+    private static User user(String username, String email) {
+        User user = new User();
+        user.setUsername(username);
+        user.setEmail(email);
+        return user;
+    }
+
+    @Test
+    void lookupsCountHitsAndMisses() {
+        UserCache cache = new UserCache(10);
+        User alice = user("alice", "Alice@Example.com");
+        cache.put(alice);
+
+        assertSame(alice, cache.getByUsername("alice"));
+        assertSame(alice, cache.getByEmail("alice@example.COM"));
+        assertNull(cache.getByUsername("bob"));
+        assertNull(cache.getByEmail("bob@example.com"));
+        assertNull(cache.getByEmail(null));
+
+        assertEquals(2, cache.getHitCount());
+        assertEquals(3, cache.getMissCount());
+        assertEquals(0.4, cache.getHitRate(), 1e-9);
+    }
+
+    @Test
+    void resolveKeepsTheCachedInstance() {
+        UserCache cache = new UserCache(10);
+        User cached = user("carol", "carol@example.com");
+        cache.put(cached);
+
+        assertSame(cached, cache.resolve(user("carol", "carol@example.com")));
+        User loaded = user("dave", null);
+        assertSame(loaded, cache.resolve(loaded));
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    void leastRecentlyUsedUserIsEvictedFromEveryIndex() {
+        UserCache cache = new UserCache(2);
+        User first = user("first", "first@example.com");
+        User second = user("second", "second@example.com");
+        cache.put(first);
+        cache.put(second);
+
+        // An email lookup counts as use, so the second user is now the eldest
+        assertSame(first, cache.getByEmail("first@example.com"));
+        cache.put(user("third", "third@example.com"));
+
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getEvictionCount());
+        assertNull(cache.getByUsername("second"));
+        assertNull(cache.getByEmail("second@example.com"));
+        assertSame(first, cache.getByUsername("first"));
+    }
+
+    @Test
+    void emailChangeMovesTheEmailKey() {
+        UserCache cache = new UserCache(10);
+        User erin = user("erin", "erin@old.example");
+        cache.put(erin);
+
+        erin.setEmail("erin@new.example");
+        cache.put(erin);
+
+        assertNull(cache.getByEmail("erin@old.example"));
+        assertSame(erin, cache.getByEmail("erin@new.example"));
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void renameDropsTheOldUsername() {
+        UserCache cache = new UserCache(10);
+        User frank = user("frank", "frank@example.com");
+        cache.put(frank);
+
+        // What a save does when the stored username differs from the current one
+        frank.setUsername("francis");
+        cache.invalidate("frank");
+        cache.put(frank);
+
+        assertNull(cache.getByUsername("frank"));
+        assertSame(frank, cache.getByUsername("francis"));
+        assertSame(frank, cache.getByEmail("frank@example.com"));
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void invalidateAndClearEmptyEveryIndex() {
+        UserCache cache = new UserCache(10);
+        cache.put(user("gina", "gina@example.com"));
+        cache.put(user("hank", "hank@example.com"));
+
+        cache.invalidate("gina");
+        assertNull(cache.getByEmail("gina@example.com"));
+        cache.clear();
+        assertNull(cache.getByUsername("hank"));
+        assertNull(cache.getByEmail("hank@example.com"));
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.getEvictionCount());
+    }
+}
@@ -0,0 +1,268 @@
+package com.greencompost.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.sqlite.SQLiteCommitListener;
+import org.sqlite.SQLiteConnection;
+
+import com.greencompost.User;
+import com.greencompost.controller.FoodItem;
+import com.greencompost.controller.FoodItem.FoodCategory;
+import com.greencompost.service.ScheduledEvent;
+
+class WriteBehindQueueTest {
+    // Long enough that only explicit flushes and the batch limit write anything
+    private static final long NEVER_MS = 60 * 60 * 1000L;
+
+    @TempDir
+    static Path dir;
+
+    private static DatabaseManager db;
+    private static User owner;
+
+    private final AtomicInteger commits = new AtomicInteger();
+    private final SQLiteCommitListener commitCounter = new SQLiteCommitListener() {
+        @Override
+        public void onCommit() {
+            commits.incrementAndGet();
+        }
+
+        @Override
+        public void onRollback() {
+        }
+    };
+    private WriteBehindQueue queue;
+
+    @BeforeAll
+    static void openDatabase() {
+        DatabaseManager.setDatabaseUrl(dir.resolve("write-behind.db").toString());
+        db = DatabaseManager.getInstance();
+        owner = new User();
+        owner.setUsername("queue-owner");
+        owner.setPassword("secret");
+        db.saveUser(owner);
+    }
+
+    @AfterAll
+    static void closeDatabase() {
+        db.closeConnection();
+    }
+
+    @BeforeEach
+    void countCommits() throws SQLException {
+        writer().addCommitListener(commitCounter);
+    }
+
+    @AfterEach
+    void stopCounting() throws SQLException {
+        if (queue != null) {
+            queue.close();
+        }
+        writer().removeCommitListener(commitCounter);
+    }
+
+    private static SQLiteConnection writer() throws SQLException {
+        return db.getConnection().unwrap(SQLiteConnection.class);
+    }
+
+    private static List<FoodItem> items(String prefix, int count) {
+        List<FoodItem> items = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            FoodItem item = new FoodItem(prefix + " " + i, 1, "kg", LocalDateTime.now().plusDays(3), FoodCategory.VEGETABLE);
+            item.setOwner(owner);
+            items.add(item);
+        }
+        return items;
+    }
+
+    private static int countStored(String prefix) throws SQLException {
+        try (ConnectionPool.Lease lease = db.getPool().reader();
+             ResultSet rs = lease.query("SELECT COUNT(*) FROM food_items WHERE name LIKE ?", prefix + " %")) {
+            return rs.getInt(1);
+        }
+    }
+
+    @Test
+    void queuedWritesAreCommittedTogetherOnFlush() throws SQLException {
+        queue = WriteBehindQueue.start(db, db.getPool(), NEVER_MS, 1000);
+        for (FoodItem item : items("Grouped", 200)) {
+            queue.enqueueFoodItem(item);
+        }
+        assertEquals(200, queue.getPendingCount());
+        assertEquals(0, countStored("Grouped"));
+
+        queue.flush();
+        assertEquals(0, queue.getPendingCount());
+        assertEquals(200, countStored("Grouped"));
+        assertEquals(1, commits.get());
+    }
+
+    @Test
+    void repeatedSavesOfOneItemAreCoalesced() throws SQLException {
+        queue = WriteBehindQueue.start(db, db.getPool(), NEVER_MS, 1000);
+        FoodItem item = items("Coalesced", 1).get(0);
+        for (int quantity = 1; quantity <= 5; quantity++) {
+            item.setQuantity(quantity);
+            queue.enqueueFoodItem(item);
+        }
+        assertEquals(1, queue.getPendingCount());
+
+        queue.flush();
+        try (ConnectionPool.Lease lease = db.getPool().reader();
+             ResultSet rs = lease.query("SELECT COUNT(*), MAX(quantity) FROM food_items WHERE uuid = ?",
+                     item.getId().toString())) {
+            assertEquals(1, rs.getInt(1));
+            assertEquals(5.0, rs.getDouble(2));
+        }
+    }
+
+    @Test
+    void reachingTheBatchSizeFlushesWithoutWaitingForTheTimer() throws Exception {
+        queue = WriteBehindQueue.start(db, db.getPool(), NEVER_MS, 50);
+        for (FoodItem item : items("Batch", 50)) {
+            queue.enqueueFoodItem(item);
+        }
+        long deadline = System.currentTimeMillis() + 5000;
+        while (countStored("Batch") < 50 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(50, countStored("Batch"));
+    }
+
+    @Test
+    void closeWritesPendingSavesAndLaterSavesAreSynchronous() throws SQLException {
+        queue = WriteBehindQueue.start(db, db.getPool(), NEVER_MS, 1000);
+        List<FoodItem> items = items("Closed", 2);
+        queue.enqueueFoodItem(items.get(0));
+        queue.close();
+        assertEquals(1, countStored("Closed"));
+
+        queue.enqueueFoodItem(items.get(1));
+        assertEquals(0, queue.getPendingCount());
+        assertEquals(2, countStored("Closed"));
+    }
+
+    @Test
+    void aFailedWriteIsRolledBackWithoutLosingTheRestOfTheBatch() throws SQLException {
+        queue = WriteBehindQueue.start(db, db.getPool(), NEVER_MS, 1000);
+        ScheduledEvent doomed = new ScheduledEvent(owner, null, ScheduledEvent.EventType.DROP_OFF,
+                LocalDateTime.now().plusDays(1));
+        doomed.setTitle("Doomed");
+        items("Orphaned", 3).forEach(doomed::addFoodItem);
+        List<FoodItem> survivors = items("Survivor", 2);
+
+        queue.enqueueFoodItem(survivors.get(0));
+        queue.enqueueEvent(doomed);
+        queue.enqueueFoodItem(survivors.get(1));
+        // The event's items are written before its row, so the insert fails halfway through the save
+        try (ConnectionPool.Lease lease = db.getPool().writer();
+             Statement stmt = lease.connection().createStatement()) {
+            stmt.execute("CREATE TEMP TRIGGER reject_doomed BEFORE INSERT ON events WHEN NEW.title = 'Doomed' "
+                    + "BEGIN SELECT RAISE(ABORT, 'rejected'); END");
+            commits.set(0);
+            queue.flush();
+            assertEquals(1, commits.get());
+            stmt.execute("DROP TRIGGER reject_doomed");
+        }
+
+        assertEquals(0, countStored("Orphaned"));
+        assertEquals(2, countStored("Survivor"));
+        assertTrue(db.getConnection().getAutoCommit());
+
+        // The failed save was queued again and goes through once the cause is gone
+        assertEquals(1, queue.getPendingCount());
+        queue.flush();
+        assertEquals(3, countStored("Orphaned"));
+        assertEquals(0, queue.getPendingCount());
+    }
+
+    @Test
+    void aWriteThatKeepsFailingIsDroppedAfterItsLastAttempt() throws SQLException {
+        queue = WriteBehindQueue.start(db, db.getPool(), NEVER_MS, 1000);
+        ScheduledEvent doomed = new ScheduledEvent(owner, null, ScheduledEvent.EventType.DROP_OFF,
+                LocalDateTime.now().plusDays(1));
+        doomed.setTitle("Always doomed");
+        queue.enqueueEvent(doomed);
+        try (ConnectionPool.Lease lease = db.getPool().writer();
+             Statement stmt = lease.connection().createStatement()) {
+            stmt.execute("CREATE TEMP TRIGGER reject_always BEFORE INSERT ON events WHEN NEW.title = 'Always doomed' "
+                    + "BEGIN SELECT RAISE(ABORT, 'rejected'); END");
+            for (int attempt = 1; attempt < WriteBehindQueue.MAX_ATTEMPTS; attempt++) {
+                queue.flush();
+                assertEquals(1, queue.getPendingCount(), "attempt " + attempt);
+            }
+            queue.flush();
+            assertEquals(0, queue.getPendingCount());
+            stmt.execute("DROP TRIGGER reject_always");
+        }
+    }
+
+    @Test
+    void aFailedCommitQueuesTheBatchAgainBehindNewerWrites() throws SQLException {
+        queue = WriteBehindQueue.start(db, db.getPool(), NEVER_MS, 1000);
+        List<FoodItem> retried = items("Retried", 2);
+        retried.forEach(queue::enqueueFoodItem);
+        try (ConnectionPool.Lease lease = db.getPool().writer();
+             Statement stmt = lease.connection().createStatement()) {
+            // A deferred foreign key is only checked at commit, so the whole commit fails
+            stmt.execute("PRAGMA foreign_keys = ON");
+            stmt.execute("CREATE TEMP TABLE guard_parent (id INTEGER PRIMARY KEY)");
+            stmt.execute("CREATE TEMP TABLE guard (parentId INTEGER REFERENCES guard_parent(id) "
+                    + "DEFERRABLE INITIALLY DEFERRED)");
+            stmt.execute("CREATE TEMP TRIGGER guard_items AFTER INSERT ON food_items "
+                    + "BEGIN INSERT INTO guard VALUES (-1); END");
+            queue.flush();
+            stmt.execute("DROP TRIGGER guard_items");
+            stmt.execute("DROP TABLE guard");
+            stmt.execute("DROP TABLE guard_parent");
+            stmt.execute("PRAGMA foreign_keys = OFF");
+        }
+        assertEquals(0, countStored("Retried"));
+        assertEquals(2, queue.getPendingCount());
+
+        // A save queued after the failure replaces the queued retry of the same item
+        retried.get(0).setName("Renamed 0");
+        queue.enqueueFoodItem(retried.get(0));
+        assertEquals(2, queue.getPendingCount());
+        queue.flush();
+        assertEquals(1, countStored("Retried"));
+        assertEquals(1, countStored("Renamed"));
+        assertFalse(retried.get(0).isDirty());
+        assertFalse(retried.get(1).isDirty());
+    }
+
+    @Test
+    void queuedRowsShareOneCommitInsteadOfOneEach() throws SQLException {
+        int rows = 2000;
+        for (FoodItem item : items("Direct", rows)) {
+            db.saveFoodItem(item);
+        }
+        assertEquals(rows, commits.get());
+
+        queue = WriteBehindQueue.start(db, db.getPool(), NEVER_MS, rows);
+        commits.set(0);
+        for (FoodItem item : items("Queued", rows)) {
+            queue.enqueueFoodItem(item);
+        }
+        queue.flush();
+        assertEquals(1, commits.get());
+        assertEquals(rows, countStored("Queued"));
+    }
+}
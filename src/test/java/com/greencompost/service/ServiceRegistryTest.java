@@ -0,0 +1,130 @@
+package com.greencompost.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.greencompost.User;
+import com.greencompost.service.LocalService.ServiceType;
+
+class ServiceRegistryTest {
+    private final ServiceRegistry registry = ServiceRegistry.getInstance();
+
+    @BeforeEach
+    void clearRegistry() {
+        registry.clear();
+    }
+
+    private static LocalService service(String name, String city, ServiceType type) {
+        return new LocalService(name, "1 Main St, " + city, "01 555 0000", city, type);
+    }
+
+    @Test
+    void creatingAServiceDoesNotRegisterIt() {
+        service("Unregistered", "Dublin", ServiceType.FOOD_BANK);
+        assertEquals(0, registry.size());
+    }
+
+    @Test
+    void registeringTheSameNameReplacesTheOlderInstance() {
+        LocalService first = service("Food Bank", "Dublin", ServiceType.FOOD_BANK);
+        LocalService second = service("Food Bank", "Cork", ServiceType.FOOD_BANK);
+        registry.register(first);
+        registry.register(second);
+
+        assertEquals(1, registry.size());
+        assertSame(second, registry.get("Food Bank"));
+        assertEquals(List.of(), registry.findByCity("Dublin"));
+        assertEquals(List.of(second), registry.findByCity("cork"));
+    }
+
+    @Test
+    void renamingOntoAnotherRegisteredNameIsRejected() {
+        LocalService north = service("North Yard", "Dublin", ServiceType.COMPOSTING_FACILITY);
+        LocalService south = service("South Yard", "Dublin", ServiceType.COMPOSTING_FACILITY);
+        registry.registerAll(List.of(north, south));
+
+        assertThrows(IllegalArgumentException.class, () -> south.setName("North Yard"));
+        assertEquals("South Yard", south.getName());
+        assertEquals(2, registry.size());
+        assertSame(north, registry.get("North Yard"));
+        assertSame(south, registry.get("South Yard"));
+    }
+
+    @Test
+    void renamingReindexesTheService() {
+        LocalService yard = service("Old Yard", "Galway", ServiceType.COMPOSTING_FACILITY);
+        registry.register(yard);
+
+        yard.setName("New Yard");
+        yard.setName("New Yard");
+        assertEquals(1, registry.size());
+        assertSame(yard, registry.get("New Yard"));
+        assertEquals(null, registry.get("Old Yard"));
+
+        // Unregistered services are free to take any name
+        LocalService copy = service("Copy", "Galway", ServiceType.FOOD_BANK);
+        copy.setName("New Yard");
+        assertSame(yard, registry.get("New Yard"));
+    }
+
+    @Test
+    void typeAndCityChangesMoveBetweenIndexes() {
+        LocalService service = service("Mover", "Cork", ServiceType.FOOD_BANK);
+        registry.register(service);
+
+        service.setType(ServiceType.SOUP_KITCHEN);
+        service.setCity("Limerick");
+        assertEquals(List.of(), registry.findByType(ServiceType.FOOD_BANK));
+        assertEquals(List.of(service), registry.findByType(ServiceType.SOUP_KITCHEN));
+        assertEquals(List.of(), registry.findByCity("Cork"));
+        assertEquals(List.of(service), registry.findByCity("Limerick"));
+    }
+
+    @Test
+    void deregisterRemovesOnlyTheRegisteredInstance() {
+        LocalService registered = service("Pantry", "Dublin", ServiceType.FOOD_PANTRY);
+        registry.register(registered);
+
+        assertFalse(registry.deregister(service("Pantry", "Dublin", ServiceType.FOOD_PANTRY)));
+        assertTrue(registry.deregister(registered));
+        assertEquals(0, registry.size());
+    }
+
+    @Test
+    void searchesLeaveTheCatalogIndexesAsTheyWere() {
+        for (int i = 0; i < 100; i++) {
+            registry.register(service("Catalog " + i, i % 2 == 0 ? "Dublin" : "Cork",
+                    ServiceType.values()[i % ServiceType.values().length]));
+        }
+        User user = new User();
+        user.setUsername("searcher");
+        user.setLocation("Dublin");
+        List<LocalService> dublin = registry.findByCity("Dublin");
+        List<LocalService> foodBanks = registry.findByType(ServiceType.FOOD_BANK);
+
+        for (int search = 0; search < 1_000; search++) {
+            // What a search click does: build throwaway result rows, then query the catalog
+            for (int i = 1; i <= 21; i++) {
+                service("Service " + i, "Dublin", ServiceType.FOOD_BANK);
+            }
+            LocalService.findNearbyServicesForUser(user, 10);
+            LocalService.findFoodDonationServices();
+            registry.findByCity("Dublin");
+            registry.findByType(ServiceType.FOOD_BANK);
+        }
+
+        // Nothing built during a search is held by the registry, so it cannot grow with use
+        assertEquals(100, registry.size());
+        assertEquals(null, registry.get("Service 1"));
+        assertEquals(dublin, registry.findByCity("Dublin"));
+        assertEquals(foodBanks, registry.findByType(ServiceType.FOOD_BANK));
+    }
+}